@@ -0,0 +1,110 @@
+package net.corda.examples.workinsurance.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.CommandData;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.transactions.LedgerTransaction;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockServices;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static net.corda.examples.workinsurance.benchmarks.InsuranceFixtures.*;
+import static net.corda.testing.node.MockServicesKt.makeTestIdentityService;
+
+/**
+ * Measures InsuranceContract.verify for every command, against policies holding claimCount claims.
+ *
+ * The ledger transactions are resolved once per trial, so only the contract verification is measured. The
+ * adjudication transactions adjudicate one more pending proposal on top of the claimCount claims.
+ */
+@State(Scope.Benchmark)
+public class ContractVerifyBenchmark {
+
+    @Param({"0", "10", "100", "1000", "10000"})
+    public int claimCount;
+
+    private final InsuranceContract contract = new InsuranceContract();
+
+    private LedgerTransaction issueInsurance;
+    private LedgerTransaction addClaim;
+    private LedgerTransaction acceptClaim;
+    private LedgerTransaction rejectClaim;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        installSerializationEnvironment();
+        MockServices services = new MockServices(ImmutableList.of(CONTRACTS_PACKAGE), INSURER,
+                makeTestIdentityService(), INSUREE.getKeyPair());
+
+        List<Claim> history = claimHistory(claimCount);
+        Claim pending = proposal("Pending");
+        List<Claim> historyWithPending = new ArrayList<>(history);
+        historyWithPending.add(pending);
+
+        issueInsurance = ledgerTransaction(services, null, policy(history, 0), new InsuranceContract.Commands.IssueInsurance());
+
+        StateAndRef<InsuranceState> policy = issue(services, policy(history, 0));
+        addClaim = ledgerTransaction(services, policy,
+                policy.getState().getData().withAppendedClaims(singletonList(proposal("New"))),
+                new InsuranceContract.Commands.AddClaim());
+
+        StateAndRef<InsuranceState> policyWithPending = issue(services, policy(historyWithPending, 0));
+        acceptClaim = ledgerTransaction(services, policyWithPending,
+                policyWithPending.getState().getData().withAppendedClaims(singletonList(adjudication(pending, ClaimStatus.Accepted))),
+                new InsuranceContract.Commands.AcceptClaim());
+        rejectClaim = ledgerTransaction(services, policyWithPending,
+                policyWithPending.getState().getData().withAppendedClaims(singletonList(adjudication(pending, ClaimStatus.Rejected))),
+                new InsuranceContract.Commands.RejectClaim());
+    }
+
+    @Benchmark
+    public void verifyIssueInsurance() {
+        contract.verify(issueInsurance);
+    }
+
+    @Benchmark
+    public void verifyAddClaim() {
+        contract.verify(addClaim);
+    }
+
+    @Benchmark
+    public void verifyAcceptClaim() {
+        contract.verify(acceptClaim);
+    }
+
+    @Benchmark
+    public void verifyRejectClaim() {
+        contract.verify(rejectClaim);
+    }
+
+    // Records an issuance of the given policy, so that it can be resolved as the input of a ledger transaction.
+    private static StateAndRef<InsuranceState> issue(MockServices services, InsuranceState policy) {
+        TransactionBuilder builder = new TransactionBuilder(NOTARY.getParty())
+                .addOutputState(policy, InsuranceContract.ID)
+                .addCommand(new InsuranceContract.Commands.IssueInsurance(),
+                        ImmutableList.of(INSURER.getPublicKey(), INSUREE.getPublicKey()));
+        SignedTransaction issuance = services.signInitialTransaction(builder);
+        services.recordTransactions(issuance);
+        return issuance.getTx().outRef(0);
+    }
+
+    private static LedgerTransaction ledgerTransaction(MockServices services, StateAndRef<InsuranceState> input,
+                                                       InsuranceState output, CommandData command) {
+        TransactionBuilder builder = new TransactionBuilder(NOTARY.getParty())
+                .addOutputState(output, InsuranceContract.ID)
+                .addCommand(command, ImmutableList.of(INSURER.getPublicKey(), INSUREE.getPublicKey()));
+        if (input != null) {
+            builder.addInputState(input);
+        }
+        return builder.toLedgerTransaction(services);
+    }
+}
@@ -0,0 +1,76 @@
+package net.corda.examples.workinsurance.benchmarks;
+
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.serialization.internal.SerializationEnvironmentKt;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceDetail;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.examples.workinsurance.states.WorkerDetail;
+import net.corda.testing.core.TestIdentity;
+import net.corda.testing.internal.InternalSerializationTestHelpersKt;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Policies and claims shared by the benchmarks. A policy of a given size holds that many claim proposals, each with
+ * its own claim number.
+ */
+final class InsuranceFixtures {
+
+    static final TestIdentity INSURER = new TestIdentity(new CordaX500Name("AGS", "London", "GB"));
+    static final TestIdentity INSUREE = new TestIdentity(new CordaX500Name("HSJ", "New York", "US"));
+    static final TestIdentity NOTARY = new TestIdentity(new CordaX500Name("Notary", "London", "GB"));
+
+    static final String CONTRACTS_PACKAGE = "net.corda.examples.workinsurance.contracts";
+
+    private static final WorkerDetail WORKER_DETAIL = new WorkerDetail("policyNr", "Alfredo", "123456", "CSW");
+    private static final UniqueIdentifier POLICY_ID = new UniqueIdentifier("policyNr", UUID.nameUUIDFromBytes("policyNr".getBytes()));
+    private static final Date ACCIDENT_DATE = new Date(1570838400000L);
+
+    private InsuranceFixtures(){}
+
+    /**
+     * Installs the AMQP serialization environment of the node, needed to build and serialize transactions outside
+     * of a node.
+     */
+    static void installSerializationEnvironment() {
+        if (SerializationEnvironmentKt.getNodeSerializationEnv() == null) {
+            SerializationEnvironmentKt.setNodeSerializationEnv(InternalSerializationTestHelpersKt.createTestSerializationEnv());
+        }
+    }
+
+    static List<Claim> claimHistory(int claimCount) {
+        List<Claim> claims = new ArrayList<>(claimCount);
+        for (int index = 0; index < claimCount; index++) {
+            claims.add(proposal("N" + index));
+        }
+        return claims;
+    }
+
+    static Claim proposal(String claimNumber) {
+        return new Claim(claimNumber, "Minor accident", 200, ClaimStatus.Proposal, "internalPolicyNr",
+                ACCIDENT_DATE, ACCIDENT_DATE, AccidentType.WorkAccident, Module.DayHospital, null,
+                INSUREE.getParty(), INSURER.getParty());
+    }
+
+    static Claim adjudication(Claim proposal, ClaimStatus claimStatus) {
+        InsuranceDetail insuranceDetail = claimStatus == ClaimStatus.Accepted
+                ? new InsuranceDetail("InsuranceCompanyNr", "InsuranceCompanyPolicyNr", "Field")
+                : null;
+        return new Claim(proposal.getClaimNumber(), proposal.getClaimDescription(), proposal.getClaimAmount(), claimStatus,
+                proposal.getInternalPolicyNo(), proposal.getAccidentDate(), proposal.getEpisodeDate(),
+                proposal.getAccidentType(), proposal.getModule(), insuranceDetail, INSURER.getParty(), INSUREE.getParty());
+    }
+
+    static InsuranceState policy(List<Claim> claims, int previousClaimCount) {
+        return new InsuranceState(20000, 12, INSURER.getParty(), INSUREE.getParty(), WORKER_DETAIL, claims,
+                previousClaimCount, POLICY_ID);
+    }
+}
@@ -0,0 +1,50 @@
+package net.corda.examples.workinsurance.benchmarks;
+
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+import net.corda.examples.workinsurance.schema.ClaimPersistenceMode;
+import net.corda.examples.workinsurance.schema.InsuranceSchemaV1;
+import net.corda.examples.workinsurance.schema.InsuranceSchemaV2;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import org.openjdk.jmh.annotations.*;
+
+import static net.corda.examples.workinsurance.benchmarks.InsuranceFixtures.claimHistory;
+import static net.corda.examples.workinsurance.benchmarks.InsuranceFixtures.policy;
+
+/**
+ * Measures InsuranceState.generateMappedObject for a policy version which appended the last of its claimCount claims,
+ * per schema version and claim persistence mode.
+ */
+@State(Scope.Benchmark)
+public class MappedObjectBenchmark {
+
+    @Param({"0", "10", "100", "1000", "10000"})
+    public int claimCount;
+
+    @Param({"FULL", "DELTA"})
+    public String claimPersistenceMode;
+
+    @Param({"1", "2"})
+    public int schemaVersion;
+
+    private InsuranceState insuranceState;
+    private MappedSchema schema;
+
+    // The claim persistence mode is read once per JVM, which works as JMH runs every parameter set in its own fork.
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty(ClaimPersistenceMode.PROPERTY, claimPersistenceMode);
+        insuranceState = policy(claimHistory(claimCount), Math.max(claimCount - 1, 0));
+        schema = schemaVersion == 1 ? new InsuranceSchemaV1() : new InsuranceSchemaV2();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.clearProperty(ClaimPersistenceMode.PROPERTY);
+    }
+
+    @Benchmark
+    public PersistentState generateMappedObject() {
+        return insuranceState.generateMappedObject(schema);
+    }
+}
@@ -0,0 +1,53 @@
+package net.corda.examples.workinsurance.benchmarks;
+
+import net.corda.core.serialization.SerializationContext;
+import net.corda.core.serialization.SerializationDefaults;
+import net.corda.core.serialization.SerializationFactory;
+import net.corda.core.serialization.SerializedBytes;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import org.openjdk.jmh.annotations.*;
+
+import static net.corda.examples.workinsurance.benchmarks.InsuranceFixtures.*;
+
+/**
+ * Measures the AMQP serialization and deserialization of an InsuranceState holding claimCount claims, as done when
+ * the state travels in a transaction. The serialized size of the state is reported as the serializedBytes counter.
+ */
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"0", "10", "100", "1000", "10000"})
+    public int claimCount;
+
+    private SerializationFactory serializationFactory;
+    private SerializationContext serializationContext;
+    private InsuranceState insuranceState;
+    private SerializedBytes<InsuranceState> serializedState;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SerializedSize {
+        public long serializedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        installSerializationEnvironment();
+        serializationFactory = SerializationFactory.Companion.getDefaultFactory();
+        serializationContext = SerializationDefaults.INSTANCE.getP2P_CONTEXT();
+        insuranceState = policy(claimHistory(claimCount), 0);
+        serializedState = serializationFactory.serialize(insuranceState, serializationContext);
+    }
+
+    @Benchmark
+    public SerializedBytes<InsuranceState> serialize(SerializedSize serializedSize) {
+        SerializedBytes<InsuranceState> serialized = serializationFactory.serialize(insuranceState, serializationContext);
+        serializedSize.serializedBytes = serialized.getSize();
+        return serialized;
+    }
+
+    @Benchmark
+    public InsuranceState deserialize() {
+        return serializationFactory.deserialize(serializedState, InsuranceState.class, serializationContext);
+    }
+}
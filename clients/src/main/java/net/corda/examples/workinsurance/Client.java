@@ -1,36 +1,39 @@
 package net.corda.examples.workinsurance;
 
 import net.corda.client.rpc.CordaRPCClient;
+import net.corda.client.rpc.CordaRPCConnection;
 import net.corda.core.messaging.CordaRPCOps;
-import net.corda.core.node.NodeInfo;
-import net.corda.core.utilities.NetworkHostAndPort;
+import net.corda.examples.workinsurance.loadgen.LoadGeneratorOptions;
+import net.corda.examples.workinsurance.loadgen.OpenLoopLoadGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-
-import static net.corda.core.utilities.NetworkHostAndPort.parse;
-
 /**
- * Connects to a Corda node via RPC and performs RPC operations on the node.
+ * Connects to an insurer and an insuree node via RPC and offers them the claim lifecycle flows at a target rate.
  *
- * The RPC connection is configured using command line arguments.
+ * The RPC connections and the workload are configured using command line arguments, see {@link LoadGeneratorOptions}.
  */
 public class Client {
     private static final Logger logger = LoggerFactory.getLogger(Client.class);
 
-    public static void main(String[] args) {
-        // Create an RPC connection to the node.
-        if (args.length != 3) throw new IllegalArgumentException("Usage: Client <node address> <rpc username> <rpc password>");
-        final NetworkHostAndPort nodeAddress = parse(args[0]);
-        final String rpcUsername = args[1];
-        final String rpcPassword = args[2];
-        final CordaRPCClient client = new CordaRPCClient(nodeAddress);
-        final CordaRPCOps proxy = client.start(rpcUsername, rpcPassword).getProxy();
+    public static void main(String[] args) throws Exception {
+        final LoadGeneratorOptions options = LoadGeneratorOptions.parse(args);
+        logger.info("{}", options);
+
+        // Create the RPC connections to the nodes.
+        try (CordaRPCConnection insurer = new CordaRPCClient(options.getInsurer())
+                .start(options.getUser(), options.getPassword());
+             CordaRPCConnection insuree = new CordaRPCClient(options.getInsuree())
+                .start(options.getUser(), options.getPassword())) {
+            final CordaRPCOps insurerProxy = insurer.getProxy();
+            final CordaRPCOps insureeProxy = insuree.getProxy();
+            logger.info("Connected to {} and {}, {} nodes on the network",
+                    insurerProxy.nodeInfo().getLegalIdentities().get(0).getName(),
+                    insureeProxy.nodeInfo().getLegalIdentities().get(0).getName(),
+                    insurerProxy.networkMapSnapshot().size());
 
-        // Interact with the node.
-        // For example, here we print the nodes on the network.
-        final List<NodeInfo> nodes = proxy.networkMapSnapshot();
-        logger.info("{}", nodes);
+            final String summary = new OpenLoopLoadGenerator(options, insurerProxy, insureeProxy).run();
+            logger.info("Load generator summary{}{}", System.lineSeparator(), summary);
+        }
     }
-}
\ No newline at end of file
+}
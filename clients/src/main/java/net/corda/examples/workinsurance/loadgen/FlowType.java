@@ -0,0 +1,11 @@
+package net.corda.examples.workinsurance.loadgen;
+
+/**
+ * The flows of the claim lifecycle offered by the load generator.
+ */
+public enum FlowType {
+    ISSUE,
+    CLAIM,
+    ACCEPT,
+    REJECT
+}
@@ -0,0 +1,128 @@
+package net.corda.examples.workinsurance.loadgen;
+
+import net.corda.core.utilities.NetworkHostAndPort;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load generator, given as --name value pairs. Every option has a default matching the
+ * nodes of deployNodes.
+ */
+public final class LoadGeneratorOptions {
+
+    static final String USAGE = "Usage: Client [--insurer localhost:10006] [--insuree localhost:10009] [--user user1]"
+            + " [--password test] [--rate 50] [--duration 60] [--warmup 10] [--mix issue=1,claim=4,accept=2,reject=1]"
+            + " [--policies 100] [--starters 16] [--log build/loadgen/latency.hlog]";
+
+    private final NetworkHostAndPort insurer;
+    private final NetworkHostAndPort insuree;
+    private final String user;
+    private final String password;
+    private final double rate;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final Map<FlowType, Integer> mix;
+    private final int policies;
+    private final int starters;
+    private final Path histogramLog;
+
+    private LoadGeneratorOptions(Map<String, String> options) {
+        this.insurer = NetworkHostAndPort.parse(options.getOrDefault("insurer", "localhost:10006"));
+        this.insuree = NetworkHostAndPort.parse(options.getOrDefault("insuree", "localhost:10009"));
+        this.user = options.getOrDefault("user", "user1");
+        this.password = options.getOrDefault("password", "test");
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "50"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        this.mix = parseMix(options.getOrDefault("mix", "issue=1,claim=4,accept=2,reject=1"));
+        this.policies = Integer.parseInt(options.getOrDefault("policies", "100"));
+        this.starters = Integer.parseInt(options.getOrDefault("starters", "16"));
+        this.histogramLog = Paths.get(options.getOrDefault("log", "build/loadgen/latency.hlog"));
+        if (rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0 || policies < 1 || starters < 1) {
+            throw new IllegalArgumentException("rate, duration, policies and starters must be positive. " + USAGE);
+        }
+    }
+
+    public static LoadGeneratorOptions parse(String[] args) {
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int index = 0; index < args.length; index += 2) {
+            if (!args[index].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[index] + ". " + USAGE);
+            }
+            options.put(args[index].substring(2), args[index + 1]);
+        }
+        return new LoadGeneratorOptions(options);
+    }
+
+    private static Map<FlowType, Integer> parseMix(String mix) {
+        Map<FlowType, Integer> weights = new EnumMap<>(FlowType.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Expected flow=weight in --mix, got " + entry);
+            }
+            weights.put(FlowType.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix must give a positive weight to a flow");
+        }
+        return weights;
+    }
+
+    public NetworkHostAndPort getInsurer() {
+        return insurer;
+    }
+
+    public NetworkHostAndPort getInsuree() {
+        return insuree;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public Map<FlowType, Integer> getMix() {
+        return mix;
+    }
+
+    public int getPolicies() {
+        return policies;
+    }
+
+    public int getStarters() {
+        return starters;
+    }
+
+    public Path getHistogramLog() {
+        return histogramLog;
+    }
+
+    @Override
+    public String toString() {
+        return "insurer=" + insurer + " insuree=" + insuree + " rate=" + rate + "/s duration=" + durationSeconds
+                + "s warmup=" + warmupSeconds + "s mix=" + mix + " policies=" + policies + " starters=" + starters;
+    }
+}
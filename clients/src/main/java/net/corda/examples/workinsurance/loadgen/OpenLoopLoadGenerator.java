@@ -0,0 +1,317 @@
+package net.corda.examples.workinsurance.loadgen;
+
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.FlowHandle;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceAcceptanceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceRejectClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offers the claim lifecycle flows to an insurer and an insuree node at a fixed rate, whatever their response times.
+ *
+ * The arrivals are scheduled at regular intervals of the target rate and handed to a pool of starter threads, which
+ * start the flows over RPC. The latency of a flow is measured from its scheduled arrival to its end, so the time spent
+ * waiting for a starter is counted instead of silently lowering the offered rate. Once the nodes saturate, the achieved
+ * throughput falls behind the offered one and the latencies climb.
+ *
+ * The policies are issued before the run. Claims go to the policies in turn, accept and reject take the oldest claim
+ * still proposed (or file a claim if there is none), and issue adds a new policy. The latencies of every flow type are
+ * written to an HdrHistogram log, an interval a second, tagged with the flow type.
+ */
+public final class OpenLoopLoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(OpenLoopLoadGenerator.class);
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final InsuranceDetailInfo INSURANCE_DETAIL = new InsuranceDetailInfo("CompNr", "PolNr", "field");
+    private static final Date ACCIDENT_DATE = new Date(119, 9, 12);
+
+    private final LoadGeneratorOptions options;
+    private final CordaRPCOps insurer;
+    private final CordaRPCOps insuree;
+    private final Party insureeParty;
+    // Policy and claim numbers of this run are unique across runs against the same nodes.
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final List<String> policies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextPolicy = new AtomicInteger();
+    private final AtomicInteger policyNumbers = new AtomicInteger();
+    private final AtomicInteger claimNumbers = new AtomicInteger();
+    private final Queue<String[]> proposedClaims = new ConcurrentLinkedQueue<>();
+
+    private final Map<FlowType, Recorder> recorders = new EnumMap<>(FlowType.class);
+    private final Map<FlowType, Histogram> totals = new EnumMap<>(FlowType.class);
+    private final Map<FlowType, LongAdder> offered = new EnumMap<>(FlowType.class);
+    private final Map<FlowType, LongAdder> completed = new EnumMap<>(FlowType.class);
+    private final Map<FlowType, LongAdder> failed = new EnumMap<>(FlowType.class);
+    private final Map<String, LongAdder> failureCauses = new ConcurrentHashMap<>();
+    private final AtomicLong maxStartLagNanos = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OpenLoopLoadGenerator(LoadGeneratorOptions options, CordaRPCOps insurer, CordaRPCOps insuree) {
+        this.options = options;
+        this.insurer = insurer;
+        this.insuree = insuree;
+        this.insureeParty = insuree.nodeInfo().getLegalIdentities().get(0);
+        for (FlowType type : FlowType.values()) {
+            recorders.put(type, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            totals.put(type, new Histogram(HIGHEST_TRACKABLE_MICROS, 3));
+            offered.put(type, new LongAdder());
+            completed.put(type, new LongAdder());
+            failed.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Issues the policies, offers the load for the warmup and the measured duration, waits for the flows in flight
+     * and returns the summary of the measured duration.
+     */
+    public String run() throws Exception {
+        ExecutorService starters = Executors.newFixedThreadPool(options.getStarters());
+        ScheduledExecutorService logTicker = Executors.newSingleThreadScheduledExecutor();
+        try {
+            issuePolicies(starters);
+
+            Files.createDirectories(options.getHistogramLog().toAbsolutePath().getParent());
+            try (PrintStream log = new PrintStream(Files.newOutputStream(options.getHistogramLog()))) {
+                HistogramLogWriter logWriter = new HistogramLogWriter(log);
+                long logStart = System.currentTimeMillis();
+                logWriter.outputLogFormatVersion();
+                logWriter.outputStartTime(logStart);
+                logWriter.setBaseTime(logStart);
+                logWriter.outputLegend();
+                logTicker.scheduleAtFixedRate(() -> writeIntervals(logWriter), 1, 1, TimeUnit.SECONDS);
+
+                offer(starters);
+                awaitInFlight();
+                logTicker.shutdown();
+                logTicker.awaitTermination(5, TimeUnit.SECONDS);
+                writeIntervals(logWriter);
+            }
+            return summary();
+        } finally {
+            logTicker.shutdownNow();
+            starters.shutdownNow();
+        }
+    }
+
+    private void issuePolicies(ExecutorService starters) throws InterruptedException {
+        logger.info("Issuing {} policies", options.getPolicies());
+        CountDownLatch issued = new CountDownLatch(options.getPolicies());
+        for (int index = 0; index < options.getPolicies(); index++) {
+            starters.execute(() -> {
+                String policyNumber = newPolicyNumber();
+                try {
+                    startIssue(policyNumber).getReturnValue().get();
+                    policies.add(policyNumber);
+                } catch (Exception e) {
+                    logger.warn("Unable to issue policy {}: {}", policyNumber, e.getMessage());
+                } finally {
+                    issued.countDown();
+                }
+            });
+        }
+        issued.await();
+        if (policies.isEmpty()) {
+            throw new IllegalStateException("No policy could be issued, check the insurer and insuree nodes");
+        }
+    }
+
+    private void offer(ExecutorService starters) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        logger.info("Offering {} flows a second for {}s of warmup and {}s measured", options.getRate(),
+                options.getWarmupSeconds(), options.getDurationSeconds());
+        for (long arrival = 0; ; arrival++) {
+            long scheduled = start + arrival * intervalNanos;
+            if (scheduled >= end) {
+                return;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = scheduled >= measureFrom;
+            FlowType type = pick();
+            if (measured) {
+                offered.get(type).increment();
+            }
+            inFlight.incrementAndGet();
+            starters.execute(() -> launch(type, scheduled, measured));
+        }
+    }
+
+    private FlowType pick() {
+        int total = options.getMix().values().stream().mapToInt(Integer::intValue).sum();
+        int draw = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<FlowType, Integer> weight : options.getMix().entrySet()) {
+            draw -= weight.getValue();
+            if (draw < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private void launch(FlowType type, long scheduled, boolean measured) {
+        long startLag = System.nanoTime() - scheduled;
+        if (measured) {
+            maxStartLagNanos.accumulateAndGet(startLag, Math::max);
+        }
+        Runnable onSuccess;
+        FlowHandle<SignedTransaction> handle;
+        try {
+            String[] claim = type == FlowType.ACCEPT || type == FlowType.REJECT ? proposedClaims.poll() : null;
+            if (type == FlowType.ISSUE) {
+                String policyNumber = newPolicyNumber();
+                handle = startIssue(policyNumber);
+                onSuccess = () -> policies.add(policyNumber);
+            } else if (claim == null) {
+                // A claim, or an adjudication with no claim left to adjudicate.
+                String policyNumber = policies.get(Math.floorMod(nextPolicy.getAndIncrement(), policies.size()));
+                String claimNumber = runId + "-c" + claimNumbers.incrementAndGet();
+                handle = insuree.startFlowDynamic(InsuranceClaimFlow.InsuranceClaimInitiator.class,
+                        claimInfo(claimNumber), policyNumber);
+                onSuccess = () -> proposedClaims.add(new String[]{policyNumber, claimNumber});
+            } else if (type == FlowType.ACCEPT) {
+                handle = insurer.startFlowDynamic(InsuranceAcceptanceClaimFlow.InsuranceAcceptanceClaimInitiator.class,
+                        INSURANCE_DETAIL, claim[0], claim[1], insureeParty);
+                onSuccess = () -> { };
+            } else {
+                handle = insurer.startFlowDynamic(InsuranceRejectClaimFlow.InsuranceRejectClaimInitiator.class,
+                        claim[0], claim[1], insureeParty);
+                onSuccess = () -> { };
+            }
+        } catch (Exception e) {
+            finished(type, scheduled, measured, e);
+            return;
+        }
+        CordaFuture<SignedTransaction> result = handle.getReturnValue();
+        result.then(done -> {
+            try {
+                done.get();
+                onSuccess.run();
+                finished(type, scheduled, measured, null);
+            } catch (ExecutionException e) {
+                finished(type, scheduled, measured, e.getCause() != null ? e.getCause() : e);
+            } catch (Exception e) {
+                finished(type, scheduled, measured, e);
+            } finally {
+                handle.close();
+            }
+            return null;
+        });
+    }
+
+    private void finished(FlowType type, long scheduled, boolean measured, Throwable failure) {
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+        if (measured) {
+            if (failure == null) {
+                completed.get(type).increment();
+                recorders.get(type).recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+            } else {
+                failed.get(type).increment();
+                failureCauses.computeIfAbsent(failure.getClass().getSimpleName(), cause -> new LongAdder()).increment();
+            }
+        }
+        inFlight.decrementAndGet();
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        if (inFlight.get() > 0) {
+            logger.warn("{} flows still in flight after the run, they are not counted", inFlight.get());
+        }
+    }
+
+    private synchronized void writeIntervals(HistogramLogWriter logWriter) {
+        for (FlowType type : FlowType.values()) {
+            Histogram interval = recorders.get(type).getIntervalHistogram();
+            totals.get(type).add(interval);
+            if (interval.getTotalCount() > 0) {
+                interval.setTag(type.toString());
+                logWriter.outputIntervalHistogram(interval);
+            }
+        }
+    }
+
+    private synchronized String summary() {
+        double seconds = options.getDurationSeconds();
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%-6s %9s %10s %9s %7s %9s %9s %9s %9s%n",
+                "flow", "offered/s", "achieved/s", "completed", "failed", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        long totalOffered = 0;
+        long totalCompleted = 0;
+        for (FlowType type : FlowType.values()) {
+            Histogram histogram = totals.get(type);
+            long typeOffered = offered.get(type).sum();
+            long typeCompleted = completed.get(type).sum();
+            totalOffered += typeOffered;
+            totalCompleted += typeCompleted;
+            if (typeOffered == 0 && typeCompleted == 0) {
+                continue;
+            }
+            summary.append(String.format("%-6s %9.1f %10.1f %9d %7d %9.1f %9.1f %9.1f %9.1f%n",
+                    type, typeOffered / seconds, typeCompleted / seconds, typeCompleted, failed.get(type).sum(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue())));
+        }
+        summary.append(String.format("Offered %.1f flows/s, achieved %.1f flows/s (%.0f%%), max start lag %.1f ms%n",
+                totalOffered / seconds, totalCompleted / seconds,
+                totalOffered == 0 ? 0 : 100.0 * totalCompleted / totalOffered,
+                TimeUnit.NANOSECONDS.toMicros(maxStartLagNanos.get()) / 1000.0));
+        if (!failureCauses.isEmpty()) {
+            summary.append("Failures:");
+            failureCauses.forEach((cause, count) -> summary.append(' ').append(cause).append('=').append(count.sum()));
+            summary.append(System.lineSeparator());
+        }
+        summary.append("Latency log: ").append(options.getHistogramLog().toAbsolutePath()).append(System.lineSeparator());
+        return summary.toString();
+    }
+
+    private FlowHandle<SignedTransaction> startIssue(String policyNumber) {
+        InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20,
+                new WorkerInfo(policyNumber, "Worker " + policyNumber, "123456", "CSW"));
+        return insurer.startFlowDynamic(IssueInsuranceFlow.IssueInsuranceInitiator.class, insuranceInfo, insureeParty);
+    }
+
+    private String newPolicyNumber() {
+        return runId + "-p" + policyNumbers.incrementAndGet();
+    }
+
+    private static ClaimInfo claimInfo(String claimNumber) {
+        return new ClaimInfo(claimNumber, "Minor accident", 200, "internalPolicyNr", ACCIDENT_DATE, ACCIDENT_DATE,
+                AccidentType.WorkAccident, "DayHospital");
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
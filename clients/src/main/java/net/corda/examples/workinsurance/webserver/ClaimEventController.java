@@ -0,0 +1,32 @@
+package net.corda.examples.workinsurance.webserver;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent events API of the claim status changes, so clients need not poll for the adjudication of their claims.
+ */
+@RestController
+public class ClaimEventController {
+
+    private final ClaimStatusFeed claimStatusFeed;
+    private final PartyResolver partyResolver;
+
+    public ClaimEventController(ClaimStatusFeed claimStatusFeed, PartyResolver partyResolver) {
+        this.claimStatusFeed = claimStatusFeed;
+        this.partyResolver = partyResolver;
+    }
+
+    /*
+     * API to follow the status changes of the claims of a policy, of the policies of an insuree, or of every policy
+     * when neither is given. Each change is a "claimStatus" event.
+     **/
+    @GetMapping(value = "/claims/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    private SseEmitter claimEvents(@RequestParam(required = false) String policyNumber,
+                                   @RequestParam(required = false) String insuree) {
+        return claimStatusFeed.subscribe(policyNumber, insuree == null ? null : partyResolver.resolve(insuree));
+    }
+}
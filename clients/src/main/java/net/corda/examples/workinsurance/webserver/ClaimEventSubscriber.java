@@ -0,0 +1,129 @@
+package net.corda.examples.workinsurance.webserver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * A client of the claim status feed, with its own bounded buffer of events.
+ *
+ * The feed only appends to the buffer, and the events are written to the client by a sender thread, so a slow client
+ * never holds up the feed or the other clients' buffers. When the buffer is full the oldest event is dropped. With the
+ * CONFLATE overflow policy a new event of a claim first replaces the buffered event of the same claim, so a slow
+ * client still gets the latest status of every claim. The client is told how many events it missed by a "dropped"
+ * event, and can catch up with the read APIs.
+ */
+class ClaimEventSubscriber {
+    private final static Logger logger = LoggerFactory.getLogger(ClaimEventSubscriber.class);
+
+    // What a subscriber does with a new event when its buffer is full.
+    enum Overflow {
+        DROP_OLDEST,
+        CONFLATE
+    }
+
+    private final SseEmitter emitter;
+    private final Predicate<ClaimStatusEvent> filter;
+    private final int bufferSize;
+    private final Overflow overflow;
+    private final Executor sender;
+
+    // Buffered events in arrival order, by claim key when conflating and by sequence otherwise.
+    private final Map<Object, ClaimStatusEvent> buffer = new LinkedHashMap<>();
+    private long dropped;
+    private boolean sending;
+    private volatile boolean closed;
+
+    ClaimEventSubscriber(SseEmitter emitter, Predicate<ClaimStatusEvent> filter, int bufferSize, Overflow overflow,
+                         Executor sender) {
+        this.emitter = emitter;
+        this.filter = filter;
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+        this.sender = sender;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * Buffers the event if the subscriber wants it, and schedules the buffer to be sent. Never blocks.
+     */
+    void offer(ClaimStatusEvent event) {
+        if (closed || !filter.test(event)) {
+            return;
+        }
+        boolean schedule;
+        synchronized (this) {
+            if (overflow == Overflow.CONFLATE) {
+                ClaimStatusEvent older = buffer.remove(event.claimKey());
+                buffer.put(event.claimKey(), older != null ? event.conflating(older) : event);
+            } else {
+                buffer.put(event.getSequence(), event);
+            }
+            if (buffer.size() > bufferSize) {
+                Iterator<ClaimStatusEvent> oldest = buffer.values().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped++;
+            }
+            schedule = !sending;
+            sending = true;
+        }
+        if (schedule) {
+            sender.execute(this::send);
+        }
+    }
+
+    // Sends the buffered events until the buffer is empty. At most one send runs at a time for a subscriber.
+    private void send() {
+        while (!closed) {
+            List<ClaimStatusEvent> events;
+            long missed;
+            synchronized (this) {
+                if (buffer.isEmpty() && dropped == 0) {
+                    sending = false;
+                    return;
+                }
+                events = new ArrayList<>(buffer.values());
+                missed = dropped;
+                buffer.clear();
+                dropped = 0;
+            }
+            try {
+                if (missed > 0) {
+                    emitter.send(SseEmitter.event().name("dropped").data(missed));
+                }
+                for (ClaimStatusEvent event : events) {
+                    emitter.send(SseEmitter.event().id(Long.toString(event.getSequence())).name("claimStatus").data(event));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, or the emitter already completed.
+                logger.debug("Closing claim event subscriber: " + e.getMessage());
+                closed = true;
+                emitter.completeWithError(e);
+            }
+        }
+        synchronized (this) {
+            sending = false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+
+/**
+ * Immutable change of the status of a claim made against a policy, as published by the ClaimStatusFeed. A claim first
+ * seen on the policy has no previous status.
+ */
+public class ClaimStatusEvent {
+
+    private final long sequence;
+    private final String policyId;
+    private final String policyNumber;
+    private final String claimNumber;
+    private final ClaimStatus previousStatus;
+    private final ClaimStatus status;
+    private final String insurer;
+    private final String insuree;
+    private final String transactionId;
+
+    public ClaimStatusEvent(long sequence, String policyId, String policyNumber, String claimNumber,
+                            ClaimStatus previousStatus, ClaimStatus status, String insurer, String insuree,
+                            String transactionId) {
+        this.sequence = sequence;
+        this.policyId = policyId;
+        this.policyNumber = policyNumber;
+        this.claimNumber = claimNumber;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.insurer = insurer;
+        this.insuree = insuree;
+        this.transactionId = transactionId;
+    }
+
+    /**
+     * This event with the previous status of an older event of the same claim, which it replaces in a conflated buffer.
+     */
+    ClaimStatusEvent conflating(ClaimStatusEvent older) {
+        return new ClaimStatusEvent(sequence, policyId, policyNumber, claimNumber, older.previousStatus, status,
+                insurer, insuree, transactionId);
+    }
+
+    // Identifies the claim of the event, claim numbers are only unique within a policy.
+    String claimKey() {
+        return policyNumber + '/' + claimNumber;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getPolicyId() {
+        return policyId;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public String getClaimNumber() {
+        return claimNumber;
+    }
+
+    public ClaimStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public ClaimStatus getStatus() {
+        return status;
+    }
+
+    public String getInsurer() {
+        return insurer;
+    }
+
+    public String getInsuree() {
+        return insuree;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+}
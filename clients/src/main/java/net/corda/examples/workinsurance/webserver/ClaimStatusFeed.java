@@ -0,0 +1,165 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import rx.Subscription;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Publishes the changes of claim status of the node's policies to the subscribed clients.
+ *
+ * A single vaultTrackBy subscription serves every client. Each vault update is diffed policy by policy, the claims of
+ * the consumed policy version against those of the produced one, into an event for every claim which is new or has a
+ * new status. The events are handed to the subscribers matching them, each of which buffers and sends them on its own.
+ */
+@Component
+public class ClaimStatusFeed {
+    private final static Logger logger = LoggerFactory.getLogger(ClaimStatusFeed.class);
+
+    private final CordaRPCOps proxy;
+    private final int bufferSize;
+    private final ClaimEventSubscriber.Overflow overflow;
+    private final long timeoutMillis;
+    private final ExecutorService sender;
+
+    private final List<ClaimEventSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private Subscription vaultSubscription;
+
+    public ClaimStatusFeed(NodeRPCConnection rpc,
+                           @Value("${config.events.bufferSize:256}") int bufferSize,
+                           @Value("${config.events.overflow:CONFLATE}") ClaimEventSubscriber.Overflow overflow,
+                           @Value("${config.events.timeoutMillis:0}") long timeoutMillis,
+                           @Value("${config.events.senderThreads:2}") int senderThreads) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("config.events.bufferSize must be at least 1");
+        }
+        this.proxy = rpc.proxy;
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "claim-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        // Only the changes matter: the snapshot is limited to a single state, as a vault with more unconsumed policies
+        // than the default page size would otherwise fail the subscription.
+        vaultSubscription = proxy.vaultTrackBy(new QueryCriteria.VaultQueryCriteria(), new PageSpecification(1, 1),
+                new Sort(Collections.emptySet()), InsuranceState.class).getUpdates().subscribe(this::onVaultUpdate,
+                error -> logger.warn("Insurance vault feed failed: " + error.getMessage()));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (vaultSubscription != null) {
+            vaultSubscription.unsubscribe();
+        }
+        subscribers.forEach(subscriber -> {
+            subscriber.close();
+            subscriber.getEmitter().complete();
+        });
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Subscribes a client to the events of the given policy and insuree, either of which may be null to match any.
+     */
+    public SseEmitter subscribe(String policyNumber, Party insuree) {
+        Predicate<ClaimStatusEvent> filter = event ->
+                (policyNumber == null || policyNumber.equals(event.getPolicyNumber()))
+                        && (insuree == null || insuree.getName().toString().equals(event.getInsuree()));
+        // A timeout of 0 keeps the stream open until the client leaves.
+        SseEmitter emitter = new SseEmitter(timeoutMillis > 0 ? timeoutMillis : -1L);
+        ClaimEventSubscriber subscriber = new ClaimEventSubscriber(emitter, filter, bufferSize, overflow, sender);
+        Runnable remove = () -> {
+            subscriber.close();
+            subscribers.remove(subscriber);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * The number of clients subscribed to the feed.
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void onVaultUpdate(Vault.Update<InsuranceState> update) {
+        Map<UniqueIdentifier, InsuranceState> consumedPolicies = new HashMap<>();
+        for (StateAndRef<InsuranceState> consumed : update.getConsumed()) {
+            consumedPolicies.put(consumed.getState().getData().getLinearId(), consumed.getState().getData());
+        }
+        for (StateAndRef<InsuranceState> produced : update.getProduced()) {
+            InsuranceState policy = produced.getState().getData();
+            List<ClaimStatusEvent> events = diff(consumedPolicies.get(policy.getLinearId()), policy,
+                    produced.getRef().getTxhash().toString());
+            for (ClaimStatusEvent event : events) {
+                subscribers.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+    }
+
+    // An event for every claim of the produced policy version which the consumed one lacks or has in another status.
+    private List<ClaimStatusEvent> diff(InsuranceState consumed, InsuranceState produced, String transactionId) {
+        Map<String, Claim> previousClaims = latestClaims(consumed);
+        Map<String, Claim> claims = latestClaims(produced);
+        List<ClaimStatusEvent> events = new ArrayList<>();
+        for (Claim claim : claims.values()) {
+            Claim previous = previousClaims.get(claim.getClaimNumber());
+            if (previous == null || previous.getClaimStatus() != claim.getClaimStatus()) {
+                events.add(new ClaimStatusEvent(sequence.incrementAndGet(), produced.getLinearId().toString(),
+                        produced.getWorkerDetail().getPolicyNumber(), claim.getClaimNumber(),
+                        previous == null ? null : previous.getClaimStatus(), claim.getClaimStatus(),
+                        produced.getInsurer().getName().toString(), produced.getInsuree().getName().toString(),
+                        transactionId));
+            }
+        }
+        return events;
+    }
+
+    // The latest claim of every claim number of the policy, in the order the claim numbers were first claimed.
+    private static Map<String, Claim> latestClaims(InsuranceState policy) {
+        if (policy == null || policy.getClaims() == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Claim> latestClaims = new LinkedHashMap<>();
+        for (Claim claim : policy.getClaims()) {
+            latestClaims.put(claim.getClaimNumber(), claim);
+        }
+        return latestClaims;
+    }
+}
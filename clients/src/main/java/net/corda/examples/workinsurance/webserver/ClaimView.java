@@ -0,0 +1,149 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.core.contracts.StateAndRef;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+import net.corda.examples.workinsurance.flows.models.PolicyClaim;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.ClaimState;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Read model of an unconsumed ClaimState, or of the latest claim of a claim number on an unconsumed policy, returned
+ * by the claim read APIs.
+ */
+public class ClaimView {
+
+    private final String claimId;
+    private final String policyNumber;
+    private final String claimNumber;
+    private final String claimDescription;
+    private final int claimAmount;
+    private final ClaimStatus claimStatus;
+    private final String internalPolicyNo;
+    private final Date accidentDate;
+    private final Date episodeDate;
+    private final AccidentType accidentType;
+    private final Module module;
+    private final String insurer;
+    private final String insuree;
+
+    public ClaimView(String claimId, String policyNumber, String claimNumber, String claimDescription, int claimAmount,
+                     ClaimStatus claimStatus, String internalPolicyNo, Date accidentDate, Date episodeDate,
+                     AccidentType accidentType, Module module, String insurer, String insuree) {
+        this.claimId = claimId;
+        this.policyNumber = policyNumber;
+        this.claimNumber = claimNumber;
+        this.claimDescription = claimDescription;
+        this.claimAmount = claimAmount;
+        this.claimStatus = claimStatus;
+        this.internalPolicyNo = internalPolicyNo;
+        this.accidentDate = accidentDate;
+        this.episodeDate = episodeDate;
+        this.accidentType = accidentType;
+        this.module = module;
+        this.insurer = insurer;
+        this.insuree = insuree;
+    }
+
+    static ClaimView of(StateAndRef<ClaimState> stateAndRef) {
+        ClaimState claimState = stateAndRef.getState().getData();
+        Claim claim = claimState.getClaim();
+        return new ClaimView(claimState.getLinearId().toString(), claimState.getPolicyNumber(), claim.getClaimNumber(),
+                claim.getClaimDescription(), claim.getClaimAmount(), claim.getClaimStatus(), claim.getInternalPolicyNo(),
+                claim.getAccidentDate(), claim.getEpisodeDate(), claim.getAccidentType(), claim.getModule(),
+                claimState.getInsurer().getName().toString(), claimState.getInsuree().getName().toString());
+    }
+
+    /**
+     * View of a claim embedded in a policy, read from the claim rows by the node. It has no claimId either.
+     */
+    static ClaimView of(PolicyClaim policyClaim) {
+        return new ClaimView(null, policyClaim.getPolicyNumber(), policyClaim.getClaimNumber(),
+                policyClaim.getClaimDescription(), policyClaim.getClaimAmount(), policyClaim.getClaimStatus(),
+                policyClaim.getInternalPolicyNo(), policyClaim.getAccidentDate(), policyClaim.getEpisodeDate(),
+                policyClaim.getAccidentType(), policyClaim.getModule(), policyClaim.getInsurer(), policyClaim.getInsuree());
+    }
+
+    /**
+     * View of a claim embedded in a policy. It has no claimId, only ClaimStates have one.
+     */
+    static ClaimView of(InsuranceState policy, Claim claim) {
+        return new ClaimView(null, policy.getWorkerDetail().getPolicyNumber(), claim.getClaimNumber(),
+                claim.getClaimDescription(), claim.getClaimAmount(), claim.getClaimStatus(), claim.getInternalPolicyNo(),
+                claim.getAccidentDate(), claim.getEpisodeDate(), claim.getAccidentType(), claim.getModule(),
+                policy.getInsurer().getName().toString(), policy.getInsuree().getName().toString());
+    }
+
+    /**
+     * Views of the claims embedded in a policy, the latest claim of every claim number, as the claims appended later
+     * supersede the earlier claims of their claim number.
+     */
+    static List<ClaimView> ofPolicy(InsuranceState policy) {
+        Map<String, Claim> latestClaims = new LinkedHashMap<>();
+        if (policy.getClaims() != null) {
+            policy.getClaims().forEach(claim -> latestClaims.put(claim.getClaimNumber(), claim));
+        }
+        return latestClaims.values().stream().map(claim -> of(policy, claim)).collect(toList());
+    }
+
+    public String getClaimId() {
+        return claimId;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public String getClaimNumber() {
+        return claimNumber;
+    }
+
+    public String getClaimDescription() {
+        return claimDescription;
+    }
+
+    public int getClaimAmount() {
+        return claimAmount;
+    }
+
+    public ClaimStatus getClaimStatus() {
+        return claimStatus;
+    }
+
+    public String getInternalPolicyNo() {
+        return internalPolicyNo;
+    }
+
+    public Date getAccidentDate() {
+        return accidentDate;
+    }
+
+    public Date getEpisodeDate() {
+        return episodeDate;
+    }
+
+    public AccidentType getAccidentType() {
+        return accidentType;
+    }
+
+    public Module getModule() {
+        return module;
+    }
+
+    public String getInsurer() {
+        return insurer;
+    }
+
+    public String getInsuree() {
+        return insuree;
+    }
+}
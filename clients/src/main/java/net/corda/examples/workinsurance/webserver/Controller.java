@@ -1,92 +1,256 @@
 package net.corda.examples.workinsurance.webserver;
 
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.flows.FlowLogic;
 import net.corda.core.identity.Party;
 import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.FlowHandle;
+import net.corda.core.messaging.FlowProgressHandle;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.implementations.BatchInsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.BulkAdjudicationClaimFlow;
 import net.corda.examples.workinsurance.flows.implementations.InsuranceAcceptanceClaimFlow;
 import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
 import net.corda.examples.workinsurance.flows.implementations.InsuranceRejectClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceBatchFlow;
 import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.implementations.MailboxAdjudicationClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.MailboxInsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimDecisionInfo;
 import net.corda.examples.workinsurance.flows.models.ClaimInfo;
 import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
 import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Set;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+import static java.util.stream.Collectors.toList;
 
 /**
  * Define your API endpoints here.
+ *
+ * The flow APIs answer with a CompletableFuture bridged from the flow's CordaFuture, so no servlet thread waits for a
+ * flow to end. The response carries the id of the recorded transaction, failures are answered by FlowExceptionHandler.
+ * Every flow started here is registered as a job in the FlowJobRegistry. With async=true the APIs answer 202 Accepted
+ * with the job as soon as the flow is started, its status is then read from the /jobs APIs.
  */
 @RestController
 @RequestMapping("/") // The paths for HTTP requests are relative to this base path.
 public class Controller {
     private final CordaRPCOps proxy;
+    private final FlowJobRegistry jobRegistry;
+    private final PartyResolver partyResolver;
     private final static Logger logger = LoggerFactory.getLogger(Controller.class);
 
-    public Controller(NodeRPCConnection rpc) {
+    public Controller(NodeRPCConnection rpc, FlowJobRegistry jobRegistry, PartyResolver partyResolver) {
         this.proxy = rpc.proxy;
+        this.jobRegistry = jobRegistry;
+        this.partyResolver = partyResolver;
     }
 
     /*
-    * API to trigger the Insurance Issuance flow.
+    * API to trigger the Insurance Issuance flow. It returns the transaction id and the policyId of the issued
+    * insurance, which identifies the policy in the policyId based APIs.
     **/
     @PostMapping(value = "/workerInsurance/{insuree}")
-    private String workerSale(@RequestBody InsuranceInfo insuranceInfo, @PathVariable String insuree) {
+    private CompletableFuture<ResponseEntity<?>> workerSale(@RequestBody InsuranceInfo insuranceInfo, @PathVariable String insuree, @RequestParam(defaultValue = "false") boolean async) {
 
         // Get the Party object from the partyName.
-        Set<Party> matchingParties = proxy.partiesFromName(insuree, false);
+        Party insureeParty = partyFromName(insuree);
 
         // Trigger IssueInsuranceInitiator flow.
-        proxy.startFlowDynamic(IssueInsuranceFlow.IssueInsuranceInitiator.class, insuranceInfo,
-                matchingParties.iterator().next());
-        return "Issue Insurance Completed";
+        return transactionOf(start(IssueInsuranceFlow.IssueInsuranceInitiator.class, insuranceInfo,
+                insureeParty), async);
+    }
+
+    /*
+     * API to trigger the Insurance Batch Issuance flow. It issues the policies of all the given workers of the insuree
+     * in a few size bounded transactions, and returns every transaction with the policyIds of the insurances it issued.
+     **/
+    @PostMapping(value = "/workerInsurance/batch/{insuree}")
+    private CompletableFuture<ResponseEntity<?>> workersSale(@RequestBody List<InsuranceInfo> insuranceInfos, @PathVariable String insuree, @RequestParam(defaultValue = "false") boolean async) {
+
+        // Get the Party object from the partyName.
+        Party insureeParty = partyFromName(insuree);
+
+        // Trigger IssueInsuranceBatchInitiator flow.
+        return respond(start(IssueInsuranceBatchFlow.IssueInsuranceBatchInitiator.class, insuranceInfos,
+                insureeParty), async, (jobId, signedTransactions) -> signedTransactions.stream()
+                .map(signedTransaction -> TransactionResponse.of(jobId, signedTransaction)).collect(toList()));
     }
 
     /*
      * API to trigger the Insurance Claim flow. It accepts the claim containing details of the claim and the
-     * policyNumber of the insurance in passed as path variable.
+     * policyNumber of the insurance in passed as path variable. With queued=true the claim goes through the policy's
+     * mailbox, and is group committed with the other claims filed concurrently on the policy.
      **/
     @PostMapping(value = "/workerInsurance/claim/{policyNumber}")
-    private String claim(@RequestBody ClaimInfo claimInfo, @PathVariable String policyNumber) {
+    private CompletableFuture<ResponseEntity<?>> claim(@RequestBody ClaimInfo claimInfo, @PathVariable String policyNumber, @RequestParam(defaultValue = "false") boolean async, @RequestParam(defaultValue = "false") boolean queued) {
 
         logger.warn("ENTROU CONTROLLER");
 
+        if (queued) {
+            return transactionOf(start(MailboxInsuranceClaimFlow.class, claimInfo, policyNumber), async);
+        }
         // Trigger InsuranceClaimInitiator flow.
-        proxy.startFlowDynamic(InsuranceClaimFlow.InsuranceClaimInitiator.class, claimInfo, policyNumber);
-        return "Insurance Claim Completed";
+        return transactionOf(start(InsuranceClaimFlow.InsuranceClaimInitiator.class, claimInfo, policyNumber), async);
+    }
+
+    /*
+     * API to trigger the Batch Insurance Claim flow. It accepts a list of claims, all filed against the insurance with
+     * the policyNumber passed as path variable in a single transaction.
+     **/
+    @PostMapping(value = "/workerInsurance/claims/{policyNumber}")
+    private CompletableFuture<ResponseEntity<?>> claims(@RequestBody List<ClaimInfo> claimInfos, @PathVariable String policyNumber, @RequestParam(defaultValue = "false") boolean async) {
+
+        // Trigger BatchInsuranceClaimInitiator flow.
+        return transactionOf(start(BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator.class, claimInfos, policyNumber), async);
     }
 
     /*
      * API to trigger the Insurance Acceptance Claim flow. It accepts the claim containing details of the claim and the
-     * policyNumber of the insurance in passed as path variable.
+     * policyNumber of the insurance in passed as path variable. With queued=true the decision goes through the
+     * policy's mailbox, and is group committed with the other decisions made concurrently on the policy.
      **/
     @PostMapping(value = "/workerInsurance/acceptanceClaim/{policyNumber}/{claimNumber}/{insuree}")
-    private String claimAcceptance(@RequestBody InsuranceDetailInfo insuranceDetailInfo, @PathVariable String insuree, @PathVariable String policyNumber, @PathVariable String claimNumber) {
+    private CompletableFuture<ResponseEntity<?>> claimAcceptance(@RequestBody InsuranceDetailInfo insuranceDetailInfo, @PathVariable String insuree, @PathVariable String policyNumber, @PathVariable String claimNumber, @RequestParam(defaultValue = "false") boolean async, @RequestParam(defaultValue = "false") boolean queued) {
 
-        Set<Party> matchingParties = proxy.partiesFromName(insuree, false);
+        Party insureeParty = partyFromName(insuree);
 
         logger.warn("NOME HSP = " + insuree);
-        logger.warn("MATCHING PARTIES = " + matchingParties);
+        logger.warn("MATCHING PARTIES = " + insureeParty);
         logger.warn("CLAIM NUMBER = " + claimNumber);
 
+        if (queued) {
+            ClaimDecisionInfo decision = new ClaimDecisionInfo(claimNumber, ClaimStatus.Accepted, insuranceDetailInfo);
+            return transactionOf(start(MailboxAdjudicationClaimFlow.class, decision, policyNumber, insureeParty), async);
+        }
         // Trigger InsuranceClaimInitiator flow.
-        proxy.startFlowDynamic(InsuranceAcceptanceClaimFlow.InsuranceAcceptanceClaimInitiator.class, insuranceDetailInfo, policyNumber, claimNumber, matchingParties.iterator().next());
-        return "Insurance Acceptance Claim Completed";
+        return transactionOf(start(InsuranceAcceptanceClaimFlow.InsuranceAcceptanceClaimInitiator.class, insuranceDetailInfo, policyNumber, claimNumber, insureeParty), async);
     }
 
     /*
      * API to trigger the Insurance Claim flow. It accepts the claim containing details of the claim and the
-     * policyNumber of the insurance in passed as path variable.
+     * policyNumber of the insurance in passed as path variable. With queued=true the decision goes through the
+     * policy's mailbox, as for the acceptance.
      **/
     @PostMapping(value = "/workerInsurance/rejectClaim/{policyNumber}/{claimNumber}/{insuree}")
-    private String claimReject(@PathVariable String insuree, @PathVariable String policyNumber, @PathVariable String claimNumber) {
+    private CompletableFuture<ResponseEntity<?>> claimReject(@PathVariable String insuree, @PathVariable String policyNumber, @PathVariable String claimNumber, @RequestParam(defaultValue = "false") boolean async, @RequestParam(defaultValue = "false") boolean queued) {
+
+        Party insureeParty = partyFromName(insuree);
 
-        Set<Party> matchingParties = proxy.partiesFromName(insuree, false);
+        if (queued) {
+            ClaimDecisionInfo decision = new ClaimDecisionInfo(claimNumber, ClaimStatus.Rejected, null);
+            return transactionOf(start(MailboxAdjudicationClaimFlow.class, decision, policyNumber, insureeParty), async);
+        }
 
         // Trigger InsuranceClaimInitiator flow.
-        proxy.startFlowDynamic(InsuranceRejectClaimFlow.InsuranceRejectClaimInitiator.class, policyNumber, claimNumber, matchingParties.iterator().next());
-        return "Insurance Reject Claim Completed";
+        return transactionOf(start(InsuranceRejectClaimFlow.InsuranceRejectClaimInitiator.class, policyNumber, claimNumber, insureeParty), async);
     }
 
-}
\ No newline at end of file
+    /*
+     * API to trigger the Bulk Adjudication Claim flow. It accepts the decisions on many claims of the insurance with
+     * the policyNumber passed as path variable, and applies them all in a single transaction.
+     **/
+    @PostMapping(value = "/workerInsurance/adjudication/{insuree}/{policyNumber}")
+    private CompletableFuture<ResponseEntity<?>> claimsAdjudication(@RequestBody List<ClaimDecisionInfo> decisions, @PathVariable String insuree, @PathVariable String policyNumber, @RequestParam(defaultValue = "false") boolean async) {
+
+        Party insureeParty = partyFromName(insuree);
+
+        // Trigger BulkAdjudicationClaimInitiator flow.
+        return transactionOf(start(BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator.class, decisions, policyNumber, insureeParty), async);
+    }
+
+    /*
+     * API to trigger the Insurance Claim flow against the policy with the given policyId.
+     **/
+    @PostMapping(value = "/workerInsurance/policy/{policyId}/claim")
+    private CompletableFuture<ResponseEntity<?>> claimByPolicyId(@RequestBody ClaimInfo claimInfo, @PathVariable String policyId, @RequestParam(defaultValue = "false") boolean async) {
+
+        // Trigger InsuranceClaimInitiator flow.
+        return transactionOf(start(InsuranceClaimFlow.InsuranceClaimInitiator.class, claimInfo, UniqueIdentifier.Companion.fromString(policyId)), async);
+    }
+
+    /*
+     * API to trigger the Batch Insurance Claim flow against the policy with the given policyId.
+     **/
+    @PostMapping(value = "/workerInsurance/policy/{policyId}/claims")
+    private CompletableFuture<ResponseEntity<?>> claimsByPolicyId(@RequestBody List<ClaimInfo> claimInfos, @PathVariable String policyId, @RequestParam(defaultValue = "false") boolean async) {
+
+        // Trigger BatchInsuranceClaimInitiator flow.
+        return transactionOf(start(BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator.class, claimInfos, UniqueIdentifier.Companion.fromString(policyId)), async);
+    }
+
+    /*
+     * API to trigger the Insurance Acceptance Claim flow against the policy with the given policyId.
+     **/
+    @PostMapping(value = "/workerInsurance/policy/{policyId}/acceptanceClaim/{claimNumber}")
+    private CompletableFuture<ResponseEntity<?>> claimAcceptanceByPolicyId(@RequestBody InsuranceDetailInfo insuranceDetailInfo, @PathVariable String policyId, @PathVariable String claimNumber, @RequestParam(defaultValue = "false") boolean async) {
+
+        // Trigger InsuranceAcceptanceClaimInitiator flow.
+        return transactionOf(start(InsuranceAcceptanceClaimFlow.InsuranceAcceptanceClaimInitiator.class, insuranceDetailInfo,
+                UniqueIdentifier.Companion.fromString(policyId), claimNumber), async);
+    }
+
+    /*
+     * API to trigger the Insurance Reject Claim flow against the policy with the given policyId.
+     **/
+    @PostMapping(value = "/workerInsurance/policy/{policyId}/rejectClaim/{claimNumber}")
+    private CompletableFuture<ResponseEntity<?>> claimRejectByPolicyId(@PathVariable String policyId, @PathVariable String claimNumber, @RequestParam(defaultValue = "false") boolean async) {
+
+        // Trigger InsuranceRejectClaimInitiator flow.
+        return transactionOf(start(InsuranceRejectClaimFlow.InsuranceRejectClaimInitiator.class,
+                UniqueIdentifier.Companion.fromString(policyId), claimNumber), async);
+    }
+
+    /*
+     * API to trigger the Bulk Adjudication Claim flow against the policy with the given policyId.
+     **/
+    @PostMapping(value = "/workerInsurance/policy/{policyId}/adjudication")
+    private CompletableFuture<ResponseEntity<?>> claimsAdjudicationByPolicyId(@RequestBody List<ClaimDecisionInfo> decisions, @PathVariable String policyId, @RequestParam(defaultValue = "false") boolean async) {
+
+        // Trigger BulkAdjudicationClaimInitiator flow.
+        return transactionOf(start(BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator.class, decisions,
+                UniqueIdentifier.Companion.fromString(policyId)), async);
+    }
+
+    private Party partyFromName(String partyName) {
+        // Resolved from the cached network map, without an RPC call.
+        return partyResolver.resolve(partyName);
+    }
+
+    /**
+     * Starts the flow, tracked so the FlowJobRegistry follows its progress, and registers it as a job.
+     */
+    private <T> FlowProgressHandle<T> start(Class<? extends FlowLogic<T>> flowClass, Object... args) {
+        FlowProgressHandle<T> flowHandle = proxy.startTrackedFlowDynamic(flowClass, args);
+        jobRegistry.register(flowHandle, flowClass.getName());
+        return flowHandle;
+    }
+
+    private CompletableFuture<ResponseEntity<?>> transactionOf(FlowHandle<SignedTransaction> flowHandle, boolean async) {
+        return respond(flowHandle, async, TransactionResponse::of);
+    }
+
+    /**
+     * Answers 202 Accepted with the job of the started flow straight away when async, or else answers with the body
+     * built from the flow result once the flow ends.
+     */
+    private <T> CompletableFuture<ResponseEntity<?>> respond(FlowHandle<T> flowHandle, boolean async, BiFunction<String, T, ?> body) {
+        String jobId = FlowJobRegistry.jobIdOf(flowHandle.getId());
+        if (async) {
+            return CompletableFuture.completedFuture(ResponseEntity.accepted()
+                    .location(URI.create("/jobs/" + jobId))
+                    .body(jobRegistry.get(jobId)));
+        }
+        return FlowFutures.toCompletableFuture(flowHandle.getReturnValue())
+                .<ResponseEntity<?>>thenApply(result -> ResponseEntity.ok(body.apply(jobId, result)));
+    }
+}
@@ -0,0 +1,28 @@
+package net.corda.examples.workinsurance.webserver;
+
+/**
+ * Body of a failed API call. The error is the simple class name of the exception, which lets callers tell a contract
+ * rejection from a notarisation conflict or a bad request without parsing the message.
+ */
+public class ErrorResponse {
+
+    private final String error;
+    private final String message;
+
+    public ErrorResponse(String error, String message) {
+        this.error = error;
+        this.message = message;
+    }
+
+    static ErrorResponse of(Throwable throwable) {
+        return new ErrorResponse(throwable.getClass().getSimpleName(), throwable.getMessage());
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
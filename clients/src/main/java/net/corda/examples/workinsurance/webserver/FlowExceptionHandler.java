@@ -0,0 +1,70 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.client.rpc.RPCException;
+import net.corda.core.CordaRuntimeException;
+import net.corda.core.contracts.TransactionVerificationException;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.NotaryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns the exceptions of the flow APIs, thrown directly or completing their futures, into typed error responses.
+ */
+@RestControllerAdvice
+public class FlowExceptionHandler {
+    private final static Logger logger = LoggerFactory.getLogger(FlowExceptionHandler.class);
+
+    // The input state was consumed by another transaction in the meantime, the caller may retry.
+    @ExceptionHandler(NotaryException.class)
+    public ResponseEntity<ErrorResponse> notaryException(NotaryException e) {
+        return error(HttpStatus.CONFLICT, e);
+    }
+
+    // The transaction broke a contract rule.
+    @ExceptionHandler(TransactionVerificationException.class)
+    public ResponseEntity<ErrorResponse> transactionVerificationException(TransactionVerificationException e) {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, e);
+    }
+
+    // Any other error raised by the flow, e.g. an unknown policy or a claim in the wrong status.
+    @ExceptionHandler(FlowException.class)
+    public ResponseEntity<ErrorResponse> flowException(FlowException e) {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, e);
+    }
+
+    // The request names an unknown party, a malformed policyId or invalid flow arguments.
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> illegalArgumentException(IllegalArgumentException e) {
+        return error(HttpStatus.BAD_REQUEST, e);
+    }
+
+    // The node could not be reached over RPC.
+    @ExceptionHandler(RPCException.class)
+    public ResponseEntity<ErrorResponse> rpcException(RPCException e) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e);
+    }
+
+    // A flow failed with an exception which is not a FlowException. The RPC layer only keeps its class name.
+    @ExceptionHandler(CordaRuntimeException.class)
+    public ResponseEntity<ErrorResponse> cordaRuntimeException(CordaRuntimeException e) {
+        String originalExceptionClassName = e.getOriginalExceptionClassName() != null
+                ? e.getOriginalExceptionClassName()
+                : e.getClass().getName();
+        HttpStatus status = IllegalArgumentException.class.getName().equals(originalExceptionClassName)
+                ? HttpStatus.BAD_REQUEST
+                : HttpStatus.INTERNAL_SERVER_ERROR;
+        logger.warn("Flow API call failed with " + status + ": " + e.getMessage());
+        return ResponseEntity.status(status).body(new ErrorResponse(
+                originalExceptionClassName.substring(originalExceptionClassName.lastIndexOf('.') + 1), e.getOriginalMessage()));
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, Throwable throwable) {
+        logger.warn("Flow API call failed with " + status + ": " + throwable.getMessage());
+        return ResponseEntity.status(status).body(ErrorResponse.of(throwable));
+    }
+}
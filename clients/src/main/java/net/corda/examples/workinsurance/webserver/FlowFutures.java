@@ -0,0 +1,33 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.core.concurrent.CordaFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bridges the CordaFuture returned by an RPC flow handle to a CompletableFuture.
+ *
+ * The CompletableFuture is completed by the RPC client thread when the flow ends, so the servlet thread which started
+ * the flow is released as soon as the flow is started instead of waiting for its result.
+ */
+final class FlowFutures {
+
+    private FlowFutures() {}
+
+    static <T> CompletableFuture<T> toCompletableFuture(CordaFuture<T> cordaFuture) {
+        CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        cordaFuture.then(done -> {
+            try {
+                completableFuture.complete(done.get());
+            } catch (ExecutionException e) {
+                // Hand over the exception thrown by the flow, not its wrapper.
+                completableFuture.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+            } catch (Exception e) {
+                completableFuture.completeExceptionally(e);
+            }
+            return null;
+        });
+        return completableFuture;
+    }
+}
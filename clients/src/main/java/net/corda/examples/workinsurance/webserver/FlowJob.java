@@ -0,0 +1,110 @@
+package net.corda.examples.workinsurance.webserver;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a flow started on the node, as tracked by the FlowJobRegistry. The job id is the uuid of the
+ * flow's StateMachineRunId.
+ */
+public class FlowJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        UNKNOWN
+    }
+
+    private final String jobId;
+    private final String flowName;
+    private final Status status;
+    private final String progress;
+    private final List<String> transactionIds;
+    private final String error;
+    private final Instant startedAt;
+    private final Instant finishedAt;
+
+    private FlowJob(String jobId, String flowName, Status status, String progress, List<String> transactionIds,
+                    String error, Instant startedAt, Instant finishedAt) {
+        this.jobId = jobId;
+        this.flowName = flowName;
+        this.status = status;
+        this.progress = progress;
+        this.transactionIds = transactionIds;
+        this.error = error;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+    }
+
+    static FlowJob running(String jobId, String flowName) {
+        return new FlowJob(jobId, flowName, Status.RUNNING, null, Collections.emptyList(), null, Instant.now(), null);
+    }
+
+    static FlowJob unknown(String jobId) {
+        return new FlowJob(jobId, null, Status.UNKNOWN, null, Collections.emptyList(), null, null, null);
+    }
+
+    FlowJob withProgress(String progress) {
+        return new FlowJob(jobId, flowName, status, progress, transactionIds, error, startedAt, finishedAt);
+    }
+
+    FlowJob withTransactionId(String transactionId) {
+        if (transactionIds.contains(transactionId)) {
+            return this;
+        }
+        List<String> nextTransactionIds = new ArrayList<>(transactionIds);
+        nextTransactionIds.add(transactionId);
+        return new FlowJob(jobId, flowName, status, progress, Collections.unmodifiableList(nextTransactionIds), error, startedAt, finishedAt);
+    }
+
+    FlowJob completed() {
+        return new FlowJob(jobId, flowName, Status.COMPLETED, progress, transactionIds, null, startedAt, Instant.now());
+    }
+
+    FlowJob failed(String error) {
+        return new FlowJob(jobId, flowName, Status.FAILED, progress, transactionIds, error, startedAt, Instant.now());
+    }
+
+    boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getFlowName() {
+        return flowName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getProgress() {
+        return progress;
+    }
+
+    public List<String> getTransactionIds() {
+        return transactionIds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getStartedAt() {
+        return startedAt == null ? null : startedAt.toString();
+    }
+
+    public String getFinishedAt() {
+        return finishedAt == null ? null : finishedAt.toString();
+    }
+}
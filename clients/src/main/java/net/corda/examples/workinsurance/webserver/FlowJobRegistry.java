@@ -0,0 +1,168 @@
+package net.corda.examples.workinsurance.webserver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.corda.core.flows.StateMachineRunId;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.FlowProgressHandle;
+import net.corda.core.messaging.StateMachineTransactionMapping;
+import net.corda.core.transactions.SignedTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rx.Subscription;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the status of the flows started through the webserver in memory, so job status requests never reach the node.
+ *
+ * Only the flows the Controller starts are registered: their progress and result come from the handle returned by
+ * startTrackedFlowDynamic, and the transactions they record from the updates of the node's
+ * stateMachineRecordedTransactionMappingFeed, whose snapshot of every flow the node ever ran is ignored. Running jobs
+ * are always kept. Finished jobs are kept for the retention period, and at most maxRetainedJobs of them, oldest
+ * evicted first. The flows started and finished through the webserver are counted in its meter registry, by flow and
+ * outcome.
+ */
+@Component
+public class FlowJobRegistry {
+    private final static Logger logger = LoggerFactory.getLogger(FlowJobRegistry.class);
+
+    private final CordaRPCOps proxy;
+    private final int maxRetainedJobs;
+    private final Duration retention;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, FlowJob> jobs = new ConcurrentHashMap<>();
+    // Ids of the finished jobs, in the order they finished, so the oldest are evicted first.
+    private final Queue<String> finishedJobIds = new ArrayDeque<>();
+
+    private Subscription transactionMappingSubscription;
+
+    public FlowJobRegistry(NodeRPCConnection rpc,
+                           @Value("${config.jobs.maxRetained:10000}") int maxRetainedJobs,
+                           @Value("${config.jobs.retentionSeconds:3600}") long retentionSeconds,
+                           MeterRegistry meterRegistry) {
+        this.proxy = rpc.proxy;
+        this.meterRegistry = meterRegistry;
+        this.maxRetainedJobs = maxRetainedJobs;
+        this.retention = Duration.ofSeconds(retentionSeconds);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        // The snapshot holds the mappings of every flow the node ever ran, only the updates of registered jobs matter.
+        transactionMappingSubscription = proxy.stateMachineRecordedTransactionMappingFeed().getUpdates()
+                .subscribe(this::recorded, error -> logger.warn("Transaction mapping feed failed: " + error.getMessage()));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (transactionMappingSubscription != null) {
+            transactionMappingSubscription.unsubscribe();
+        }
+    }
+
+    /**
+     * Registers a flow of the given class started through the webserver and returns its job id. The job follows the
+     * progress and the result of the flow from its handle.
+     */
+    public String register(FlowProgressHandle<?> flowHandle, String flowName) {
+        String jobId = jobIdOf(flowHandle.getId());
+        jobs.putIfAbsent(jobId, FlowJob.running(jobId, flowName));
+        meterRegistry.counter("workinsurance.flows.started", "flow", simpleName(flowName)).increment();
+        // The progress feed completes when the flow ends.
+        flowHandle.getProgress().subscribe(step -> progressed(jobId, step), error -> { });
+        flowHandle.getReturnValue().then(done -> {
+            try {
+                completed(jobId, done.get());
+            } catch (ExecutionException e) {
+                failed(jobId, e.getCause() != null ? e.getCause() : e);
+            } catch (Exception e) {
+                failed(jobId, e);
+            }
+            return null;
+        });
+        return jobId;
+    }
+
+    /**
+     * The job with the given id, or an UNKNOWN job if the registry does not hold it.
+     */
+    public FlowJob get(String jobId) {
+        evictFinishedJobs();
+        FlowJob job = jobs.get(jobId);
+        return job != null ? job : FlowJob.unknown(jobId);
+    }
+
+    static String jobIdOf(StateMachineRunId runId) {
+        return runId.getUuid().toString();
+    }
+
+    private void progressed(String jobId, String step) {
+        jobs.computeIfPresent(jobId, (id, job) -> job.isFinished() ? job : job.withProgress(step));
+    }
+
+    private void recorded(StateMachineTransactionMapping mapping) {
+        jobs.computeIfPresent(jobIdOf(mapping.getStateMachineRunId()),
+                (id, job) -> job.withTransactionId(mapping.getTransactionId().toString()));
+    }
+
+    private void completed(String jobId, Object result) {
+        // The transactions returned by the flow, as their mappings may have been reported before it was registered.
+        List<?> transactions = result instanceof List ? (List<?>) result : Collections.singletonList(result);
+        finished(jobId, job -> {
+            FlowJob completedJob = job;
+            for (Object transaction : transactions) {
+                if (transaction instanceof SignedTransaction) {
+                    completedJob = completedJob.withTransactionId(((SignedTransaction) transaction).getId().toString());
+                }
+            }
+            return completedJob.completed();
+        });
+    }
+
+    private void failed(String jobId, Throwable exception) {
+        finished(jobId, job -> job.failed(exception.getClass().getSimpleName() + ": " + exception.getMessage()));
+    }
+
+    private void finished(String jobId, UnaryOperator<FlowJob> finish) {
+        FlowJob finishedJob = jobs.compute(jobId, (id, job) -> finish.apply(job != null ? job : FlowJob.running(id, null)));
+        meterRegistry.counter("workinsurance.flows.finished", "flow", simpleName(finishedJob.getFlowName()),
+                "outcome", finishedJob.getStatus().toString()).increment();
+        synchronized (finishedJobIds) {
+            finishedJobIds.add(jobId);
+        }
+        evictFinishedJobs();
+    }
+
+    private void evictFinishedJobs() {
+        Instant expiry = Instant.now().minus(retention);
+        synchronized (finishedJobIds) {
+            while (!finishedJobIds.isEmpty()) {
+                FlowJob oldest = jobs.get(finishedJobIds.peek());
+                boolean expired = oldest == null || oldest.finishedAt().isBefore(expiry);
+                if (!expired && finishedJobIds.size() <= maxRetainedJobs) {
+                    break;
+                }
+                jobs.remove(finishedJobIds.poll());
+            }
+        }
+    }
+
+    // The flow class name without its package, e.g. IssueInsuranceFlow$IssueInsuranceInitiator.
+    private static String simpleName(String flowLogicClassName) {
+        return flowLogicClassName == null ? "unknown" : flowLogicClassName.substring(flowLogicClassName.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,181 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.BinaryComparisonOperator;
+import net.corda.core.node.services.vault.ColumnPredicate;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.node.services.vault.SortAttribute;
+import net.corda.examples.workinsurance.states.ClaimState;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rx.Subscription;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-process read model of the node's unconsumed policies and claims, so the read APIs never reach the node.
+ *
+ * A generation of the model subscribes to the vault updates of InsuranceState and ClaimState, then loads the
+ * unconsumed states page by page, keyed by their recorded time, then applies the updates received meanwhile. A rebuild loads a new generation from
+ * scratch while the current one keeps serving, and swaps it in once loaded.
+ */
+@Component
+public class InsuranceReadModel {
+    private final static Logger logger = LoggerFactory.getLogger(InsuranceReadModel.class);
+
+    private final CordaRPCOps proxy;
+    private final boolean enabled;
+    private final int loadPageSize;
+
+    private final AtomicLong generations = new AtomicLong();
+    // Rebuilds run one at a time, off the request threads.
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "read-model-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ReadModelStore store;
+    private List<Subscription> subscriptions = Collections.emptyList();
+
+    public InsuranceReadModel(NodeRPCConnection rpc,
+                              @Value("${config.readModel.enabled:true}") boolean enabled,
+                              @Value("${config.readModel.loadPageSize:1000}") int loadPageSize) {
+        this.proxy = rpc.proxy;
+        this.enabled = enabled;
+        this.loadPageSize = loadPageSize;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (enabled) {
+            build();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void unsubscribe() {
+        subscriptions.forEach(Subscription::unsubscribe);
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Whether the read APIs are served from the read model, rather than from vault queries.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The current generation of the read model.
+     *
+     * @throws IllegalStateException if the read model is disabled.
+     */
+    ReadModelStore store() {
+        if (!enabled) {
+            throw new IllegalStateException("The read model is disabled, set config.readModel.enabled to enable it");
+        }
+        return store;
+    }
+
+    public ReadModelStatus status() {
+        return enabled ? store.status(true) : ReadModelStatus.disabled();
+    }
+
+    /**
+     * Rebuilds the read model from scratch, and completes with the status of the new generation once it serves.
+     */
+    public CompletableFuture<ReadModelStatus> rebuild() {
+        if (!enabled) {
+            CompletableFuture<ReadModelStatus> disabled = new CompletableFuture<>();
+            disabled.completeExceptionally(new IllegalStateException("The read model is disabled"));
+            return disabled;
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            build();
+            return store.status(true);
+        }, rebuilder);
+    }
+
+    private synchronized void build() {
+        ReadModelStore next = new ReadModelStore(generations.incrementAndGet());
+        // Subscribe before loading, so no update falls between the load and the subscription.
+        List<Subscription> nextSubscriptions = Arrays.asList(
+                track(InsuranceState.class, next::onPolicyUpdate),
+                track(ClaimState.class, next::onClaimStateUpdate));
+        try {
+            load(InsuranceState.class, next::loadPolicies);
+            load(ClaimState.class, next::loadClaimStates);
+        } catch (RuntimeException e) {
+            nextSubscriptions.forEach(Subscription::unsubscribe);
+            throw e;
+        }
+        next.loaded();
+
+        List<Subscription> previousSubscriptions = subscriptions;
+        store = next;
+        subscriptions = nextSubscriptions;
+        previousSubscriptions.forEach(Subscription::unsubscribe);
+        ReadModelStatus status = next.status(true);
+        logger.info("Read model generation " + status.getGeneration() + " loaded " + status.getPolicies()
+                + " policies and " + status.getClaims() + " claims");
+    }
+
+    private <T extends ContractState> Subscription track(Class<T> stateType, Consumer<Vault.Update<T>> onUpdate) {
+        // The snapshot is not used, the states are loaded page by page instead.
+        return proxy.vaultTrackBy(new QueryCriteria.VaultQueryCriteria(), new PageSpecification(1, 1),
+                new Sort(Collections.emptySet()), stateType).getUpdates().subscribe(onUpdate::accept,
+                error -> logger.warn(stateType.getSimpleName() + " vault feed failed: " + error.getMessage()));
+    }
+
+    // Loads the unconsumed states by keyset: each query starts at the recorded time of the last state loaded rather than
+    // at a page number, so states consumed meanwhile never shift the states left to load onto a page already read, and
+    // states recorded meanwhile come last. The states of the last time are read twice, which the store puts idempotently.
+    private <T extends ContractState> void load(Class<T> stateType, Consumer<List<StateAndRef<T>>> onPage) {
+        // Sorting by recorded time, then by state reference, keeps the pages stable while states are recorded.
+        Sort byRecordedTime = new Sort(Arrays.asList(
+                new Sort.SortColumn(new SortAttribute.Standard(Sort.VaultStateAttribute.RECORDED_TIME), Sort.Direction.ASC),
+                new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF), Sort.Direction.ASC)));
+        Instant from = null;
+        int page = 1;
+        while (true) {
+            QueryCriteria.TimeCondition recordedFrom = from == null ? null : new QueryCriteria.TimeCondition(
+                    QueryCriteria.TimeInstantType.RECORDED,
+                    new ColumnPredicate.BinaryComparison<>(BinaryComparisonOperator.GREATER_THAN_OR_EQUAL, from));
+            QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED, null, null,
+                    null, null, recordedFrom);
+            Vault.Page<T> results = proxy.vaultQueryBy(criteria, new PageSpecification(page, loadPageSize),
+                    byRecordedTime, stateType);
+            onPage.accept(results.getStates());
+            if (results.getStates().size() < loadPageSize) {
+                return;
+            }
+            Instant last = results.getStatesMetadata().get(results.getStatesMetadata().size() - 1).getRecordedTime();
+            if (last.equals(from)) {
+                // The whole page was recorded at the same time, as the outputs of a large transaction are: the next
+                // page of that time follows.
+                page++;
+            } else {
+                from = last;
+                page = 1;
+            }
+        }
+    }
+}
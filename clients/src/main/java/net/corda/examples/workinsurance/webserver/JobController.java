@@ -0,0 +1,48 @@
+package net.corda.examples.workinsurance.webserver;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Job status APIs. They answer from the FlowJobRegistry, without an RPC call to the node.
+ */
+@RestController
+@RequestMapping("/jobs")
+public class JobController {
+
+    // Upper bound on the job ids of one bulk status request.
+    private static final int MAX_BULK_JOB_IDS = 1000;
+
+    private final FlowJobRegistry jobRegistry;
+
+    public JobController(FlowJobRegistry jobRegistry) {
+        this.jobRegistry = jobRegistry;
+    }
+
+    /*
+     * API to get the status of the job with the given id.
+     **/
+    @GetMapping(value = "/{jobId}")
+    private ResponseEntity<FlowJob> job(@PathVariable String jobId) {
+        FlowJob job = jobRegistry.get(jobId);
+        return job.getStatus() == FlowJob.Status.UNKNOWN
+                ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(job);
+    }
+
+    /*
+     * API to get the status of many jobs at once. Jobs unknown to the registry, or already evicted from it, are
+     * returned with the UNKNOWN status.
+     **/
+    @PostMapping(value = "/status")
+    private List<FlowJob> jobs(@RequestBody List<String> jobIds) {
+        if (jobIds.size() > MAX_BULK_JOB_IDS) {
+            throw new IllegalArgumentException("A status request must have at most " + MAX_BULK_JOB_IDS + " job ids");
+        }
+        return jobIds.stream().map(jobRegistry::get).collect(toList());
+    }
+}
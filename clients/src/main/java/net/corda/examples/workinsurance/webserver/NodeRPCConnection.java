@@ -1,22 +1,45 @@
 package net.corda.examples.workinsurance.webserver;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import net.corda.client.rpc.CordaRPCClient;
-import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.client.rpc.GracefulReconnect;
 import net.corda.core.messaging.CordaRPCOps;
 import net.corda.core.utilities.NetworkHostAndPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
 
 /**
- * Wraps an RPC connection to a Corda node.
+ * Wraps a pool of RPC connections to a Corda node.
  *
- * The RPC connection is configured using command line arguments.
+ * The RPC connections are configured using command line arguments. Every connection reconnects to the node on its own
+ * after a disconnect. The proxy dispatches each RPC call to one connection of the pool, either in turn or to the
+ * connection with the fewest calls in flight, and skips the connections which are reconnecting.
  */
 @Component
 public class NodeRPCConnection implements AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(NodeRPCConnection.class);
+
+    // How an RPC call picks its connection in the pool.
+    enum Dispatch {
+        ROUND_ROBIN,
+        LEAST_IN_FLIGHT
+    }
+
     // The host of the node we are connecting to.
     @Value("${config.rpc.host}")
     private String host;
@@ -29,20 +52,101 @@ public class NodeRPCConnection implements AutoCloseable {
     // The password for logging into the RPC client.
     @Value("${config.rpc.port}")
     private int rpcPort;
+    // The number of RPC connections in the pool.
+    @Value("${config.rpc.poolSize:4}")
+    private int poolSize;
+    // How the RPC calls are dispatched over the connections of the pool.
+    @Value("${config.rpc.dispatch:LEAST_IN_FLIGHT}")
+    private Dispatch dispatch;
+    // The reconnection attempts of a connection after a disconnect, -1 to retry forever.
+    @Value("${config.rpc.reconnectAttempts:-1}")
+    private int reconnectAttempts;
 
-    private CordaRPCConnection rpcConnection;
+    // Receives the RPC round trip times and the connection health of the pool.
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<PooledRPCConnection> connections = new ArrayList<>();
+    private final AtomicInteger nextConnection = new AtomicInteger();
     CordaRPCOps proxy;
 
     @PostConstruct
     public void initialiseNodeRPCConnection() {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("config.rpc.poolSize must be at least 1");
+        }
         NetworkHostAndPort rpcAddress = new NetworkHostAndPort(host, rpcPort);
         CordaRPCClient rpcClient = new CordaRPCClient(rpcAddress);
-        rpcConnection = rpcClient.start(username, password);
-        proxy = rpcConnection.getProxy();
+        for (int index = 0; index < poolSize; index++) {
+            connections.add(connect(rpcClient, index));
+        }
+        proxy = (CordaRPCOps) Proxy.newProxyInstance(CordaRPCOps.class.getClassLoader(),
+                new Class<?>[]{CordaRPCOps.class}, new DispatchingHandler());
+    }
+
+    private PooledRPCConnection connect(CordaRPCClient rpcClient, int index) {
+        PooledRPCConnection[] pooled = new PooledRPCConnection[1];
+        GracefulReconnect gracefulReconnect = new GracefulReconnect(() -> {
+            logger.warn("RPC connection " + index + " to " + host + ":" + rpcPort + " lost, reconnecting");
+            if (pooled[0] != null) {
+                pooled[0].setConnected(false);
+            }
+        }, () -> {
+            logger.info("RPC connection " + index + " to " + host + ":" + rpcPort + " reconnected");
+            if (pooled[0] != null) {
+                pooled[0].setConnected(true);
+            }
+        }, reconnectAttempts);
+        pooled[0] = new PooledRPCConnection(index, rpcClient.start(username, password, gracefulReconnect), meterRegistry);
+        return pooled[0];
+    }
+
+    /**
+     * The metrics of every connection of the pool.
+     */
+    public List<RPCConnectionMetrics> metrics() {
+        return Collections.unmodifiableList(connections.stream().map(PooledRPCConnection::metrics).collect(toList()));
+    }
+
+    private PooledRPCConnection select() {
+        int start = Math.floorMod(nextConnection.getAndIncrement(), connections.size());
+        PooledRPCConnection selected = null;
+        for (int offset = 0; offset < connections.size(); offset++) {
+            PooledRPCConnection connection = connections.get((start + offset) % connections.size());
+            if (!connection.isConnected()) {
+                continue;
+            }
+            if (dispatch == Dispatch.ROUND_ROBIN) {
+                return connection;
+            }
+            // Ties go to the connection next in turn, so idle connections share the load.
+            if (selected == null || connection.getInFlight() < selected.getInFlight()) {
+                selected = connection;
+            }
+        }
+        // While every connection is reconnecting, the call waits on the reconnection of the one next in turn.
+        return selected != null ? selected : connections.get(start);
+    }
+
+    private class DispatchingHandler implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "CordaRPCOps pool of " + connections.size() + " connections to " + host + ":" + rpcPort;
+                }
+            }
+            return select().invoke(method, args);
+        }
     }
 
     @PreDestroy
     public void close() {
-        rpcConnection.notifyServerAndClose();
+        connections.forEach(PooledRPCConnection::close);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.DataFeed;
+import net.corda.core.node.NodeInfo;
+import net.corda.core.node.services.NetworkMapCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import rx.Subscription;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Resolves party names to the parties of the network map without an RPC call per request.
+ *
+ * The nodes of the network map are read once, together with the feed of their changes, and every change rebuilds the
+ * name index. A name resolves like CordaRPCOps.partiesFromName with exactMatch false: a full X500 name, or else an
+ * organisation name matched ignoring case, or else contained in a single organisation name. Unknown and ambiguous
+ * names are rejected instead of picking an arbitrary party.
+ */
+@Component
+public class PartyResolver {
+    private final static Logger logger = LoggerFactory.getLogger(PartyResolver.class);
+
+    private final CordaRPCOps proxy;
+
+    // The nodes of the network map, by the name of their first legal identity.
+    private final Map<CordaX500Name, NodeInfo> nodes = new ConcurrentHashMap<>();
+    private volatile PartyIndex index = new PartyIndex(Collections.emptyList());
+    private Subscription networkMapSubscription;
+
+    public PartyResolver(NodeRPCConnection rpc) {
+        this.proxy = rpc.proxy;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        // The feed's snapshot is the networkMapSnapshot, taken atomically with the subscription to the changes.
+        DataFeed<List<NodeInfo>, NetworkMapCache.MapChange> networkMap = proxy.networkMapFeed();
+        networkMap.getSnapshot().forEach(node -> nodes.put(nameOf(node), node));
+        rebuildIndex();
+        networkMapSubscription = networkMap.getUpdates().subscribe(this::onMapChange,
+                error -> logger.warn("Network map feed failed: " + error.getMessage()));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (networkMapSubscription != null) {
+            networkMapSubscription.unsubscribe();
+        }
+    }
+
+    /**
+     * The single party of the network map matching the given name.
+     *
+     * @throws IllegalArgumentException if no party or more than one party matches the name.
+     */
+    public Party resolve(String name) {
+        List<Party> matches = index.find(name);
+        if (matches.isEmpty()) {
+            throw new IllegalArgumentException("Unknown party " + name);
+        }
+        if (matches.size() > 1) {
+            throw new IllegalArgumentException("Party " + name + " is ambiguous, it matches "
+                    + matches.stream().map(party -> party.getName().toString()).collect(joining("; ")));
+        }
+        return matches.get(0);
+    }
+
+    private void onMapChange(NetworkMapCache.MapChange change) {
+        if (change instanceof NetworkMapCache.MapChange.Removed) {
+            nodes.remove(nameOf(change.getNode()));
+        } else {
+            if (change instanceof NetworkMapCache.MapChange.Modified) {
+                nodes.remove(nameOf(((NetworkMapCache.MapChange.Modified) change).getPreviousNode()));
+            }
+            nodes.put(nameOf(change.getNode()), change.getNode());
+        }
+        rebuildIndex();
+    }
+
+    private synchronized void rebuildIndex() {
+        List<Party> parties = new ArrayList<>();
+        for (NodeInfo node : nodes.values()) {
+            parties.addAll(node.getLegalIdentities());
+        }
+        index = new PartyIndex(parties);
+    }
+
+    private static CordaX500Name nameOf(NodeInfo node) {
+        return node.getLegalIdentities().get(0).getName();
+    }
+
+    /**
+     * Immutable name index over the parties of one version of the network map.
+     */
+    private static class PartyIndex {
+        private final Map<CordaX500Name, Party> byName = new HashMap<>();
+        private final Map<String, List<Party>> byOrganisation = new HashMap<>();
+
+        PartyIndex(List<Party> parties) {
+            for (Party party : parties) {
+                byName.put(party.getName(), party);
+                byOrganisation.computeIfAbsent(organisationKey(party.getName().getOrganisation()), key -> new ArrayList<>()).add(party);
+            }
+        }
+
+        List<Party> find(String name) {
+            Party party = byName.get(parseName(name));
+            if (party != null) {
+                return Collections.singletonList(party);
+            }
+            String key = organisationKey(name);
+            List<Party> organisationMatches = byOrganisation.get(key);
+            if (organisationMatches != null) {
+                return organisationMatches;
+            }
+            List<Party> partialMatches = new ArrayList<>();
+            for (Map.Entry<String, List<Party>> organisation : byOrganisation.entrySet()) {
+                if (organisation.getKey().contains(key)) {
+                    partialMatches.addAll(organisation.getValue());
+                }
+            }
+            return partialMatches;
+        }
+
+        private static CordaX500Name parseName(String name) {
+            try {
+                return CordaX500Name.parse(name);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private static String organisationKey(String organisation) {
+            return organisation.toLowerCase(Locale.ROOT);
+        }
+    }
+}
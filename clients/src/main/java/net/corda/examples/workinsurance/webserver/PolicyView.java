@@ -0,0 +1,91 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.core.contracts.StateAndRef;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+/**
+ * Read model of an unconsumed InsuranceState returned by the policy read APIs.
+ */
+public class PolicyView {
+
+    private final String policyId;
+    private final String policyNumber;
+    private final String insurer;
+    private final String insuree;
+    private final long insuredValue;
+    private final int duration;
+    private final String workerName;
+    private final String healthNumber;
+    private final String policyHolder;
+    private final int claimCount;
+    private final String stateRef;
+
+    public PolicyView(String policyId, String policyNumber, String insurer, String insuree, long insuredValue,
+                      int duration, String workerName, String healthNumber, String policyHolder, int claimCount,
+                      String stateRef) {
+        this.policyId = policyId;
+        this.policyNumber = policyNumber;
+        this.insurer = insurer;
+        this.insuree = insuree;
+        this.insuredValue = insuredValue;
+        this.duration = duration;
+        this.workerName = workerName;
+        this.healthNumber = healthNumber;
+        this.policyHolder = policyHolder;
+        this.claimCount = claimCount;
+        this.stateRef = stateRef;
+    }
+
+    static PolicyView of(StateAndRef<InsuranceState> stateAndRef) {
+        InsuranceState policy = stateAndRef.getState().getData();
+        return new PolicyView(policy.getLinearId().toString(), policy.getWorkerDetail().getPolicyNumber(),
+                policy.getInsurer().getName().toString(), policy.getInsuree().getName().toString(),
+                policy.getInsuredValue(), policy.getDuration(), policy.getWorkerDetail().getName(),
+                policy.getWorkerDetail().getHealthNumber(), policy.getWorkerDetail().getPolicyHolder(),
+                policy.getClaims() == null ? 0 : policy.getClaims().size(), stateAndRef.getRef().toString());
+    }
+
+    public String getPolicyId() {
+        return policyId;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public String getInsurer() {
+        return insurer;
+    }
+
+    public String getInsuree() {
+        return insuree;
+    }
+
+    public long getInsuredValue() {
+        return insuredValue;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public String getWorkerName() {
+        return workerName;
+    }
+
+    public String getHealthNumber() {
+        return healthNumber;
+    }
+
+    public String getPolicyHolder() {
+        return policyHolder;
+    }
+
+    public int getClaimCount() {
+        return claimCount;
+    }
+
+    public String getStateRef() {
+        return stateRef;
+    }
+}
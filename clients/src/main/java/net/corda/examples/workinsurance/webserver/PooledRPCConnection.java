@@ -0,0 +1,110 @@
+package net.corda.examples.workinsurance.webserver;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.core.messaging.CordaRPCOps;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One RPC connection of the NodeRPCConnection pool, with the number of calls it has in flight and the latency of the
+ * calls it served. The latencies are also recorded per RPC method in the webserver's meter registry.
+ */
+class PooledRPCConnection {
+
+    private final int index;
+    private final CordaRPCConnection connection;
+    private final CordaRPCOps proxy;
+    private final MeterRegistry meterRegistry;
+    // The round trip timer and the error counter of every RPC method called on the connection.
+    private final Map<Method, Timer> methodTimers = new ConcurrentHashMap<>();
+    private final Map<Method, Counter> methodErrors = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    // Cleared while the connection is reconnecting to the node, dispatch then prefers the other connections.
+    private volatile boolean connected = true;
+
+    PooledRPCConnection(int index, CordaRPCConnection connection, MeterRegistry meterRegistry) {
+        this.index = index;
+        this.connection = connection;
+        this.proxy = connection.getProxy();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("workinsurance.rpc.connection.up", this, pooled -> pooled.connected ? 1 : 0)
+                .description("Whether the RPC connection is connected to the node")
+                .tag("connection", Integer.toString(index))
+                .register(meterRegistry);
+        Gauge.builder("workinsurance.rpc.connection.inflight", inFlight, AtomicInteger::get)
+                .description("RPC calls in flight on the connection")
+                .tag("connection", Integer.toString(index))
+                .register(meterRegistry);
+    }
+
+    Object invoke(Method method, Object[] args) throws Throwable {
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return method.invoke(proxy, args);
+        } catch (InvocationTargetException e) {
+            errors.increment();
+            methodErrors.computeIfAbsent(method, m -> Counter.builder("workinsurance.rpc.errors")
+                    .description("RPC calls to the node which failed")
+                    .tag("connection", Integer.toString(index))
+                    .tag("method", m.getName())
+                    .register(meterRegistry)).increment();
+            throw e.getCause();
+        } finally {
+            long latencyNanos = System.nanoTime() - start;
+            methodTimers.computeIfAbsent(method, m -> Timer.builder("workinsurance.rpc.calls")
+                    .description("Round trip time of the RPC calls to the node")
+                    .tag("connection", Integer.toString(index))
+                    .tag("method", m.getName())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)).record(latencyNanos, TimeUnit.NANOSECONDS);
+            inFlight.decrementAndGet();
+            calls.increment();
+            totalLatencyNanos.add(latencyNanos);
+            maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        }
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    void setConnected(boolean connected) {
+        this.connected = connected;
+    }
+
+    void close() {
+        connection.notifyServerAndClose();
+    }
+
+    RPCConnectionMetrics metrics() {
+        long callCount = calls.sum();
+        return new RPCConnectionMetrics(index, connected, inFlight.get(), callCount, errors.sum(),
+                callCount == 0 ? 0 : totalLatencyNanos.sum() / callCount / 1_000_000.0,
+                maxLatencyNanos.get() / 1_000_000.0);
+    }
+}
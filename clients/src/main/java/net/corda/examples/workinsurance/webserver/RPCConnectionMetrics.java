@@ -0,0 +1,55 @@
+package net.corda.examples.workinsurance.webserver;
+
+/**
+ * Snapshot of the metrics of one pooled RPC connection. Latencies are in milliseconds and cover the RPC round trip of
+ * each call, not the run time of the flows it starts.
+ */
+public class RPCConnectionMetrics {
+
+    private final int index;
+    private final boolean connected;
+    private final int inFlight;
+    private final long calls;
+    private final long errors;
+    private final double meanLatencyMillis;
+    private final double maxLatencyMillis;
+
+    public RPCConnectionMetrics(int index, boolean connected, int inFlight, long calls, long errors,
+                                double meanLatencyMillis, double maxLatencyMillis) {
+        this.index = index;
+        this.connected = connected;
+        this.inFlight = inFlight;
+        this.calls = calls;
+        this.errors = errors;
+        this.meanLatencyMillis = meanLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getMeanLatencyMillis() {
+        return meanLatencyMillis;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+}
@@ -0,0 +1,29 @@
+package net.corda.examples.workinsurance.webserver;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * RPC connection pool APIs.
+ */
+@RestController
+@RequestMapping("/rpc")
+public class RPCController {
+
+    private final NodeRPCConnection rpc;
+
+    public RPCController(NodeRPCConnection rpc) {
+        this.rpc = rpc;
+    }
+
+    /*
+     * API to get the in flight calls and the latency of every RPC connection of the pool.
+     **/
+    @GetMapping(value = "/connections")
+    private List<RPCConnectionMetrics> connections() {
+        return rpc.metrics();
+    }
+}
@@ -0,0 +1,178 @@
+package net.corda.examples.workinsurance.webserver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.Builder;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.node.services.vault.SortAttribute;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceSchemaModeFlow;
+import net.corda.examples.workinsurance.flows.implementations.PolicyClaimsQueryFlow;
+import net.corda.examples.workinsurance.flows.models.PolicyClaim;
+import net.corda.examples.workinsurance.flows.services.InsurancePolicyLookup;
+import net.corda.examples.workinsurance.schema.InsuranceSchemaMode;
+import net.corda.examples.workinsurance.schema.PersistentClaimState;
+import net.corda.examples.workinsurance.states.ClaimState;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_SIZE;
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.getField;
+import static net.corda.core.utilities.KotlinUtilsKt.getOrThrow;
+
+/**
+ * Read APIs over the unconsumed policies and claims of the node.
+ *
+ * They are served from the InsuranceReadModel, without an RPC call to the node. With the read model disabled the
+ * filters are pushed down to the indexed columns of the custom tables and the results are streamed as a JSON array, a
+ * page at a time. With a page parameter only that page is returned, otherwise every page follows in turn.
+ *
+ * The claims filed through the claim APIs are held in their policy, not in ClaimStates, so claims are read from both:
+ * the ClaimStates are streamed first, then the claim rows of the policies, which the node pages in the database.
+ */
+@RestController
+public class ReadController {
+
+    private final CordaRPCOps proxy;
+    private final PartyResolver partyResolver;
+    private final ObjectMapper objectMapper;
+    private final InsuranceReadModel readModel;
+    private volatile InsuranceSchemaMode nodeSchemaMode;
+
+    public ReadController(NodeRPCConnection rpc, PartyResolver partyResolver, ObjectMapper objectMapper,
+                          InsuranceReadModel readModel) {
+        this.proxy = rpc.proxy;
+        this.partyResolver = partyResolver;
+        this.objectMapper = objectMapper;
+        this.readModel = readModel;
+    }
+
+    /*
+     * API to read the policies issued to the given insuree, or of the worker with the given health number, sorted by
+     * policyNumber. Policies are only read by health number from the read model.
+     **/
+    @GetMapping(value = "/policies")
+    private ResponseEntity<StreamingResponseBody> policies(@RequestParam(required = false) String insuree,
+                                                           @RequestParam(required = false) String healthNumber,
+                                                           @RequestParam(required = false) Integer page,
+                                                           @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int pageSize) {
+        if (insuree == null && healthNumber == null) {
+            throw new IllegalArgumentException("Policies are read by insuree or by healthNumber");
+        }
+        String insureeName = insuree == null ? null : partyResolver.resolve(insuree).getName().toString();
+        if (readModel.isEnabled()) {
+            return json(VaultStreams.page(objectMapper, readModel.store().policies(insureeName, healthNumber), page, pageSize));
+        }
+        if (insuree == null || healthNumber != null) {
+            throw new IllegalArgumentException("Policies are only read by healthNumber from the read model");
+        }
+        InsuranceSchemaMode schemaMode = nodeSchemaMode();
+        QueryCriteria criteria = InsurancePolicyLookup.insureeCriteria(partyResolver.resolve(insuree), schemaMode);
+        return json(VaultStreams.stream(proxy, objectMapper, InsuranceState.class, criteria,
+                InsurancePolicyLookup.policyNumberSort(schemaMode), page, pageSize, PolicyView::of));
+    }
+
+    /*
+     * API to read the claims made against the given policy: the claim states made against it, sorted by claimNumber,
+     * followed by the latest claim of every claim number held in the policies with this policy number, sorted by
+     * claimNumber.
+     **/
+    @GetMapping(value = "/policies/{policyNumber}/claims")
+    private ResponseEntity<StreamingResponseBody> claimsByPolicy(@PathVariable String policyNumber,
+                                                                 @RequestParam(required = false) Integer page,
+                                                                 @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int pageSize) {
+        if (readModel.isEnabled()) {
+            return json(VaultStreams.page(objectMapper, readModel.store().claimsOfPolicy(policyNumber), page, pageSize));
+        }
+        QueryCriteria criteria = new QueryCriteria.VaultCustomQueryCriteria(
+                Builder.equal(getField("policyNumber", PersistentClaimState.class), policyNumber));
+        return json(VaultStreams.streamThen(proxy, objectMapper, ClaimState.class, criteria, claimSort("claimNumber"),
+                page, pageSize, ClaimView::of, policyClaims(policyNumber, null, null, null, null)));
+    }
+
+    /*
+     * API to read the claims with the given claim number, status or accident date range (from inclusive, to
+     * exclusive): the claim states, sorted by policyNumber and claimNumber, followed by the latest claims held in the
+     * policies, sorted by policyNumber and claimNumber.
+     **/
+    @GetMapping(value = "/claims")
+    private ResponseEntity<StreamingResponseBody> claims(@RequestParam(required = false) String claimNumber,
+                                                         @RequestParam(required = false) ClaimStatus status,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date accidentFrom,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date accidentTo,
+                                                         @RequestParam(required = false) Integer page,
+                                                         @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int pageSize) {
+        if (claimNumber == null && status == null && accidentFrom == null && accidentTo == null) {
+            throw new IllegalArgumentException("Claims are read by claimNumber, status or accident date");
+        }
+        if (readModel.isEnabled()) {
+            return json(VaultStreams.page(objectMapper,
+                    readModel.store().claims(claimNumber, status, accidentFrom, accidentTo), page, pageSize));
+        }
+        QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED);
+        if (claimNumber != null) {
+            criteria = criteria.and(new QueryCriteria.VaultCustomQueryCriteria(
+                    Builder.equal(getField("claimNumber", PersistentClaimState.class), claimNumber)));
+        }
+        if (status != null) {
+            criteria = criteria.and(new QueryCriteria.VaultCustomQueryCriteria(
+                    Builder.equal(getField("claimStatus", PersistentClaimState.class), status)));
+        }
+        if (accidentFrom != null) {
+            criteria = criteria.and(new QueryCriteria.VaultCustomQueryCriteria(
+                    Builder.greaterThanOrEqual(getField("accidentDate", PersistentClaimState.class), accidentFrom)));
+        }
+        if (accidentTo != null) {
+            criteria = criteria.and(new QueryCriteria.VaultCustomQueryCriteria(
+                    Builder.lessThan(getField("accidentDate", PersistentClaimState.class), accidentTo)));
+        }
+        return json(VaultStreams.streamThen(proxy, objectMapper, ClaimState.class, criteria,
+                claimSort("policyNumber", "claimNumber"), page, pageSize, ClaimView::of,
+                policyClaims(null, claimNumber, status, accidentFrom, accidentTo)));
+    }
+
+    // The policy tables mapped by the node, asked once: the setting of the node, not of this JVM, selects them.
+    private InsuranceSchemaMode nodeSchemaMode() {
+        InsuranceSchemaMode schemaMode = nodeSchemaMode;
+        if (schemaMode == null) {
+            schemaMode = getOrThrow(proxy.startFlowDynamic(InsuranceSchemaModeFlow.class).getReturnValue(), null);
+            nodeSchemaMode = schemaMode;
+        }
+        return schemaMode;
+    }
+
+    // The claims held in the policies are rows of the custom tables, not states, so the node pages them in a flow.
+    private VaultStreams.OffsetQuery policyClaims(String policyNumber, String claimNumber, ClaimStatus status,
+                                                  Date accidentFrom, Date accidentTo) {
+        return (offset, limit) -> {
+            List<PolicyClaim> policyClaims = getOrThrow(proxy.startFlowDynamic(PolicyClaimsQueryFlow.class,
+                    policyNumber, claimNumber, status, accidentFrom, accidentTo, offset, limit).getReturnValue(), null);
+            return policyClaims.stream().map(ClaimView::of).collect(toList());
+        };
+    }
+
+    // Sort of ClaimStates by the given columns of the CLAIM_STATE table, then by state reference so pages are stable.
+    private static Sort claimSort(String... columns) {
+        Sort.SortColumn[] sortColumns = new Sort.SortColumn[columns.length + 1];
+        for (int index = 0; index < columns.length; index++) {
+            sortColumns[index] = new Sort.SortColumn(new SortAttribute.Custom(PersistentClaimState.class, columns[index]), Sort.Direction.ASC);
+        }
+        sortColumns[columns.length] = new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF), Sort.Direction.ASC);
+        return new Sort(Arrays.asList(sortColumns));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> json(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,39 @@
+package net.corda.examples.workinsurance.webserver;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Status and maintenance APIs of the read model serving the read APIs.
+ */
+@RestController
+@RequestMapping("/readModel")
+public class ReadModelController {
+
+    private final InsuranceReadModel readModel;
+
+    public ReadModelController(InsuranceReadModel readModel) {
+        this.readModel = readModel;
+    }
+
+    /*
+     * API to get the generation, size and freshness of the read model.
+     **/
+    @GetMapping
+    private ReadModelStatus status() {
+        return readModel.status();
+    }
+
+    /*
+     * API to rebuild the read model from scratch. The current generation serves the read APIs until the new one is
+     * loaded, and the call answers with the status of the new generation.
+     **/
+    @PostMapping(value = "/rebuild")
+    private CompletableFuture<ReadModelStatus> rebuild() {
+        return readModel.rebuild();
+    }
+}
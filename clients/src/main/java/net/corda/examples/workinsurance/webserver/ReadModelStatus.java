@@ -0,0 +1,66 @@
+package net.corda.examples.workinsurance.webserver;
+
+import java.time.Instant;
+
+/**
+ * Status of the read model served by the InsuranceReadModel: its generation, size and freshness.
+ */
+public class ReadModelStatus {
+
+    private final boolean enabled;
+    private final long generation;
+    private final boolean loaded;
+    private final int policies;
+    private final int claims;
+    private final long updatesReceived;
+    private final Instant builtAt;
+    private final Instant lastUpdatedAt;
+
+    public ReadModelStatus(boolean enabled, long generation, boolean loaded, int policies, int claims,
+                           long updatesReceived, Instant builtAt, Instant lastUpdatedAt) {
+        this.enabled = enabled;
+        this.generation = generation;
+        this.loaded = loaded;
+        this.policies = policies;
+        this.claims = claims;
+        this.updatesReceived = updatesReceived;
+        this.builtAt = builtAt;
+        this.lastUpdatedAt = lastUpdatedAt;
+    }
+
+    static ReadModelStatus disabled() {
+        return new ReadModelStatus(false, 0, false, 0, 0, 0, null, null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int getPolicies() {
+        return policies;
+    }
+
+    public int getClaims() {
+        return claims;
+    }
+
+    public long getUpdatesReceived() {
+        return updatesReceived;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public Instant getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+}
@@ -0,0 +1,288 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.node.services.Vault;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.states.ClaimState;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * One generation of the read model: the unconsumed policies and claims of the node, with their indexes.
+ *
+ * Policies are keyed by policy number and policyId, and indexed by insuree and worker health number. Claims are keyed by
+ * policy number, claim number and the id of the state holding them, the policyId for the claims embedded in a policy
+ * and the claimId of a ClaimState, and indexed by claim number, status and accident date. Every key sorts by policy
+ * number first, so the claims of a policy are a range of the claim map.
+ *
+ * Vault updates received while the store is loaded from the vault are held back and applied, in order, once it is
+ * loaded. Updates are idempotent: a consumed state is only removed if the store still holds that version of it.
+ */
+final class ReadModelStore {
+
+    // Separates the parts of a key, it sorts before every character of a policy or claim number.
+    private static final char SEPARATOR = '\u0000';
+
+    private final long generation;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Runnable> pendingUpdates = new ArrayList<>();
+    private boolean loaded;
+    private long updatesReceived;
+    private Instant builtAt;
+    private Instant lastUpdatedAt;
+
+    private final NavigableMap<String, PolicyView> policies = new TreeMap<>();
+    private final Map<String, String> policyKeysById = new HashMap<>();
+    private final Map<String, NavigableSet<String>> policyKeysByInsuree = new HashMap<>();
+    private final Map<String, NavigableSet<String>> policyKeysByHealthNumber = new HashMap<>();
+
+    private final NavigableMap<String, ClaimView> claims = new TreeMap<>();
+    // The keys of the claims held by a policy or ClaimState, by policyId or claimId, with the state's reference.
+    private final Map<String, HeldClaims> claimsByHolder = new HashMap<>();
+    private final Map<String, NavigableSet<String>> claimKeysByNumber = new HashMap<>();
+    private final Map<ClaimStatus, NavigableSet<String>> claimKeysByStatus = new EnumMap<>(ClaimStatus.class);
+    private final NavigableMap<Date, NavigableSet<String>> claimKeysByAccidentDate = new TreeMap<>();
+
+    ReadModelStore(long generation) {
+        this.generation = generation;
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Adds a page of the unconsumed policies read from the vault.
+     */
+    void loadPolicies(List<StateAndRef<InsuranceState>> page) {
+        write(() -> page.forEach(this::putPolicy));
+    }
+
+    /**
+     * Adds a page of the unconsumed claim states read from the vault.
+     */
+    void loadClaimStates(List<StateAndRef<ClaimState>> page) {
+        write(() -> page.forEach(this::putClaimState));
+    }
+
+    /**
+     * Ends the load from the vault, and applies the vault updates received meanwhile.
+     */
+    void loaded() {
+        write(() -> {
+            pendingUpdates.forEach(Runnable::run);
+            pendingUpdates.clear();
+            loaded = true;
+            builtAt = Instant.now();
+        });
+    }
+
+    void onPolicyUpdate(Vault.Update<InsuranceState> update) {
+        apply(() -> {
+            update.getConsumed().forEach(this::removePolicy);
+            update.getProduced().forEach(this::putPolicy);
+        });
+    }
+
+    void onClaimStateUpdate(Vault.Update<ClaimState> update) {
+        apply(() -> {
+            update.getConsumed().forEach(consumed -> removeHeldClaims(
+                    consumed.getState().getData().getLinearId().toString(), consumed.getRef().toString()));
+            update.getProduced().forEach(this::putClaimState);
+        });
+    }
+
+    ReadModelStatus status(boolean enabled) {
+        return read(() -> new ReadModelStatus(enabled, generation, loaded, policies.size(), claims.size(),
+                updatesReceived, builtAt, lastUpdatedAt));
+    }
+
+    /**
+     * The policies of the insuree, or with the worker health number, or both, by policy number.
+     */
+    List<PolicyView> policies(String insuree, String healthNumber) {
+        return read(() -> {
+            NavigableSet<String> keys = insuree != null ? indexed(policyKeysByInsuree, insuree)
+                    : indexed(policyKeysByHealthNumber, healthNumber);
+            return keys.stream()
+                    .map(policies::get)
+                    .filter(policy -> healthNumber == null || healthNumber.equals(policy.getHealthNumber()))
+                    .collect(toList());
+        });
+    }
+
+    /**
+     * The claims of the given policy number, by claim number.
+     */
+    List<ClaimView> claimsOfPolicy(String policyNumber) {
+        return read(() -> new ArrayList<>(claims.subMap(policyNumber + SEPARATOR, true,
+                policyNumber + (char) (SEPARATOR + 1), false).values()));
+    }
+
+    /**
+     * The claims matching every given filter, by policy number and claim number. The filters left null match any claim,
+     * the accident dates bound a half open range.
+     */
+    List<ClaimView> claims(String claimNumber, ClaimStatus status, Date accidentFrom, Date accidentTo) {
+        Predicate<ClaimView> filter = claim -> (claimNumber == null || claimNumber.equals(claim.getClaimNumber()))
+                && (status == null || status == claim.getClaimStatus())
+                && (accidentFrom == null || (claim.getAccidentDate() != null && !claim.getAccidentDate().before(accidentFrom)))
+                && (accidentTo == null || (claim.getAccidentDate() != null && claim.getAccidentDate().before(accidentTo)));
+        return read(() -> {
+            Collection<String> keys;
+            if (claimNumber != null) {
+                keys = indexed(claimKeysByNumber, claimNumber);
+            } else if (status != null) {
+                keys = indexed(claimKeysByStatus, status);
+            } else if (accidentFrom != null || accidentTo != null) {
+                NavigableMap<Date, NavigableSet<String>> range = claimKeysByAccidentDate;
+                if (accidentFrom != null) {
+                    range = range.tailMap(accidentFrom, true);
+                }
+                if (accidentTo != null) {
+                    range = range.headMap(accidentTo, false);
+                }
+                keys = new TreeSet<>();
+                range.values().forEach(keys::addAll);
+            } else {
+                keys = claims.keySet();
+            }
+            return keys.stream().map(claims::get).filter(filter).collect(toList());
+        });
+    }
+
+    private void putPolicy(StateAndRef<InsuranceState> stateAndRef) {
+        InsuranceState policy = stateAndRef.getState().getData();
+        PolicyView view = PolicyView.of(stateAndRef);
+        String key = view.getPolicyNumber() + SEPARATOR + view.getPolicyId();
+        removePolicy(view.getPolicyId(), null);
+
+        policies.put(key, view);
+        policyKeysById.put(view.getPolicyId(), key);
+        index(policyKeysByInsuree, view.getInsuree(), key);
+        index(policyKeysByHealthNumber, view.getHealthNumber(), key);
+
+        // Only the latest claim of every claim number is current.
+        putHeldClaims(view.getPolicyId(), view.getStateRef(), ClaimView.ofPolicy(policy));
+    }
+
+    private void removePolicy(StateAndRef<InsuranceState> consumed) {
+        removePolicy(consumed.getState().getData().getLinearId().toString(), consumed.getRef().toString());
+    }
+
+    // Removes the policy with the given id, only if it is the given version of it when a state reference is given.
+    private void removePolicy(String policyId, String stateRef) {
+        String key = policyKeysById.get(policyId);
+        if (key == null || (stateRef != null && !stateRef.equals(policies.get(key).getStateRef()))) {
+            return;
+        }
+        PolicyView view = policies.remove(key);
+        policyKeysById.remove(policyId);
+        unindex(policyKeysByInsuree, view.getInsuree(), key);
+        unindex(policyKeysByHealthNumber, view.getHealthNumber(), key);
+        removeHeldClaims(policyId, null);
+    }
+
+    private void putClaimState(StateAndRef<ClaimState> stateAndRef) {
+        ClaimView view = ClaimView.of(stateAndRef);
+        putHeldClaims(view.getClaimId(), stateAndRef.getRef().toString(), Collections.singletonList(view));
+    }
+
+    private void putHeldClaims(String holderId, String stateRef, List<ClaimView> views) {
+        removeHeldClaims(holderId, null);
+        List<String> keys = new ArrayList<>(views.size());
+        for (ClaimView view : views) {
+            String key = view.getPolicyNumber() + SEPARATOR + view.getClaimNumber() + SEPARATOR + holderId;
+            claims.put(key, view);
+            keys.add(key);
+            index(claimKeysByNumber, view.getClaimNumber(), key);
+            index(claimKeysByStatus, view.getClaimStatus(), key);
+            index(claimKeysByAccidentDate, view.getAccidentDate(), key);
+        }
+        claimsByHolder.put(holderId, new HeldClaims(stateRef, keys));
+    }
+
+    // Removes the claims held by the given policy or ClaimState, only if it is the given version when one is given.
+    private void removeHeldClaims(String holderId, String stateRef) {
+        HeldClaims held = claimsByHolder.get(holderId);
+        if (held == null || (stateRef != null && !stateRef.equals(held.stateRef))) {
+            return;
+        }
+        claimsByHolder.remove(holderId);
+        for (String key : held.keys) {
+            ClaimView view = claims.remove(key);
+            unindex(claimKeysByNumber, view.getClaimNumber(), key);
+            unindex(claimKeysByStatus, view.getClaimStatus(), key);
+            unindex(claimKeysByAccidentDate, view.getAccidentDate(), key);
+        }
+    }
+
+    private static <K> void index(Map<K, NavigableSet<String>> index, K value, String key) {
+        if (value != null) {
+            index.computeIfAbsent(value, v -> new TreeSet<>()).add(key);
+        }
+    }
+
+    private static <K> void unindex(Map<K, NavigableSet<String>> index, K value, String key) {
+        if (value == null) {
+            return;
+        }
+        NavigableSet<String> keys = index.get(value);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            index.remove(value);
+        }
+    }
+
+    private static <K> NavigableSet<String> indexed(Map<K, NavigableSet<String>> index, K value) {
+        NavigableSet<String> keys = index.get(value);
+        return keys != null ? keys : Collections.emptyNavigableSet();
+    }
+
+    private void apply(Runnable update) {
+        write(() -> {
+            if (loaded) {
+                update.run();
+            } else {
+                pendingUpdates.add(update);
+            }
+            updatesReceived++;
+            lastUpdatedAt = Instant.now();
+        });
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class HeldClaims {
+        private final String stateRef;
+        private final List<String> keys;
+
+        private HeldClaims(String stateRef, List<String> keys) {
+            this.stateRef = stateRef;
+            this.keys = keys;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.corda.examples.workinsurance.webserver;
+
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Body of a successful flow API call: the job id of the flow, the id of the transaction it recorded and the policyIds
+ * of the insurance policies it outputs.
+ */
+public class TransactionResponse {
+
+    private final String jobId;
+    private final String transactionId;
+    private final List<String> policyIds;
+
+    public TransactionResponse(String jobId, String transactionId, List<String> policyIds) {
+        this.jobId = jobId;
+        this.transactionId = transactionId;
+        this.policyIds = policyIds;
+    }
+
+    static TransactionResponse of(String jobId, SignedTransaction signedTransaction) {
+        return new TransactionResponse(jobId, signedTransaction.getId().toString(),
+                signedTransaction.getTx().outputsOfType(InsuranceState.class).stream()
+                        .map(insuranceState -> insuranceState.getLinearId().toString())
+                        .collect(toList()));
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public List<String> getPolicyIds() {
+        return policyIds;
+    }
+}
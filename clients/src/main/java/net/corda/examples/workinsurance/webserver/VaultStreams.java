@@ -0,0 +1,140 @@
+package net.corda.examples.workinsurance.webserver;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streams the results of a vault query to the client as a JSON array, one page at a time.
+ *
+ * Only one page of states is held in memory, and every page is flushed to the client before the next one is queried,
+ * so the response goes out in chunks whatever the number of states. The body is written on Spring's async task
+ * executor, not on the servlet thread. Results already in memory, such as those of the read model, are paged the same
+ * way, and the states of a query may be followed by results which the node pages by offset.
+ */
+final class VaultStreams {
+
+    // Upper bound on the states of one page, and so on the states held in memory by one streamed response.
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private VaultStreams() {}
+
+    /**
+     * Streams the given page of a query result already in memory, or the whole result when no page number is given.
+     */
+    static StreamingResponseBody page(ObjectMapper objectMapper, List<?> results, Integer pageNumber, int pageSize) {
+        checkPage(pageNumber, pageSize);
+        List<?> page = results;
+        if (pageNumber != null) {
+            int from = (int) Math.min((long) (pageNumber - 1) * pageSize, results.size());
+            page = results.subList(from, Math.min(from + pageSize, results.size()));
+        }
+        List<?> views = page;
+        return outputStream -> objectMapper.writeValue(StreamUtils.nonClosing(outputStream), views);
+    }
+
+    /**
+     * Streams the given page of the query, or every page in turn when no page number is given.
+     */
+    static <T extends ContractState> StreamingResponseBody stream(CordaRPCOps proxy, ObjectMapper objectMapper,
+                                                                  Class<T> stateType, QueryCriteria criteria, Sort sort,
+                                                                  Integer pageNumber, int pageSize,
+                                                                  Function<StateAndRef<T>, ?> view) {
+        checkPage(pageNumber, pageSize);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                int page = pageNumber != null ? pageNumber : 1;
+                while (true) {
+                    Vault.Page<T> results = proxy.vaultQueryBy(criteria, new PageSpecification(page, pageSize), sort, stateType);
+                    for (StateAndRef<T> stateAndRef : results.getStates()) {
+                        generator.writeObject(view.apply(stateAndRef));
+                    }
+                    generator.flush();
+                    boolean lastPage = (long) page * pageSize >= results.getTotalStatesAvailable();
+                    if (pageNumber != null || results.getStates().isEmpty() || lastPage) {
+                        break;
+                    }
+                    page++;
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    /**
+     * Reads the given number of results, from the given offset, of a query paged outside of the vault.
+     */
+    interface OffsetQuery {
+        List<?> read(int offset, int limit);
+    }
+
+    /**
+     * Streams the given page of the states of the query followed by the results of the offset query, or every page of
+     * both in turn when no page number is given. The page which ends the states is completed from the offset query,
+     * and the later pages are read from the offset query alone.
+     */
+    static <T extends ContractState> StreamingResponseBody streamThen(CordaRPCOps proxy, ObjectMapper objectMapper,
+                                                                      Class<T> stateType, QueryCriteria criteria, Sort sort,
+                                                                      Integer pageNumber, int pageSize,
+                                                                      Function<StateAndRef<T>, ?> view,
+                                                                      OffsetQuery offsetQuery) {
+        checkPage(pageNumber, pageSize);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                long totalStates = proxy.vaultQueryBy(criteria, new PageSpecification(1, 1), sort, stateType)
+                        .getTotalStatesAvailable();
+                long pageCount = (totalStates + pageSize - 1) / pageSize;
+                int page = pageNumber != null ? pageNumber : 1;
+                int written = 0;
+                for (; page <= pageCount; page++) {
+                    Vault.Page<T> results = proxy.vaultQueryBy(criteria, new PageSpecification(page, pageSize), sort, stateType);
+                    written = results.getStates().size();
+                    for (StateAndRef<T> stateAndRef : results.getStates()) {
+                        generator.writeObject(view.apply(stateAndRef));
+                    }
+                    generator.flush();
+                    if (pageNumber != null) {
+                        break;
+                    }
+                }
+                // The offset query continues where the states end: the offset of the requested page past them.
+                int offset = pageNumber != null ? (int) Math.max(0, (long) (pageNumber - 1) * pageSize - totalStates) : 0;
+                int limit = pageSize - (pageNumber != null ? written : 0);
+                while (limit > 0) {
+                    List<?> results = offsetQuery.read(offset, limit);
+                    for (Object result : results) {
+                        generator.writeObject(result);
+                    }
+                    generator.flush();
+                    if (pageNumber != null || results.size() < limit) {
+                        break;
+                    }
+                    offset += limit;
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    private static void checkPage(Integer pageNumber, int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (pageNumber != null && pageNumber < 1) {
+            throw new IllegalArgumentException("Page numbers start at 1");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package net.corda.examples.workinsurance.contracts;
+
+import net.corda.core.contracts.CommandData;
+import net.corda.core.contracts.CommandWithParties;
+import net.corda.core.contracts.Contract;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.transactions.LedgerTransaction;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.ClaimState;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import java.util.List;
+
+import static net.corda.core.contracts.ContractsDSL.requireSingleCommand;
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+// ************
+// * Contract *
+// ************
+public class ClaimContract implements Contract {
+    // This is used to identify our contract when building a transaction.
+    public static final String ID = "net.corda.examples.workinsurance.contracts.ClaimContract";
+
+    // A claim is proposed against a policy which is a reference input of the transaction, and then accepted or
+    // rejected by the insurer. Every transition consumes and produces a single ClaimState.
+    @Override
+    public void verify(LedgerTransaction tx) {
+        CommandWithParties<Commands> command = requireSingleCommand(tx.getCommands(), ClaimContract.Commands.class);
+
+        if (command.getValue() instanceof ClaimContract.Commands.ProposeClaim) {
+            verifyClaimProposal(tx, command);
+
+        } else if(command.getValue() instanceof ClaimContract.Commands.AcceptClaim) {
+            verifyClaimAdjudication(tx, command, ClaimStatus.Accepted);
+
+        } else if(command.getValue() instanceof ClaimContract.Commands.RejectClaim) {
+            verifyClaimAdjudication(tx, command, ClaimStatus.Rejected);
+
+        } else {
+            throw new IllegalArgumentException("Unrecognized command");
+        }
+    }
+
+    private void verifyClaimProposal(LedgerTransaction tx, CommandWithParties<Commands> command) {
+        requireThat(req -> {
+            req.using("Claim transaction must have no input states", tx.getInputStates().isEmpty());
+            req.using("Claim transaction must have one output state", tx.getOutputStates().size() == 1);
+            req.using("Claim output must be a ClaimState", tx.getOutputStates().get(0) instanceof ClaimState);
+            req.using("Claim transaction must have one reference state, the insurance policy", tx.getReferences().size() == 1);
+            List<StateAndRef<InsuranceState>> policies = tx.referenceInputRefsOfType(InsuranceState.class);
+            req.using("Claim reference state must be an InsuranceState", policies.size() == 1);
+
+            ClaimState output = (ClaimState) tx.getOutputStates().get(0);
+            InsuranceState policy = policies.get(0).getState().getData();
+            req.using("Claim must point to the referenced insurance policy", pointsTo(tx, output, policies.get(0)));
+            req.using("Claim policy number must match the insurance policy", output.getPolicyNumber().equals(policy.getWorkerDetail().getPolicyNumber()));
+            req.using("Claim insurer must be the insurance policy insurer", output.getInsurer().equals(policy.getInsurer()));
+            req.using("Claim insuree must be the insurance policy insuree", output.getInsuree().equals(policy.getInsuree()));
+
+            Claim claim = output.getClaim();
+            req.using("Claim must be in proposal status", claim.getClaimStatus().equals(ClaimStatus.Proposal));
+            req.using("Claim must not have insurance detail information", claim.getInsuranceDetail() == null);
+
+            req.using("Insuree must be a required signer", command.getSigners().contains(output.getInsuree().getOwningKey()));
+            return null;
+        });
+    }
+
+    private void verifyClaimAdjudication(LedgerTransaction tx, CommandWithParties<Commands> command, ClaimStatus outputStatus) {
+        requireThat(req -> {
+            req.using("Claim transaction must have one input state", tx.getInputStates().size() == 1);
+            req.using("Claim input must be a ClaimState", tx.getInputStates().get(0) instanceof ClaimState);
+            req.using("Claim transaction must have one output state", tx.getOutputStates().size() == 1);
+            req.using("Claim output must be a ClaimState", tx.getOutputStates().get(0) instanceof ClaimState);
+
+            ClaimState input = (ClaimState) tx.getInputStates().get(0);
+            ClaimState output = (ClaimState) tx.getOutputStates().get(0);
+            req.using("Claim linear id must not change", input.getLinearId().equals(output.getLinearId()));
+            req.using("Claim policy must not change", input.getPolicy().getPointer().equals(output.getPolicy().getPointer())
+                    && input.getPolicyNumber().equals(output.getPolicyNumber()));
+            req.using("Claim parties must not change", input.getInsurer().equals(output.getInsurer())
+                    && input.getInsuree().equals(output.getInsuree()));
+
+            Claim inputClaim = input.getClaim();
+            Claim outputClaim = output.getClaim();
+            req.using("Input claim must be in proposal status", inputClaim.getClaimStatus().equals(ClaimStatus.Proposal));
+            req.using("Output claim must be in " + outputStatus + " status", outputClaim.getClaimStatus().equals(outputStatus));
+            req.using("Claim details must not change", ClaimHistory.sameClaimDetails(inputClaim, outputClaim));
+            if(outputStatus.equals(ClaimStatus.Accepted)) {
+                req.using("Accepted claim must have insurance detail information", outputClaim.getInsuranceDetail() != null);
+            } else {
+                req.using("Rejected claim must not have insurance detail information", outputClaim.getInsuranceDetail() == null);
+            }
+
+            req.using("Insurer must be a required signer", command.getSigners().contains(output.getInsurer().getOwningKey()));
+            return null;
+        });
+    }
+
+    private static boolean pointsTo(LedgerTransaction tx, ClaimState claimState, StateAndRef<InsuranceState> policy) {
+        try {
+            return claimState.getPolicy().resolve(tx).getRef().equals(policy.getRef());
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Used to indicate the transaction's intent.
+    public interface Commands extends CommandData {
+        class ProposeClaim implements Commands {}
+        class AcceptClaim implements Commands {}
+        class RejectClaim implements Commands {}
+    }
+}
@@ -0,0 +1,111 @@
+package net.corda.examples.workinsurance.contracts;
+
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import java.util.*;
+
+/**
+ * Single pass view of the claims of an InsuranceState transition.
+ *
+ * The claims of the input state are walked once, checking that the output state starts with the same claims and
+ * keeping the latest claim of every claim number in a hash map. The claim lookups of the contract are then constant
+ * time, whatever the number of claims made against the policy.
+ */
+class ClaimHistory {
+
+    private final Map<String, Claim> latestClaims;
+    private final boolean appendOnly;
+    private final List<Claim> appendedClaims;
+
+    private ClaimHistory(Map<String, Claim> latestClaims, boolean appendOnly, List<Claim> appendedClaims) {
+        this.latestClaims = latestClaims;
+        this.appendOnly = appendOnly;
+        this.appendedClaims = appendedClaims;
+    }
+
+    static ClaimHistory of(InsuranceState input, InsuranceState output) {
+        List<Claim> inputClaims = claimsOf(input);
+        List<Claim> outputClaims = claimsOf(output);
+
+        Map<String, Claim> latestClaims = new HashMap<>();
+        boolean appendOnly = outputClaims.size() >= inputClaims.size();
+        for (int index = 0; index < inputClaims.size(); index++) {
+            Claim claim = inputClaims.get(index);
+            latestClaims.put(claim.getClaimNumber(), claim);
+            if (appendOnly && !claim.equals(outputClaims.get(index))) {
+                appendOnly = false;
+            }
+        }
+
+        List<Claim> appendedClaims = appendOnly
+                ? outputClaims.subList(inputClaims.size(), outputClaims.size())
+                : Collections.emptyList();
+        return new ClaimHistory(latestClaims, appendOnly, appendedClaims);
+    }
+
+    /**
+     * Whether the output state keeps every claim of the input state, in the same order, ahead of the claims it appends.
+     */
+    boolean isAppendOnly() {
+        return appendOnly;
+    }
+
+    /**
+     * The claims appended by the output state, empty if the output state does not keep the input claims.
+     */
+    List<Claim> getAppendedClaims() {
+        return appendedClaims;
+    }
+
+    /**
+     * The latest claim of the input state with the given claim number, or null if there is none.
+     */
+    Claim latestClaim(String claimNumber) {
+        return latestClaims.get(claimNumber);
+    }
+
+    /**
+     * Whether every appended claim has a claim number unknown to the input state and to the other appended claims.
+     */
+    boolean appendsNewClaimNumbers() {
+        Set<String> appendedClaimNumbers = new HashSet<>();
+        for (Claim claim : appendedClaims) {
+            if (latestClaims.containsKey(claim.getClaimNumber()) || !appendedClaimNumbers.add(claim.getClaimNumber())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether no two appended claims share a claim number, whatever the claim numbers of the input state.
+     */
+    boolean appendsDistinctClaimNumbers() {
+        Set<String> appendedClaimNumbers = new HashSet<>();
+        for (Claim claim : appendedClaims) {
+            if (!appendedClaimNumbers.add(claim.getClaimNumber())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the two claims carry the same claim details, whatever their status, insurance detail and parties.
+     */
+    static boolean sameClaimDetails(Claim input, Claim output) {
+        return Objects.equals(input.getClaimNumber(), output.getClaimNumber())
+                && Objects.equals(input.getClaimDescription(), output.getClaimDescription())
+                && input.getClaimAmount() == output.getClaimAmount()
+                && Objects.equals(input.getInternalPolicyNo(), output.getInternalPolicyNo())
+                && Objects.equals(input.getAccidentDate(), output.getAccidentDate())
+                && Objects.equals(input.getEpisodeDate(), output.getEpisodeDate())
+                && input.getAccidentType() == output.getAccidentType()
+                && input.getModule() == output.getModule();
+    }
+
+    private static List<Claim> claimsOf(InsuranceState insuranceState) {
+        return insuranceState.getClaims() == null ? Collections.emptyList() : insuranceState.getClaims();
+    }
+}
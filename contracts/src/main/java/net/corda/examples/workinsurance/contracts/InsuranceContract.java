@@ -3,13 +3,16 @@ package net.corda.examples.workinsurance.contracts;
 import net.corda.core.contracts.CommandData;
 import net.corda.core.contracts.CommandWithParties;
 import net.corda.core.contracts.Contract;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.Requirements;
+import net.corda.core.contracts.UniqueIdentifier;
 import net.corda.core.transactions.LedgerTransaction;
 import net.corda.examples.workinsurance.states.Claim;
 import net.corda.examples.workinsurance.enums.ClaimStatus;
 import net.corda.examples.workinsurance.states.InsuranceState;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.Set;
 
 import static net.corda.core.contracts.ContractsDSL.requireSingleCommand;
 import static net.corda.core.contracts.ContractsDSL.requireThat;
@@ -21,6 +24,10 @@ public class InsuranceContract implements Contract {
     // This is used to identify our contract when building a transaction.
     public static final String ID = "net.corda.examples.workinsurance.contracts.InsuranceContract";
 
+    // Upper bound on the policies issued by one IssueInsuranceBatch transaction, which keeps the transaction size and
+    // its verification time bounded. Larger onboardings are split over several transactions.
+    public static final int MAX_ISSUE_BATCH_SIZE = 1000;
+
     // A transaction is valid if the verify() function of the contract of all the transaction's input and output states
     // does not throw an exception.
     @Override
@@ -30,6 +37,9 @@ public class InsuranceContract implements Contract {
         if (command.getValue() instanceof InsuranceContract.Commands.IssueInsurance) {
             verifyInsuranceIssue(tx);
 
+        } else if(command.getValue() instanceof InsuranceContract.Commands.IssueInsuranceBatch) {
+            verifyInsuranceBatchIssue(tx);
+
         } else if(command.getValue() instanceof InsuranceContract.Commands.AddClaim) {
             verifyClaimCreation(tx);
 
@@ -39,45 +49,14 @@ public class InsuranceContract implements Contract {
         }else if(command.getValue() instanceof InsuranceContract.Commands.RejectClaim){
             verifyClaimReject(tx);
 
+        }else if(command.getValue() instanceof InsuranceContract.Commands.AdjudicateClaims){
+            verifyClaimsAdjudication(tx);
+
         } else {
             throw new IllegalArgumentException("Unrecognized command");
         }
     }
 
-    private void verifyClaimReject(LedgerTransaction tx) {
-       requireThat(req -> {
-            req.using("Insurance transaction must have input states", (!tx.getInputStates().isEmpty()));
-            req.using("Insurance transaction must have one input state", tx.getInputStates().size() == 1);
-            InsuranceState inputState = (InsuranceState)tx.getInput(0);
-            req.using("Insurance input transaction must be of type InsuranceState", inputState instanceof InsuranceState);
-
-            req.using("Insurance transaction must have output states", (!tx.getOutputStates().isEmpty()));
-            req.using("Insurance transaction must have one output state", tx.getOutputStates().size() == 1);
-            InsuranceState outputState = (InsuranceState) tx.getOutput(0);
-            req.using("Insurance output transaction must be of type InsuranceState", outputState instanceof InsuranceState);
-
-            req.using("Insurance transaction must have a command", tx.getCommands().size() == 1);
-            req.using("Insurance transaction command must be a AcceptClaim command", tx.getCommands().get(0).getValue() instanceof InsuranceContract.Commands.RejectClaim);
-
-            req.using("Insurance output transaction must have claims", (!outputState.getClaims().isEmpty()));
-            Claim outputClaim = outputState.getClaims().get(outputState.getClaims().size() - 1 );
-            req.using("Output Claim must be in acceptance status", outputClaim.getClaimStatus().equals(ClaimStatus.Rejected));
-            req.using("Output claim must have insurance detail information", outputClaim.getInsuranceDetail() == null);
-
-            req.using("Insurance input transaction must have claims", (!inputState.getClaims().isEmpty()));
-            List<Claim> inputClaimListWithOutputClaimNumber = inputState.getClaims().stream()
-                    .filter(claimList -> claimList.getClaimNumber().equals(outputClaim.getClaimNumber()))
-                    .collect(Collectors.toList());
-            Claim inputClaim = inputClaimListWithOutputClaimNumber.get(inputClaimListWithOutputClaimNumber.size() - 1);
-            req.using("Input state claim must be in proposal status", (inputClaim.getClaimStatus().equals(ClaimStatus.Proposal)));
-            req.using("Input claim must not have insurance detail information", inputClaim.getInsuranceDetail() == null);
-            req.using("Input State must have at least one claim with the same number as the output claim", (!inputClaimListWithOutputClaimNumber.isEmpty()));
-
-            req.using("Issuer must be a required signer", tx.getCommands().get(0).getSigners().contains(outputState.getInsurer().getOwningKey()));
-            return null;
-        });
-    }
-
     private void verifyInsuranceIssue(LedgerTransaction tx) {
         requireThat(req -> {
             req.using("Transaction must have no input states.", tx.getInputStates().isEmpty());
@@ -88,12 +67,44 @@ public class InsuranceContract implements Contract {
             req.using("Transaction command must be Issue Command", tx.getCommands().get(0).getValue() instanceof InsuranceContract.Commands.IssueInsurance);
 
             InsuranceState insuranceState = (InsuranceState) tx.getOutputStates().get(0);
+            req.using("Issued insurance must not carry over claims", insuranceState.getPreviousClaimCount() == 0);
 
             req.using("Issuer must be a required signer", tx.getCommands().get(0).getSigners().contains(insuranceState.getInsurer().getOwningKey()));
             return null;
         });
     }
 
+    /**
+     * A batch issue creates up to MAX_ISSUE_BATCH_SIZE policies in one transaction, under the same rules as a single
+     * issue for every policy. The policies of a batch must have different policy numbers and policyIds.
+     */
+    private void verifyInsuranceBatchIssue(LedgerTransaction tx) {
+        requireThat(req -> {
+            req.using("Transaction must have no input states.", tx.getInputStates().isEmpty());
+            req.using("Transaction must have output states.", (!tx.getOutputStates().isEmpty()));
+            req.using("Transaction must have at most " + MAX_ISSUE_BATCH_SIZE + " output states.", tx.getOutputStates().size() <= MAX_ISSUE_BATCH_SIZE);
+            req.using("Transaction outputs must be InsuranceStates", tx.getOutputStates().stream().allMatch(output -> output instanceof InsuranceState));
+            req.using("Transaction must have a command", tx.getCommands().size() == 1);
+            req.using("Transaction command must be Issue Batch Command", tx.getCommands().get(0).getValue() instanceof InsuranceContract.Commands.IssueInsuranceBatch);
+
+            Set<String> policyNumbers = new HashSet<>();
+            Set<UniqueIdentifier> linearIds = new HashSet<>();
+            for (ContractState output : tx.getOutputStates()) {
+                InsuranceState insuranceState = (InsuranceState) output;
+                req.using("Issued insurance must have worker detail", insuranceState.getWorkerDetail() != null);
+                req.using("Issued insurance must not carry over claims", insuranceState.getPreviousClaimCount() == 0);
+                req.using("Issued insurances must have different policy numbers", policyNumbers.add(insuranceState.getWorkerDetail().getPolicyNumber()));
+                req.using("Issued insurances must have different linearIds", linearIds.add(insuranceState.getLinearId()));
+                req.using("Issuer must be a required signer", tx.getCommands().get(0).getSigners().contains(insuranceState.getInsurer().getOwningKey()));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * AddClaim appends one or more claim proposals to the claims of the policy, so a batch of claims is filed in a
+     * single transaction. Every appended claim gets a claim number of its own.
+     */
     private void verifyClaimCreation(LedgerTransaction tx) {
         requireThat(req -> {
             req.using("Insurance transaction must have input states, the insurance police", (!tx.getInputStates().isEmpty()));
@@ -105,53 +116,124 @@ public class InsuranceContract implements Contract {
             req.using("Insurance transaction must have a command", tx.getCommands().size() == 1);
             req.using("Insurance transaction command must be a AddClaim command", tx.getCommands().get(0).getValue() instanceof InsuranceContract.Commands.AddClaim);
 
+            InsuranceState inputState = (InsuranceState) tx.getInputStates().get(0);
             InsuranceState insuranceState = (InsuranceState) tx.getOutputStates().get(0);
+            req.using("Output state must carry over the claims of the input state", insuranceState.getPreviousClaimCount() == claimCount(inputState));
+            req.using("Output state must keep the linearId of the input state", insuranceState.getLinearId().equals(inputState.getLinearId()));
+
+            ClaimHistory claimHistory = ClaimHistory.of(inputState, insuranceState);
+            req.using("Output state must keep the claims of the input state and only append claims", claimHistory.isAppendOnly());
+            req.using("Appended claims must have claim numbers not used by other claims", claimHistory.appendsNewClaimNumbers());
+            req.using("Appended claims must be in proposal status", claimHistory.getAppendedClaims().stream()
+                    .allMatch(claim -> claim.getClaimStatus().equals(ClaimStatus.Proposal)));
 
             req.using("Issuer must be a required signer", tx.getCommands().get(0).getSigners().contains(insuranceState.getInsuree().getOwningKey()));
             return null;
         });
     }
 
-    private void verifyClaimAcceptance(LedgerTransaction tx){
+    private void verifyClaimAcceptance(LedgerTransaction tx) {
+        verifyClaimAdjudication(tx, InsuranceContract.Commands.AcceptClaim.class, ClaimStatus.Accepted);
+    }
+
+    private void verifyClaimReject(LedgerTransaction tx) {
+        verifyClaimAdjudication(tx, InsuranceContract.Commands.RejectClaim.class, ClaimStatus.Rejected);
+    }
 
+    /**
+     * An adjudication appends one claim, in the given status, to the claims of the policy. It adjudicates the latest
+     * claim of the input state with the same claim number, which must still be a proposal. Accepted claims carry the
+     * insurance detail information, rejected claims do not.
+     */
+    private void verifyClaimAdjudication(LedgerTransaction tx, Class<? extends Commands> commandType, ClaimStatus outputStatus) {
         requireThat(req -> {
-            req.using("Insurance transaction must have input states", (!tx.getInputStates().isEmpty()));
-            req.using("Insurance transaction must have one input state", tx.getInputStates().size() == 1);
-            InsuranceState inputState = (InsuranceState)tx.getInput(0);
-            req.using("Insurance input transaction must be of type InsuranceState", inputState instanceof InsuranceState);
+            ClaimHistory claimHistory = verifyAdjudicationTransition(req, tx, commandType);
+            req.using("Output state must append one claim", claimHistory.getAppendedClaims().size() == 1);
 
-            req.using("Insurance transaction must have output states", (!tx.getOutputStates().isEmpty()));
-            req.using("Insurance transaction must have one output state", tx.getOutputStates().size() == 1);
-            InsuranceState outputState = (InsuranceState) tx.getOutput(0);
-            req.using("Insurance output transaction must be of type InsuranceState", outputState instanceof InsuranceState);
+            Claim outputClaim = claimHistory.getAppendedClaims().get(0);
+            req.using("Output Claim must be in " + outputStatus + " status", outputClaim.getClaimStatus().equals(outputStatus));
+            verifyAdjudicatedClaim(req, claimHistory, outputClaim);
+            return null;
+        });
+    }
 
-            req.using("Insurance transaction must have a command", tx.getCommands().size() == 1);
-            req.using("Insurance transaction command must be a AcceptClaim command", tx.getCommands().get(0).getValue() instanceof InsuranceContract.Commands.AcceptClaim);
-
-            req.using("Insurance output transaction must have claims", (!outputState.getClaims().isEmpty()));
-            Claim outputClaim = outputState.getClaims().get(outputState.getClaims().size() - 1 );
-            req.using("Output Claim must be in acceptance status", outputClaim.getClaimStatus().equals(ClaimStatus.Accepted));
-            req.using("Output claim must have insurance detail information", outputClaim.getInsuranceDetail() != null);
-
-            req.using("Insurance input transaction must have claims", (!inputState.getClaims().isEmpty()));
-            List<Claim> inputClaimListWithOutputClaimNumber = inputState.getClaims().stream()
-                    .filter(claimList -> claimList.getClaimNumber().equals(outputClaim.getClaimNumber()))
-                    .collect(Collectors.toList());
-            Claim inputClaim = inputClaimListWithOutputClaimNumber.get(inputClaimListWithOutputClaimNumber.size() - 1);
-            req.using("Input state claim must be in proposal status", (inputClaim.getClaimStatus().equals(ClaimStatus.Proposal)));
-            req.using("Input claim must not have insurance detail information", inputClaim.getInsuranceDetail() == null);
-            req.using("Input State must have at least one claim with the same number as the output claim", (!inputClaimListWithOutputClaimNumber.isEmpty()));
-
-            req.using("Issuer must be a required signer", tx.getCommands().get(0).getSigners().contains(outputState.getInsurer().getOwningKey()));
+    /**
+     * A bulk adjudication appends many accepted or rejected claims to the claims of the policy in one transaction.
+     * Every appended claim adjudicates a different proposal of the input state, under the same rules as a single
+     * acceptance or rejection.
+     */
+    private void verifyClaimsAdjudication(LedgerTransaction tx) {
+        requireThat(req -> {
+            ClaimHistory claimHistory = verifyAdjudicationTransition(req, tx, InsuranceContract.Commands.AdjudicateClaims.class);
+            req.using("Output state must append at least one claim", !claimHistory.getAppendedClaims().isEmpty());
+            req.using("Output state must adjudicate every claim at most once", claimHistory.appendsDistinctClaimNumbers());
+
+            for (Claim outputClaim : claimHistory.getAppendedClaims()) {
+                req.using("Output Claim " + outputClaim.getClaimNumber() + " must be in Accepted or Rejected status",
+                        outputClaim.getClaimStatus().equals(ClaimStatus.Accepted) || outputClaim.getClaimStatus().equals(ClaimStatus.Rejected));
+                verifyAdjudicatedClaim(req, claimHistory, outputClaim);
+            }
             return null;
         });
     }
 
+    /**
+     * Checks the shape of an adjudication transaction: one InsuranceState in, one out, the given command signed by the
+     * insurer, and an output that keeps the policy and the input claims. Returns the claim history of the transition.
+     */
+    private static ClaimHistory verifyAdjudicationTransition(Requirements req, LedgerTransaction tx, Class<? extends Commands> commandType) {
+        req.using("Insurance transaction must have input states", (!tx.getInputStates().isEmpty()));
+        req.using("Insurance transaction must have one input state", tx.getInputStates().size() == 1);
+        req.using("Insurance input transaction must be of type InsuranceState", tx.getInputStates().get(0) instanceof InsuranceState);
+        InsuranceState inputState = (InsuranceState) tx.getInputStates().get(0);
+
+        req.using("Insurance transaction must have output states", (!tx.getOutputStates().isEmpty()));
+        req.using("Insurance transaction must have one output state", tx.getOutputStates().size() == 1);
+        req.using("Insurance output transaction must be of type InsuranceState", tx.getOutputStates().get(0) instanceof InsuranceState);
+        InsuranceState outputState = (InsuranceState) tx.getOutputStates().get(0);
+
+        req.using("Insurance transaction must have a command", tx.getCommands().size() == 1);
+        req.using("Insurance transaction command must be a " + commandType.getSimpleName() + " command",
+                commandType.isInstance(tx.getCommands().get(0).getValue()));
+
+        req.using("Output state must carry over the claims of the input state", outputState.getPreviousClaimCount() == claimCount(inputState));
+        req.using("Output state must keep the linearId of the input state", outputState.getLinearId().equals(inputState.getLinearId()));
+
+        ClaimHistory claimHistory = ClaimHistory.of(inputState, outputState);
+        req.using("Output state must keep the claims of the input state and only append claims", claimHistory.isAppendOnly());
+
+        req.using("Issuer must be a required signer", tx.getCommands().get(0).getSigners().contains(outputState.getInsurer().getOwningKey()));
+        return claimHistory;
+    }
+
+    /**
+     * Checks one appended accepted or rejected claim against the latest input claim with the same claim number.
+     */
+    private static void verifyAdjudicatedClaim(Requirements req, ClaimHistory claimHistory, Claim outputClaim) {
+        boolean accepted = outputClaim.getClaimStatus().equals(ClaimStatus.Accepted);
+        req.using(accepted
+                        ? "Output claim must have insurance detail information"
+                        : "Output claim must not have insurance detail information",
+                (outputClaim.getInsuranceDetail() != null) == accepted);
+
+        Claim inputClaim = claimHistory.latestClaim(outputClaim.getClaimNumber());
+        req.using("Input State must have a claim with the same number as the output claim", inputClaim != null);
+        req.using("Input state claim must be in proposal status", inputClaim.getClaimStatus().equals(ClaimStatus.Proposal));
+        req.using("Input claim must not have insurance detail information", inputClaim.getInsuranceDetail() == null);
+        req.using("Output claim must keep the details of the input claim", ClaimHistory.sameClaimDetails(inputClaim, outputClaim));
+    }
+
+    private static int claimCount(InsuranceState insuranceState) {
+        return insuranceState.getClaims() == null ? 0 : insuranceState.getClaims().size();
+    }
+
     // Used to indicate the transaction's intent.
     public interface Commands extends CommandData {
         class IssueInsurance implements Commands {}
+        class IssueInsuranceBatch implements Commands {}
         class AddClaim implements Commands {}
         class AcceptClaim implements Commands {}
         class RejectClaim implements Commands {}
+        class AdjudicateClaims implements Commands {}
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package net.corda.examples.workinsurance.schema;
+
+/**
+ * How the claims of an InsuranceState are mapped to the CLAIM_DETAIL table.
+ *
+ * The mode is a node local setting, read once when the node loads the CorDapp from the
+ * workinsurance.claimPersistenceMode system property. It only affects the custom schema tables of the node, not the
+ * ledger, so two nodes may store the same policy in different modes.
+ *
+ * FULL is the default, as it is how every node stored its claims before the DELTA mode, which a node opts in to. A
+ * node switching from FULL to DELTA must first run the claim-detail-collapse changelog, which removes the rows of the
+ * FULL mode. A node must not switch back from DELTA to FULL: the next version of every policy would map its whole claim
+ * history again, next to the rows stored in DELTA mode.
+ */
+public enum ClaimPersistenceMode {
+    // Every version of a policy persists its whole claim history, so the table grows quadratically with the claims.
+    FULL,
+    // Every version of a policy persists only the claims appended by the transaction which created it.
+    DELTA;
+
+    public static final String PROPERTY = "workinsurance.claimPersistenceMode";
+
+    private static final ClaimPersistenceMode CURRENT = valueOf(System.getProperty(PROPERTY, FULL.name()).toUpperCase());
+
+    /**
+     * The mode of this node, fixed for the life of the JVM.
+     */
+    public static ClaimPersistenceMode current() {
+        return CURRENT;
+    }
+}
@@ -0,0 +1,38 @@
+package net.corda.examples.workinsurance.schema;
+
+import org.hibernate.HibernateException;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.persister.entity.SingleTableEntityPersister;
+import org.hibernate.persister.spi.PersisterCreationContext;
+
+import java.io.Serializable;
+
+/**
+ * Hibernate persister of the claim rows, which upserts the rows of the DELTA ClaimPersistenceMode.
+ *
+ * The node persists every mapped state, cascading to its claim rows, so a claim row is always inserted. In the DELTA
+ * mode the primary key of a claim row is derived from its policyId and entryIndex, and a notary change records the
+ * claims appended by the last transaction of the policy once more: the row already stored is then updated, and moved
+ * to the new version of the policy by the join columns, instead of failing the recording on a duplicate key. Rows of
+ * the FULL mode have random keys and are inserted without looking them up.
+ */
+public class ClaimRowPersister extends SingleTableEntityPersister {
+
+    public ClaimRowPersister(PersistentClass persistentClass, EntityDataAccess cacheAccessStrategy,
+                             NaturalIdDataAccess naturalIdRegionAccessStrategy,
+                             PersisterCreationContext creationContext) throws HibernateException {
+        super(persistentClass, cacheAccessStrategy, naturalIdRegionAccessStrategy, creationContext);
+    }
+
+    @Override
+    public void insert(Serializable id, Object[] fields, Object object, SharedSessionContractImplementor session) {
+        if (ClaimPersistenceMode.current() == ClaimPersistenceMode.DELTA && getDatabaseSnapshot(id, session) != null) {
+            update(id, fields, null, false, null, null, object, null, session);
+        } else {
+            super.insert(id, fields, object, session);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package net.corda.examples.workinsurance.schema;
+
+/**
+ * Schema Family for Claim Mapped Schema
+ */
+public class ClaimSchemaFamily { }
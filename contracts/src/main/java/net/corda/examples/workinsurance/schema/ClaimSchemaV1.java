@@ -0,0 +1,14 @@
+package net.corda.examples.workinsurance.schema;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.schemas.MappedSchema;
+
+/**
+ * MappedSchema subclass representing the custom schema for the Claim QueryableState.
+ */
+public class ClaimSchemaV1 extends MappedSchema {
+
+    public ClaimSchemaV1() {
+        super(ClaimSchemaFamily.class, 1, ImmutableList.of(PersistentClaimState.class));
+    }
+}
@@ -0,0 +1,40 @@
+package net.corda.examples.workinsurance.schema;
+
+import net.corda.core.serialization.CordaSerializable;
+
+/**
+ * Which versions of the Insurance schema an InsuranceState is mapped to.
+ *
+ * The mode is a node local setting, read once when the node loads the CorDapp from the workinsurance.insuranceSchemas
+ * system property. V2 is the default, so every state is persisted once. BOTH is only meant for the migration window
+ * of InsuranceSchemaV2, while readers of the V1 tables move to the V2 tables, as it persists every state twice. V1
+ * keeps a node on the legacy tables.
+ *
+ * Clients of the node, such as the webserver, do not read the mode from their own JVM: they ask the node for it with
+ * the InsuranceSchemaModeFlow.
+ */
+@CordaSerializable
+public enum InsuranceSchemaMode {
+    V1,
+    BOTH,
+    V2;
+
+    public static final String PROPERTY = "workinsurance.insuranceSchemas";
+
+    private static final InsuranceSchemaMode CURRENT = valueOf(System.getProperty(PROPERTY, V2.name()).toUpperCase());
+
+    /**
+     * The mode of this node, fixed for the life of the JVM.
+     */
+    public static InsuranceSchemaMode current() {
+        return CURRENT;
+    }
+
+    public boolean mapsV1() {
+        return this != V2;
+    }
+
+    public boolean mapsV2() {
+        return this != V1;
+    }
+}
@@ -0,0 +1,26 @@
+package net.corda.examples.workinsurance.schema;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.schemas.MappedSchema;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Second version of the custom schema for the Insurance QueryableState.
+ *
+ * The worker details are stored in the policy row and every column used by the policy and claim lookups is indexed,
+ * including the transaction_id/output_index join columns of the claims. The tables are created, and back-filled from
+ * the V1 tables, by the insurance-schema-v2.changelog-master Liquibase changelog.
+ */
+public class InsuranceSchemaV2 extends MappedSchema {
+
+    public InsuranceSchemaV2() {
+        super(InsuranceSchemaFamily.class, 2, ImmutableList.of(PersistentInsuranceV2.class,
+                PersistentClaimV2.class, PersistentInsuranceDetail.class));
+    }
+
+    @Nullable
+    @Override
+    public String getMigrationResource() {
+        return "insurance-schema-v2.changelog-master";
+    }
+}
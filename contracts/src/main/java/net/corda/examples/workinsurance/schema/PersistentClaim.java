@@ -5,6 +5,8 @@ import net.corda.examples.workinsurance.enums.AccidentType;
 import net.corda.examples.workinsurance.enums.ClaimStatus;
 import net.corda.examples.workinsurance.enums.Module;
 
+import org.hibernate.annotations.Persister;
+
 import javax.persistence.*;
 import java.util.Date;
 import java.util.UUID;
@@ -12,15 +14,30 @@ import java.util.UUID;
 
 /**
  * JPA Entity for saving claim details to the database table
+ *
+ * The policyId (the linearId of the policy) and entryIndex columns identify the claim within the claim history of its
+ * policy, so the history can be read back when each policy version only persists the claims it appended
+ * (ClaimPersistenceMode.DELTA). The policyNumber is kept for lookups, but is not unique to a policy. In that mode the
+ * primary key is derived from the policyId and entryIndex, and the ClaimRowPersister upserts the row.
  */
 @Entity
-@Table(name = "CLAIM_DETAIL")
+@Persister(impl = ClaimRowPersister.class)
+@Table(name = "CLAIM_DETAIL", indexes = {
+        @Index(name = "claim_detail_policy_idx", columnList = "policyNumber, entryIndex"),
+        @Index(name = "claim_detail_policy_id_idx", columnList = "policyId, entryIndex")
+})
 public class
 
 PersistentClaim {
 
     @Id private final UUID id;
 
+    @Column(length = 36) private final String policyId;
+
+    @Column private final String policyNumber;
+
+    @Column private final Integer entryIndex;
+
     @Column private final String claimNumber;
 
     @Column private final String claimDescription;
@@ -54,6 +71,9 @@ PersistentClaim {
      */
     public PersistentClaim() {
         this.id = null;
+        this.policyId = null;
+        this.policyNumber = null;
+        this.entryIndex = null;
         this.claimNumber = null;
         this.claimDescription = null;
         this.claimAmount = null;
@@ -68,7 +88,11 @@ PersistentClaim {
         this.proposer = null;
     }
 
-    public PersistentClaim(String claimNumber,
+    public PersistentClaim(UUID id,
+                           String policyId,
+                           String policyNumber,
+                           int entryIndex,
+                           String claimNumber,
                            String claimDescription,
                            int claimAmount,
                            ClaimStatus claimStatus,
@@ -80,7 +104,10 @@ PersistentClaim {
                            PersistentInsuranceDetail insuranceDetail,
                            Party proposer,
                            Party proposee) {
-        this.id = UUID.randomUUID();
+        this.id = id;
+        this.policyId = policyId;
+        this.policyNumber = policyNumber;
+        this.entryIndex = entryIndex;
         this.claimNumber = claimNumber;
         this.claimDescription = claimDescription;
         this.claimAmount = claimAmount;
@@ -99,6 +126,18 @@ PersistentClaim {
         return id;
     }
 
+    public String getPolicyId() {
+        return policyId;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public Integer getEntryIndex() {
+        return entryIndex;
+    }
+
     public String getClaimNumber() {
         return claimNumber;
     }
@@ -0,0 +1,145 @@
+package net.corda.examples.workinsurance.schema;
+
+import net.corda.core.identity.Party;
+import net.corda.core.schemas.PersistentState;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * JPA Entity for saving claim states to the database table
+ *
+ * Every version of a claim is a single row, so the table grows linearly with the number of claim transitions.
+ */
+@Entity
+@Table(name = "CLAIM_STATE", indexes = {
+        @Index(name = "claim_state_policy_claim_idx", columnList = "policyNumber, claimNumber"),
+        @Index(name = "claim_state_status_idx", columnList = "claimStatus")
+})
+public class PersistentClaimState extends PersistentState implements Serializable {
+
+    @Column private final UUID linearId;
+
+    @Column private final String policyNumber;
+
+    @Column private final String claimNumber;
+
+    @Column private final String claimDescription;
+
+    @Column private final Integer claimAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column private final ClaimStatus claimStatus;
+
+    @Column private final String internalPolicyNo;
+
+    @Column private final Date accidentDate;
+
+    @Column private final Date episodeDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column private final AccidentType accidentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column private final Module module;
+
+    @Embedded
+    private final PersistentInsuranceDetail insuranceDetail;
+
+    @Column private final Party insurer;
+
+    @Column private final Party insuree;
+
+    /**
+     * Default constructor required by Hibernate
+     */
+    public PersistentClaimState() {
+        this.linearId = null;
+        this.policyNumber = null;
+        this.claimNumber = null;
+        this.claimDescription = null;
+        this.claimAmount = null;
+        this.claimStatus = ClaimStatus.None;
+        this.internalPolicyNo = null;
+        this.accidentDate = null;
+        this.episodeDate = null;
+        this.accidentType = AccidentType.None;
+        this.module = Module.None;
+        this.insuranceDetail = null;
+        this.insurer = null;
+        this.insuree = null;
+    }
+
+    public PersistentClaimState(UUID linearId,
+                                String policyNumber,
+                                String claimNumber,
+                                String claimDescription,
+                                int claimAmount,
+                                ClaimStatus claimStatus,
+                                String internalPolicyNo,
+                                Date accidentDate,
+                                Date episodeDate,
+                                AccidentType accidentType,
+                                Module module,
+                                PersistentInsuranceDetail insuranceDetail,
+                                Party insurer,
+                                Party insuree) {
+        this.linearId = linearId;
+        this.policyNumber = policyNumber;
+        this.claimNumber = claimNumber;
+        this.claimDescription = claimDescription;
+        this.claimAmount = claimAmount;
+        this.claimStatus = claimStatus;
+        this.internalPolicyNo = internalPolicyNo;
+        this.accidentDate = accidentDate;
+        this.episodeDate = episodeDate;
+        this.accidentType = accidentType;
+        this.module = module;
+        this.insuranceDetail = insuranceDetail;
+        this.insurer = insurer;
+        this.insuree = insuree;
+    }
+
+    public UUID getLinearId() {
+        return linearId;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public String getClaimNumber() {
+        return claimNumber;
+    }
+
+    public String getClaimDescription() {
+        return claimDescription;
+    }
+
+    public Integer getClaimAmount() {
+        return claimAmount;
+    }
+
+    public ClaimStatus getClaimStatus() { return claimStatus; }
+
+    public String getInternalPolicyNo() { return internalPolicyNo; }
+
+    public Date getAccidentDate() { return accidentDate; }
+
+    public Date getEpisodeDate() { return episodeDate; }
+
+    public AccidentType getAccidentType() { return accidentType; }
+
+    public Module getModule() { return module; }
+
+    public PersistentInsuranceDetail getInsuranceDetail() { return insuranceDetail; }
+
+    public Party getInsurer() { return insurer; }
+
+    public Party getInsuree() { return insuree; }
+}
@@ -0,0 +1,172 @@
+package net.corda.examples.workinsurance.schema;
+
+import net.corda.core.identity.Party;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+
+import org.hibernate.annotations.Persister;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.UUID;
+
+
+/**
+ * JPA Entity for saving claim details to the database table of InsuranceSchemaV2
+ *
+ * Claims are indexed by their policy, number, status and accident date, and by the join columns of the policy version
+ * which persisted them. The policyId (the linearId of the policy) and entryIndex identify a claim within the claim
+ * history of its policy, as the policyNumber is not unique to a policy. In the DELTA ClaimPersistenceMode the primary
+ * key is derived from the policyId and entryIndex, and the ClaimRowPersister upserts the row.
+ */
+@Entity
+@Persister(impl = ClaimRowPersister.class)
+@Table(name = "CLAIM_DETAIL_V2", indexes = {
+        @Index(name = "claim_v2_state_idx", columnList = "transaction_id, output_index"),
+        @Index(name = "claim_v2_policy_idx", columnList = "policyNumber, entryIndex"),
+        @Index(name = "claim_v2_policy_id_idx", columnList = "policyId, entryIndex"),
+        @Index(name = "claim_v2_number_idx", columnList = "claimNumber"),
+        @Index(name = "claim_v2_status_idx", columnList = "claimStatus"),
+        @Index(name = "claim_v2_accident_date_idx", columnList = "accidentDate")
+})
+public class PersistentClaimV2 {
+
+    @Id @Column(length = 16) private final UUID id;
+
+    @Column(length = 36) private final String policyId;
+
+    @Column(length = 64) private final String policyNumber;
+
+    @Column private final Integer entryIndex;
+
+    @Column(length = 64) private final String claimNumber;
+
+    @Column private final String claimDescription;
+
+    @Column private final Integer claimAmount;
+
+    @Column(length = 64) private final String internalPolicyNo;
+
+    @Column private final Date accidentDate;
+
+    @Column private final Date episodeDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32) private final AccidentType accidentType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32) private final Module module;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16) private final ClaimStatus claimStatus;
+
+    @Column private final Party proposer;
+
+    @Column private final Party proposee;
+
+    @Embedded
+    private final PersistentInsuranceDetail insuranceDetail;
+
+    /**
+     * Default constructor required by Hibernate
+     */
+    public PersistentClaimV2() {
+        this.id = null;
+        this.policyId = null;
+        this.policyNumber = null;
+        this.entryIndex = null;
+        this.claimNumber = null;
+        this.claimDescription = null;
+        this.claimAmount = null;
+        this.claimStatus = ClaimStatus.None;
+        this.internalPolicyNo = null;
+        this.accidentDate = null;
+        this.episodeDate = null;
+        this.accidentType = AccidentType.None;
+        this.module = Module.None;
+        this.insuranceDetail = null;
+        this.proposee = null;
+        this.proposer = null;
+    }
+
+    public PersistentClaimV2(UUID id,
+                             String policyId,
+                             String policyNumber,
+                             int entryIndex,
+                             String claimNumber,
+                             String claimDescription,
+                             int claimAmount,
+                             ClaimStatus claimStatus,
+                             String internalPolicyNo,
+                             Date accidentDate,
+                             Date episodeDate,
+                             AccidentType accidentType,
+                             Module module,
+                             PersistentInsuranceDetail insuranceDetail,
+                             Party proposer,
+                             Party proposee) {
+        this.id = id;
+        this.policyId = policyId;
+        this.policyNumber = policyNumber;
+        this.entryIndex = entryIndex;
+        this.claimNumber = claimNumber;
+        this.claimDescription = claimDescription;
+        this.claimAmount = claimAmount;
+        this.claimStatus = claimStatus;
+        this.internalPolicyNo = internalPolicyNo;
+        this.accidentDate = accidentDate;
+        this.episodeDate = episodeDate;
+        this.accidentType = accidentType;
+        this.module = module;
+        this.insuranceDetail = insuranceDetail;
+        this.proposer = proposer;
+        this.proposee = proposee;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getPolicyId() {
+        return policyId;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public Integer getEntryIndex() {
+        return entryIndex;
+    }
+
+    public String getClaimNumber() {
+        return claimNumber;
+    }
+
+    public String getClaimDescription() {
+        return claimDescription;
+    }
+
+    public Integer getClaimAmount() {
+        return claimAmount;
+    }
+
+    public ClaimStatus getClaimStatus() { return claimStatus; }
+
+    public String getInternalPolicyNo() { return internalPolicyNo; }
+
+    public Date getAccidentDate() { return accidentDate; }
+
+    public Date getEpisodeDate() { return episodeDate; }
+
+    public AccidentType getAccidentType() { return accidentType; }
+
+    public Module getModule() { return module; }
+
+    public PersistentInsuranceDetail getInsuranceDetail() { return insuranceDetail; }
+
+    public Party getProposer() { return proposer; }
+
+    public Party getProposee() { return proposee; }
+}
@@ -1,5 +1,6 @@
 package net.corda.examples.workinsurance.schema;
 
+import net.corda.core.identity.Party;
 import net.corda.core.schemas.PersistentState;
 
 import javax.persistence.*;
@@ -9,14 +10,26 @@ import java.util.List;
 
 /**
  * JPA Entity for saving insurance details to the database table
+ *
+ * The policyNumber and insuree columns are indexed, as they are used by the flows to look up the current version of a
+ * policy.
  */
 @Entity
-@Table(name = "INSURANCE_DETAIL")
+@Table(name = "INSURANCE_DETAIL", indexes = {
+        @Index(name = "insurance_policy_idx", columnList = "policyNumber, insuree")
+})
 public class PersistentInsurance extends PersistentState implements Serializable {
 
     @Column private final Long insuredValue;
     @Column private final Integer duration;
 
+    // Read-only view of the policyNumber join column, so that vault queries can filter on it without joining the
+    // worker table.
+    @Column(name = "policyNumber", insertable = false, updatable = false)
+    private final String policyNumber;
+
+    @Column private final Party insuree;
+
     @OneToOne(cascade = CascadeType.PERSIST)
     @JoinColumns({
             @JoinColumn(name = "worker_id", referencedColumnName = "id"),
@@ -37,14 +50,18 @@ public class PersistentInsurance extends PersistentState implements Serializable
     public PersistentInsurance() {
         this.insuredValue = null;
         this.duration = null;
+        this.policyNumber = null;
+        this.insuree = null;
         this.worker = null;
         this.claims = null;
     }
 
-    public PersistentInsurance(Long insuredValue, Integer duration, PersistentWorker worker,
+    public PersistentInsurance(Long insuredValue, Integer duration, Party insuree, PersistentWorker worker,
                                List<PersistentClaim> claims) {
         this.insuredValue = insuredValue;
         this.duration = duration;
+        this.policyNumber = worker == null ? null : worker.getPolicyNumber();
+        this.insuree = insuree;
         this.worker = worker;
         this.claims = claims;
     }
@@ -57,6 +74,14 @@ public class PersistentInsurance extends PersistentState implements Serializable
         return duration;
     }
 
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public Party getInsuree() {
+        return insuree;
+    }
+
     public PersistentWorker getWorker() {
         return worker;
     }
@@ -0,0 +1,95 @@
+package net.corda.examples.workinsurance.schema;
+
+import net.corda.core.identity.Party;
+import net.corda.core.schemas.PersistentState;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.List;
+
+
+/**
+ * JPA Entity for saving insurance details to the database table of InsuranceSchemaV2
+ *
+ * The worker details are flattened into the policy row, so policy lookups do not join the worker table.
+ */
+@Entity
+@Table(name = "INSURANCE_DETAIL_V2", indexes = {
+        @Index(name = "insurance_v2_policy_idx", columnList = "policyNumber, insuree"),
+        @Index(name = "insurance_v2_health_number_idx", columnList = "healthNumber")
+})
+public class PersistentInsuranceV2 extends PersistentState implements Serializable {
+
+    @Column private final Long insuredValue;
+    @Column private final Integer duration;
+    @Column(length = 64) private final String policyNumber;
+    @Column private final String workerName;
+    @Column(length = 64) private final String healthNumber;
+    @Column private final String policyHolder;
+    @Column private final Party insuree;
+
+    @OneToMany(cascade = CascadeType.PERSIST)
+    @JoinColumns({
+            @JoinColumn(name = "output_index", referencedColumnName = "output_index"),
+            @JoinColumn(name = "transaction_id", referencedColumnName = "transaction_id")
+    })
+    private List<PersistentClaimV2> claims;
+
+    /**
+     * Default constructor required by Hibernate
+     */
+    public PersistentInsuranceV2() {
+        this.insuredValue = null;
+        this.duration = null;
+        this.policyNumber = null;
+        this.workerName = null;
+        this.healthNumber = null;
+        this.policyHolder = null;
+        this.insuree = null;
+        this.claims = null;
+    }
+
+    public PersistentInsuranceV2(Long insuredValue, Integer duration, String policyNumber, String workerName,
+                                 String healthNumber, String policyHolder, Party insuree, List<PersistentClaimV2> claims) {
+        this.insuredValue = insuredValue;
+        this.duration = duration;
+        this.policyNumber = policyNumber;
+        this.workerName = workerName;
+        this.healthNumber = healthNumber;
+        this.policyHolder = policyHolder;
+        this.insuree = insuree;
+        this.claims = claims;
+    }
+
+    public Long getInsuredValue() {
+        return insuredValue;
+    }
+
+    public Integer getDuration() {
+        return duration;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public String getWorkerName() {
+        return workerName;
+    }
+
+    public String getHealthNumber() {
+        return healthNumber;
+    }
+
+    public String getPolicyHolder() {
+        return policyHolder;
+    }
+
+    public Party getInsuree() {
+        return insuree;
+    }
+
+    public List<PersistentClaimV2> getClaims() {
+        return claims;
+    }
+}
@@ -7,6 +7,7 @@ import net.corda.examples.workinsurance.enums.ClaimStatus;
 import net.corda.examples.workinsurance.enums.Module;
 
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * Simple POJO class for the claim details.
@@ -84,4 +85,29 @@ public class Claim {
     public Party getProposer() { return proposer; }
 
     public Party getProposee() { return proposee; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Claim claim = (Claim) o;
+        return claimAmount == claim.claimAmount &&
+                Objects.equals(claimNumber, claim.claimNumber) &&
+                Objects.equals(claimDescription, claim.claimDescription) &&
+                Objects.equals(internalPolicyNo, claim.internalPolicyNo) &&
+                Objects.equals(accidentDate, claim.accidentDate) &&
+                Objects.equals(episodeDate, claim.episodeDate) &&
+                accidentType == claim.accidentType &&
+                module == claim.module &&
+                claimStatus == claim.claimStatus &&
+                Objects.equals(insuranceDetail, claim.insuranceDetail) &&
+                Objects.equals(proposer, claim.proposer) &&
+                Objects.equals(proposee, claim.proposee);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(claimNumber, claimDescription, claimAmount, internalPolicyNo, accidentDate, episodeDate,
+                accidentType, module, claimStatus, insuranceDetail, proposer, proposee);
+    }
 }
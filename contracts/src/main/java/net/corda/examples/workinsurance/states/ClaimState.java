@@ -0,0 +1,133 @@
+package net.corda.examples.workinsurance.states;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.BelongsToContract;
+import net.corda.core.contracts.LinearState;
+import net.corda.core.contracts.StatePointer;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.identity.AbstractParty;
+import net.corda.core.identity.Party;
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+import net.corda.core.schemas.QueryableState;
+import net.corda.examples.workinsurance.contracts.ClaimContract;
+import net.corda.examples.workinsurance.schema.ClaimSchemaV1;
+import net.corda.examples.workinsurance.schema.PersistentClaimState;
+import net.corda.examples.workinsurance.schema.PersistentInsuranceDetail;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Claim State
+ * A single claim made against an insurance policy, kept apart from the InsuranceState so that a claim transition only
+ * consumes and produces this small state, whatever the number of claims made against the policy.
+ * The policy is referenced through a StatePointer, a LinearPointer to the policy linearId for the claims proposed by
+ * the flows, so the claim follows the policy across its versions.
+ */
+@BelongsToContract(ClaimContract.class)
+public class ClaimState implements LinearState, QueryableState {
+
+    private final UniqueIdentifier linearId;
+
+    // The insurance policy the claim is made against.
+    private final StatePointer<InsuranceState> policy;
+    private final String policyNumber;
+
+    private final Claim claim;
+
+    private final Party insurer;
+    private final Party insuree;
+
+    public ClaimState(UniqueIdentifier linearId, StatePointer<InsuranceState> policy, String policyNumber, Claim claim,
+                      Party insurer, Party insuree) {
+        this.linearId = linearId;
+        this.policy = policy;
+        this.policyNumber = policyNumber;
+        this.claim = claim;
+        this.insurer = insurer;
+        this.insuree = insuree;
+    }
+
+    /**
+     * Returns a copy of this state, with the given claim as its next version.
+     */
+    public ClaimState withClaim(Claim claim) {
+        return new ClaimState(linearId, policy, policyNumber, claim, insurer, insuree);
+    }
+
+    /**
+     * Used to Generate the Entity for this Queryable State.
+     *
+     * @param schema
+     * @return PersistentState
+     */
+    @NotNull
+    @Override
+    public PersistentState generateMappedObject(@NotNull MappedSchema schema) {
+        if(schema instanceof ClaimSchemaV1){
+            PersistentInsuranceDetail persistentInsuranceDetail = claim.getInsuranceDetail() == null? null: new PersistentInsuranceDetail(
+                    claim.getInsuranceDetail().getInsuranceCompanyNumber(),
+                    claim.getInsuranceDetail().getInsuranceCompanyPolicyNumber(),
+                    claim.getInsuranceDetail().getField()
+            );
+
+            return new PersistentClaimState(
+                    linearId.getId(),
+                    policyNumber,
+                    claim.getClaimNumber(),
+                    claim.getClaimDescription(),
+                    claim.getClaimAmount(),
+                    claim.getClaimStatus(),
+                    claim.getInternalPolicyNo(),
+                    claim.getAccidentDate(),
+                    claim.getEpisodeDate(),
+                    claim.getAccidentType(),
+                    claim.getModule(),
+                    persistentInsuranceDetail,
+                    insurer,
+                    insuree
+            );
+        }else{
+            throw new IllegalArgumentException("Unsupported Schema");
+        }
+    }
+
+    @NotNull
+    @Override
+    public Iterable<MappedSchema> supportedSchemas() {
+        return ImmutableList.of(new ClaimSchemaV1());
+    }
+
+    @NotNull
+    @Override
+    public List<AbstractParty> getParticipants() {
+        return ImmutableList.of(insuree, insurer);
+    }
+
+    @NotNull
+    @Override
+    public UniqueIdentifier getLinearId() {
+        return linearId;
+    }
+
+    public StatePointer<InsuranceState> getPolicy() {
+        return policy;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public Claim getClaim() {
+        return claim;
+    }
+
+    public Party getInsurer() {
+        return insurer;
+    }
+
+    public Party getInsuree() {
+        return insuree;
+    }
+}
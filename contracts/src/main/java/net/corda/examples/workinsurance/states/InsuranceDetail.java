@@ -2,6 +2,8 @@ package net.corda.examples.workinsurance.states;
 
 import net.corda.core.serialization.CordaSerializable;
 
+import java.util.Objects;
+
 @CordaSerializable
 public class InsuranceDetail {
     private final String insuranceCompanyNumber;
@@ -25,4 +27,19 @@ public class InsuranceDetail {
     public String getField() {
         return field;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        InsuranceDetail that = (InsuranceDetail) o;
+        return Objects.equals(insuranceCompanyNumber, that.insuranceCompanyNumber) &&
+                Objects.equals(insuranceCompanyPolicyNumber, that.insuranceCompanyPolicyNumber) &&
+                Objects.equals(field, that.field);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(insuranceCompanyNumber, insuranceCompanyPolicyNumber, field);
+    }
 }
@@ -2,6 +2,10 @@ package net.corda.examples.workinsurance.states;
 
 import com.google.common.collect.ImmutableList;
 import net.corda.core.contracts.BelongsToContract;
+import net.corda.core.contracts.LinearState;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.serialization.ConstructorForDeserialization;
+import net.corda.core.serialization.DeprecatedConstructorForDeserialization;
 import net.corda.core.identity.AbstractParty;
 import net.corda.core.identity.Party;
 import net.corda.core.schemas.MappedSchema;
@@ -11,15 +15,21 @@ import net.corda.examples.workinsurance.contracts.InsuranceContract;
 import net.corda.examples.workinsurance.schema.*;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Insurance State
  * The state should implement the QueryableState to support custom schema development.
+ * It is a LinearState, so every version of a policy shares the linearId given to it when it was issued.
  */
 @BelongsToContract(InsuranceContract.class)
-public class InsuranceState implements QueryableState {
+public class InsuranceState implements LinearState, QueryableState {
+
+    // Stable identity of the policy across its versions.
+    private final UniqueIdentifier linearId;
 
     // Represents the asset which is insured.
     private final WorkerDetail workerDetail;
@@ -31,17 +41,76 @@ public class InsuranceState implements QueryableState {
     // Insurance claims made against the insurance policy
     private final List<Claim> claims;
 
+    // Number of leading claims carried over unchanged from the previous version of the policy. The claims after them
+    // were appended by the transaction which created this version.
+    private final int previousClaimCount;
+
     private final Party insurer;
     private final Party insuree;
 
+    @DeprecatedConstructorForDeserialization(version = 1)
     public InsuranceState(long insuredValue, int duration, Party insurer,
                           Party insuree, WorkerDetail workerDetail, List<Claim> claims) {
+        this(insuredValue, duration, insurer, insuree, workerDetail, claims, 0);
+    }
+
+    @DeprecatedConstructorForDeserialization(version = 2)
+    public InsuranceState(long insuredValue, int duration, Party insurer,
+                          Party insuree, WorkerDetail workerDetail, List<Claim> claims, int previousClaimCount) {
+        this(insuredValue, duration, insurer, insuree, workerDetail, claims, previousClaimCount,
+                policyLinearId(insurer, insuree, workerDetail));
+    }
+
+    @ConstructorForDeserialization
+    public InsuranceState(long insuredValue, int duration, Party insurer,
+                          Party insuree, WorkerDetail workerDetail, List<Claim> claims, int previousClaimCount,
+                          UniqueIdentifier linearId) {
+        this.linearId = linearId;
         this.insuredValue = insuredValue;
         this.duration = duration;
         this.insurer = insurer;
         this.insuree = insuree;
         this.workerDetail = workerDetail;
         this.claims = claims;
+        this.previousClaimCount = previousClaimCount;
+    }
+
+    /**
+     * Returns the next version of this policy, with the given claims appended to the claims of this version.
+     */
+    public InsuranceState withAppendedClaims(List<Claim> appendedClaims) {
+        List<Claim> nextClaims = new ArrayList<>();
+        if(claims != null) {
+            nextClaims.addAll(claims);
+        }
+        nextClaims.addAll(appendedClaims);
+        return new InsuranceState(insuredValue, duration, insurer, insuree, workerDetail, nextClaims,
+                claims == null ? 0 : claims.size(), linearId);
+    }
+
+    /**
+     * The linearId of a policy built without one, such as a policy recorded before InsuranceState became a LinearState.
+     * It is derived from the parties and the policy number, so every version of such a policy resolves to the same
+     * linearId, and policies with the same number between other parties do not.
+     */
+    private static UniqueIdentifier policyLinearId(Party insurer, Party insuree, WorkerDetail workerDetail) {
+        String policyNumber = workerDetail == null ? null : workerDetail.getPolicyNumber();
+        String key = "policy|" + (insurer == null ? "" : insurer.getName()) + "|" + (insuree == null ? "" : insuree.getName())
+                + "|" + (policyNumber == null ? "" : policyNumber);
+        return new UniqueIdentifier(policyNumber, UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * The primary key of the row of the claim at the given index of the claim history: derived from the policy linearId
+     * and the index in the DELTA mode, so the row is upserted, and random in the FULL mode, where every version of the
+     * policy has its own rows.
+     */
+    private UUID claimRowId(ClaimPersistenceMode claimPersistenceMode, int index) {
+        if (claimPersistenceMode == ClaimPersistenceMode.FULL) {
+            return UUID.randomUUID();
+        }
+        String key = "claim|" + linearId.getId() + "|" + index;
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -49,6 +118,11 @@ public class InsuranceState implements QueryableState {
      * This method is called by the SchemaService of the node, and the returned entity is handed over to the ORM tool
      * to be persisted in custom database table.
      *
+     * In the DELTA ClaimPersistenceMode only the claims appended by this version are mapped, so a claim is written once
+     * over the life of the policy instead of once per version. Their rows are keyed by the policyId and entryIndex: a
+     * notary change records the same state data again under a new StateRef and maps the claims appended by the last
+     * transaction once more, which the ClaimRowPersister upserts into the rows already stored.
+     *
      * @param schema
      * @return PersistentState
      */
@@ -57,10 +131,14 @@ public class InsuranceState implements QueryableState {
     public PersistentState generateMappedObject(@NotNull MappedSchema schema) {
         if(schema instanceof InsuranceSchemaV1){
 
-            // Create list of PersistentClaim entity against every Claims object.
+            ClaimPersistenceMode claimPersistenceMode = ClaimPersistenceMode.current();
+            int firstPersistedClaim = claimPersistenceMode == ClaimPersistenceMode.DELTA ? previousClaimCount : 0;
+
+            // Create list of PersistentClaim entity against every persisted Claims object.
             List<PersistentClaim> persistentClaims = new ArrayList<>();
             if(claims != null && claims.size() > 0) {
-                for(Claim claim: claims){
+                for(int index = firstPersistedClaim; index < claims.size(); index++){
+                    Claim claim = claims.get(index);
 
                     // Create a PersistentInsuranceDetail for each Claim object
                     PersistentInsuranceDetail persistentInsuranceDetail = claim.getInsuranceDetail() == null? null: new PersistentInsuranceDetail(
@@ -70,6 +148,10 @@ public class InsuranceState implements QueryableState {
                     );
 
                     PersistentClaim persistentClaim = new PersistentClaim(
+                            claimRowId(claimPersistenceMode, index),
+                            linearId.getId().toString(),
+                            workerDetail == null ? null : workerDetail.getPolicyNumber(),
+                            index,
                             claim.getClaimNumber(),
                             claim.getClaimDescription(),
                             claim.getClaimAmount(),
@@ -91,6 +173,7 @@ public class InsuranceState implements QueryableState {
             return new PersistentInsurance(
                     this.insuredValue,
                     this.duration,
+                    this.insuree,
                     this.workerDetail ==null ? null : new PersistentWorker(
                             workerDetail.getPolicyNumber(),
                             workerDetail.getName(),
@@ -99,6 +182,53 @@ public class InsuranceState implements QueryableState {
                     ),
                     this.claims == null? null: persistentClaims
             );
+        }else if(schema instanceof InsuranceSchemaV2){
+
+            ClaimPersistenceMode claimPersistenceMode = ClaimPersistenceMode.current();
+            int firstPersistedClaim = claimPersistenceMode == ClaimPersistenceMode.DELTA ? previousClaimCount : 0;
+
+            List<PersistentClaimV2> persistentClaims = new ArrayList<>();
+            if(claims != null && claims.size() > 0) {
+                for(int index = firstPersistedClaim; index < claims.size(); index++){
+                    Claim claim = claims.get(index);
+
+                    PersistentInsuranceDetail persistentInsuranceDetail = claim.getInsuranceDetail() == null? null: new PersistentInsuranceDetail(
+                            claim.getInsuranceDetail().getInsuranceCompanyNumber(),
+                            claim.getInsuranceDetail().getInsuranceCompanyPolicyNumber(),
+                            claim.getInsuranceDetail().getField()
+                    );
+
+                    persistentClaims.add(new PersistentClaimV2(
+                            claimRowId(claimPersistenceMode, index),
+                            linearId.getId().toString(),
+                            workerDetail == null ? null : workerDetail.getPolicyNumber(),
+                            index,
+                            claim.getClaimNumber(),
+                            claim.getClaimDescription(),
+                            claim.getClaimAmount(),
+                            claim.getClaimStatus(),
+                            claim.getInternalPolicyNo(),
+                            claim.getAccidentDate(),
+                            claim.getEpisodeDate(),
+                            claim.getAccidentType(),
+                            claim.getModule(),
+                            persistentInsuranceDetail,
+                            claim.getProposer(),
+                            claim.getProposee()
+                    ));
+                }
+            }
+
+            return new PersistentInsuranceV2(
+                    this.insuredValue,
+                    this.duration,
+                    workerDetail == null ? null : workerDetail.getPolicyNumber(),
+                    workerDetail == null ? null : workerDetail.getName(),
+                    workerDetail == null ? null : workerDetail.getHealthNumber(),
+                    workerDetail == null ? null : workerDetail.getPolicyHolder(),
+                    this.insuree,
+                    this.claims == null? null: persistentClaims
+            );
         }else{
             throw new IllegalArgumentException("Unsupported Schema");
         }
@@ -106,13 +236,28 @@ public class InsuranceState implements QueryableState {
 
     /**
      * Returns a list of supported Schemas by this Queryable State.
+     * The versions of the Insurance schema mapped by the node are selected by the InsuranceSchemaMode.
      *
      * @return Iterable<MappedSchema>
      */
     @NotNull
     @Override
     public Iterable<MappedSchema> supportedSchemas() {
-        return ImmutableList.of(new InsuranceSchemaV1());
+        InsuranceSchemaMode insuranceSchemaMode = InsuranceSchemaMode.current();
+        ImmutableList.Builder<MappedSchema> schemas = ImmutableList.builder();
+        if(insuranceSchemaMode.mapsV1()) {
+            schemas.add(new InsuranceSchemaV1());
+        }
+        if(insuranceSchemaMode.mapsV2()) {
+            schemas.add(new InsuranceSchemaV2());
+        }
+        return schemas.build();
+    }
+
+    @NotNull
+    @Override
+    public UniqueIdentifier getLinearId() {
+        return linearId;
     }
 
     @NotNull
@@ -144,4 +289,8 @@ public class InsuranceState implements QueryableState {
     public List<Claim> getClaims() {
         return claims;
     }
+
+    public int getPreviousClaimCount() {
+        return previousClaimCount;
+    }
 }
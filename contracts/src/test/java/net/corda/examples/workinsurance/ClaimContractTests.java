@@ -0,0 +1,237 @@
+package net.corda.examples.workinsurance;
+
+import net.corda.core.contracts.LinearPointer;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StaticPointer;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.examples.workinsurance.contracts.ClaimContract;
+import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+import net.corda.examples.workinsurance.states.*;
+import net.corda.testing.core.TestIdentity;
+import net.corda.testing.node.MockServices;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static net.corda.testing.node.NodeTestUtils.ledger;
+
+public class ClaimContractTests {
+    private final TestIdentity hsj = new TestIdentity(new CordaX500Name("HSJ", "", "GB"));
+    private final TestIdentity ags = new TestIdentity(new CordaX500Name("AGS", "", "GB"));
+
+    private MockServices ledgerServices = new MockServices(new TestIdentity(new CordaX500Name("TestId", "", "GB")));
+
+    private final WorkerDetail workerDetail = new WorkerDetail("policyNr", "Alfredo", "123456", "CSW" );
+    private final InsuranceState insuranceState = new InsuranceState(1000, 24, ags.getParty(), hsj.getParty(), workerDetail, null);
+
+    private final Date accidentDate = new Date(2019, 10, 12);
+
+    private final InsuranceDetail insuranceDetail = new InsuranceDetail("InsuranceCompanyNr", "InsuranceCompanyPolicyNr",
+            "Field");
+
+    private final Claim claimProposal = new Claim("N1", "Minor accident", 200, ClaimStatus.Proposal,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+            null, hsj.getParty(), ags.getParty());
+
+    private final Claim claimAccepted = new Claim("N1", "Minor accident", 200, ClaimStatus.Accepted,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+            insuranceDetail, ags.getParty(), hsj.getParty());
+
+    private final Claim claimRejected = new Claim("N1", "Minor accident", 200, ClaimStatus.Rejected,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+            null, ags.getParty(), hsj.getParty());
+
+    private final UniqueIdentifier claimId = new UniqueIdentifier("N1");
+
+    private ClaimState claimState(StateAndRef<InsuranceState> policy, String policyNumber, Claim claim) {
+        return new ClaimState(claimId, new StaticPointer<>(policy.getRef(), InsuranceState.class), policyNumber, claim,
+                ags.getParty(), hsj.getParty());
+    }
+
+    @Test
+    public void claimContractProposeClaimCommandRequiresTheInsurancePolicyAsReference(){
+        ledger(ledgerServices, l -> {
+            l.transaction(tx -> {
+                tx.output(InsuranceContract.ID, "policy", insuranceState);
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsurance());
+                return tx.verifies();
+            });
+            StateAndRef<InsuranceState> policy = l.retrieveOutputStateAndRef(InsuranceState.class, "policy");
+
+            l.transaction(tx -> {
+                // Has no reference to the policy, will fail.
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", claimProposal));
+                tx.command(Arrays.asList(hsj.getPublicKey(), ags.getPublicKey()), new ClaimContract.Commands.ProposeClaim());
+                return tx.fails();
+            });
+
+            l.transaction(tx -> {
+                // References the policy, will verify.
+                tx.reference("policy");
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", claimProposal));
+                tx.command(Arrays.asList(hsj.getPublicKey(), ags.getPublicKey()), new ClaimContract.Commands.ProposeClaim());
+                return tx.verifies();
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void claimContractProposeClaimCommandAcceptsALinearPointerToTheReferencedPolicy(){
+        ledger(ledgerServices, l -> {
+            l.transaction(tx -> {
+                tx.output(InsuranceContract.ID, "policy", insuranceState);
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsurance());
+                return tx.verifies();
+            });
+
+            l.transaction(tx -> {
+                // Points to the referenced policy by its linearId, will verify.
+                tx.reference("policy");
+                tx.output(ClaimContract.ID, new ClaimState(claimId, new LinearPointer<>(insuranceState.getLinearId(), InsuranceState.class, false),
+                        "policyNr", claimProposal, ags.getParty(), hsj.getParty()));
+                tx.command(Arrays.asList(hsj.getPublicKey(), ags.getPublicKey()), new ClaimContract.Commands.ProposeClaim());
+                return tx.verifies();
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void claimContractProposeClaimCommandRequiresThePolicyNumberOfTheReferencedPolicy(){
+        ledger(ledgerServices, l -> {
+            l.transaction(tx -> {
+                tx.output(InsuranceContract.ID, "policy", insuranceState);
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsurance());
+                return tx.verifies();
+            });
+            StateAndRef<InsuranceState> policy = l.retrieveOutputStateAndRef(InsuranceState.class, "policy");
+
+            l.transaction(tx -> {
+                // Has a different policy number, will fail.
+                tx.reference("policy");
+                tx.output(ClaimContract.ID, claimState(policy, "otherPolicyNr", claimProposal));
+                tx.command(Arrays.asList(hsj.getPublicKey(), ags.getPublicKey()), new ClaimContract.Commands.ProposeClaim());
+                return tx.fails();
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void claimContractProposeClaimCommandRequiresTheInsureeToBeARequiredSigner(){
+        ledger(ledgerServices, l -> {
+            l.transaction(tx -> {
+                tx.output(InsuranceContract.ID, "policy", insuranceState);
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsurance());
+                return tx.verifies();
+            });
+            StateAndRef<InsuranceState> policy = l.retrieveOutputStateAndRef(InsuranceState.class, "policy");
+
+            l.transaction(tx -> {
+                // Insuree is not a signer, will fail.
+                tx.reference("policy");
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", claimProposal));
+                tx.command(ags.getPublicKey(), new ClaimContract.Commands.ProposeClaim());
+                return tx.fails();
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void claimContractAcceptClaimCommandRequiresAProposedClaimAndInsuranceDetail(){
+        ledger(ledgerServices, l -> {
+            l.transaction(tx -> {
+                tx.output(InsuranceContract.ID, "policy", insuranceState);
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsurance());
+                return tx.verifies();
+            });
+            StateAndRef<InsuranceState> policy = l.retrieveOutputStateAndRef(InsuranceState.class, "policy");
+            Claim acceptedWithoutDetail = new Claim("N1", "Minor accident", 200, ClaimStatus.Accepted,
+                    "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                    null, ags.getParty(), hsj.getParty());
+
+            l.transaction(tx -> {
+                // Input claim is already accepted, will fail.
+                tx.input(ClaimContract.ID, claimState(policy, "policyNr", claimAccepted));
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", claimAccepted));
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new ClaimContract.Commands.AcceptClaim());
+                return tx.fails();
+            });
+
+            l.transaction(tx -> {
+                // Output claim has no insurance detail, will fail.
+                tx.input(ClaimContract.ID, claimState(policy, "policyNr", claimProposal));
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", acceptedWithoutDetail));
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new ClaimContract.Commands.AcceptClaim());
+                return tx.fails();
+            });
+
+            l.transaction(tx -> {
+                tx.input(ClaimContract.ID, claimState(policy, "policyNr", claimProposal));
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", claimAccepted));
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new ClaimContract.Commands.AcceptClaim());
+                return tx.verifies();
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void claimContractAcceptClaimCommandRequiresTheClaimDetailsToBeUnchanged(){
+        ledger(ledgerServices, l -> {
+            l.transaction(tx -> {
+                tx.output(InsuranceContract.ID, "policy", insuranceState);
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsurance());
+                return tx.verifies();
+            });
+            StateAndRef<InsuranceState> policy = l.retrieveOutputStateAndRef(InsuranceState.class, "policy");
+            Claim acceptedWithOtherAmount = new Claim("N1", "Minor accident", 5000, ClaimStatus.Accepted,
+                    "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                    insuranceDetail, ags.getParty(), hsj.getParty());
+
+            l.transaction(tx -> {
+                // Output claim amount differs from the proposal, will fail.
+                tx.input(ClaimContract.ID, claimState(policy, "policyNr", claimProposal));
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", acceptedWithOtherAmount));
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new ClaimContract.Commands.AcceptClaim());
+                return tx.fails();
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void claimContractRejectClaimCommandRequiresTheInsurerToBeARequiredSigner(){
+        ledger(ledgerServices, l -> {
+            l.transaction(tx -> {
+                tx.output(InsuranceContract.ID, "policy", insuranceState);
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsurance());
+                return tx.verifies();
+            });
+            StateAndRef<InsuranceState> policy = l.retrieveOutputStateAndRef(InsuranceState.class, "policy");
+
+            l.transaction(tx -> {
+                // Insurer is not a signer, will fail.
+                tx.input(ClaimContract.ID, claimState(policy, "policyNr", claimProposal));
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", claimRejected));
+                tx.command(hsj.getPublicKey(), new ClaimContract.Commands.RejectClaim());
+                return tx.fails();
+            });
+
+            l.transaction(tx -> {
+                tx.input(ClaimContract.ID, claimState(policy, "policyNr", claimProposal));
+                tx.output(ClaimContract.ID, claimState(policy, "policyNr", claimRejected));
+                tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new ClaimContract.Commands.RejectClaim());
+                return tx.verifies();
+            });
+            return null;
+        });
+    }
+}
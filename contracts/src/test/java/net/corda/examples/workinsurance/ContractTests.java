@@ -1,6 +1,7 @@
 package net.corda.examples.workinsurance;
 
 import net.corda.core.contracts.Contract;
+import net.corda.core.contracts.UniqueIdentifier;
 import net.corda.core.identity.CordaX500Name;
 import net.corda.examples.workinsurance.contracts.InsuranceContract;
 import net.corda.examples.workinsurance.enums.AccidentType;
@@ -51,10 +52,10 @@ public class ContractTests {
             insuranceState.getInsuree(), insuranceState.getWorkerDetail(), Arrays.asList(claimProposal));
 
     private final InsuranceState insuranceStateClaimAccepted = new InsuranceState(insuranceState.getInsuredValue(), insuranceState.getDuration(), insuranceState.getInsurer(),
-            insuranceState.getInsuree(), insuranceState.getWorkerDetail(), Arrays.asList(claimAccepted));
+            insuranceState.getInsuree(), insuranceState.getWorkerDetail(), Arrays.asList(claimProposal, claimAccepted), 1);
 
     private final InsuranceState insuranceStateClaimRejected = new InsuranceState(insuranceState.getInsuredValue(), insuranceState.getDuration(), insuranceState.getInsurer(),
-            insuranceState.getInsuree(), insuranceState.getWorkerDetail(), Arrays.asList(claimRejected));
+            insuranceState.getInsuree(), insuranceState.getWorkerDetail(), Arrays.asList(claimProposal, claimRejected), 1);
 
     @Test
     public void insuranceContractImplementsContract(){
@@ -101,6 +102,74 @@ public class ContractTests {
         });
     }
 
+    @Test
+    public void insuranceContractIssueBatchCommandAcceptsManyOutputsInTheTransaction(){
+        InsuranceState otherInsuranceState = new InsuranceState(2000, 12, ags.getParty(), hsj.getParty(),
+                new WorkerDetail("otherPolicyNr", "Maria", "654321", "CSW"), null);
+
+        transaction(ledgerServices, tx -> {
+            tx.output(InsuranceContract.ID, insuranceState);
+            tx.output(InsuranceContract.ID, otherInsuranceState);
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsuranceBatch());
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractIssueBatchCommandRequiresDifferentPolicyNumbers(){
+        transaction(ledgerServices, tx -> {
+            // Issues the same policy twice, will fail.
+            tx.output(InsuranceContract.ID, insuranceState);
+            tx.output(InsuranceContract.ID, insuranceState);
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsuranceBatch());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractIssueBatchCommandRequiresZeroInputsInTheTransaction(){
+        transaction(ledgerServices, tx -> {
+            // Has an input, will fail.
+            tx.input(InsuranceContract.ID, insuranceState);
+            tx.output(InsuranceContract.ID, new InsuranceState(2000, 12, ags.getParty(), hsj.getParty(),
+                    new WorkerDetail("otherPolicyNr", "Maria", "654321", "CSW"), null));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsuranceBatch());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractIssueBatchCommandRequiresEveryIssuerToBeARequiredSigner(){
+        InsuranceState insuranceStateWhereHSJIsIssuer = new InsuranceState(2000, 12, hsj.getParty(), ags.getParty(),
+                new WorkerDetail("otherPolicyNr", "Maria", "654321", "CSW"), null);
+
+        transaction(ledgerServices, tx -> {
+            // The issuer of the second policy is not a required signer, will fail.
+            tx.output(InsuranceContract.ID, insuranceState);
+            tx.output(InsuranceContract.ID, insuranceStateWhereHSJIsIssuer);
+            tx.command(ags.getPublicKey(), new InsuranceContract.Commands.IssueInsuranceBatch());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractIssueBatchCommandRequiresABoundedNumberOfOutputs(){
+        transaction(ledgerServices, tx -> {
+            // Has one output more than the bound, will fail.
+            for (int index = 0; index <= InsuranceContract.MAX_ISSUE_BATCH_SIZE; index++) {
+                tx.output(InsuranceContract.ID, new InsuranceState(1000, 24, ags.getParty(), hsj.getParty(),
+                        new WorkerDetail("policyNr" + index, "Alfredo", "123456", "CSW"), null));
+            }
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.IssueInsuranceBatch());
+            tx.fails();
+            return null;
+        });
+    }
+
     @Test
     public void insuranceContractRequiresTheTransactionOutputToBeAInsuranceState(){
         transaction(ledgerServices, tx -> {
@@ -366,6 +435,201 @@ public class ContractTests {
         });
     }
 
+    @Test
+    public void insuranceContractAddClaimCommandRequiresOutputToCarryOverTheInputClaims(){
+        Claim secondClaimProposal = new Claim("N2", "Minor accident", 300, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hsj.getParty(), ags.getParty());
+        InsuranceState insuranceStateWithoutCarryOver = new InsuranceState(insuranceState.getInsuredValue(), insuranceState.getDuration(), insuranceState.getInsurer(),
+                insuranceState.getInsuree(), insuranceState.getWorkerDetail(), Arrays.asList(claimProposal, secondClaimProposal));
+
+        transaction(ledgerServices, tx -> {
+            // Output does not record the claims carried over from the input, will fail.
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, insuranceStateWithoutCarryOver);
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AddClaim());
+            tx.fails();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Output records the claims carried over from the input, will verify.
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, insuranceStateClaimProposal.withAppendedClaims(Arrays.asList(secondClaimProposal)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AddClaim());
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAddClaimCommandRequiresOutputToKeepTheLinearIdOfTheInput(){
+        InsuranceState insuranceStateWithOtherLinearId = new InsuranceState(insuranceState.getInsuredValue(), insuranceState.getDuration(), insuranceState.getInsurer(),
+                insuranceState.getInsuree(), insuranceState.getWorkerDetail(), Arrays.asList(claimProposal), 0, new UniqueIdentifier("policyNr"));
+
+        transaction(ledgerServices, tx -> {
+            // Output has another linearId than the input, will fail.
+            tx.input(InsuranceContract.ID, insuranceState);
+            tx.output(InsuranceContract.ID, insuranceStateWithOtherLinearId);
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AddClaim());
+            tx.fails();
+            return null;
+        });
+
+        transaction(ledgerServices, tx -> {
+            // Output keeps the linearId of the input, will verify.
+            tx.input(InsuranceContract.ID, insuranceState);
+            tx.output(InsuranceContract.ID, insuranceState.withAppendedClaims(Arrays.asList(claimProposal)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AddClaim());
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAddClaimCommandRequiresNewClaimNumbers(){
+        transaction(ledgerServices, tx -> {
+            // Appends a claim with the number of an existing claim, will fail.
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, insuranceStateClaimProposal.withAppendedClaims(Arrays.asList(claimProposal)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AddClaim());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAddClaimCommandRequiresTheClaimHistoryToBeAppendOnly(){
+        Claim changedClaimProposal = new Claim("N1", "Major accident", 2000, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hsj.getParty(), ags.getParty());
+        Claim secondClaimProposal = new Claim("N2", "Minor accident", 300, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hsj.getParty(), ags.getParty());
+
+        transaction(ledgerServices, tx -> {
+            // Rewrites an existing claim, will fail.
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, new InsuranceState(insuranceState.getInsuredValue(), insuranceState.getDuration(), insuranceState.getInsurer(),
+                    insuranceState.getInsuree(), insuranceState.getWorkerDetail(), Arrays.asList(changedClaimProposal, secondClaimProposal), 1));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AddClaim());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAddClaimCommandAcceptsManyClaimsInOneTransaction(){
+        Claim secondClaimProposal = new Claim("N2", "Minor accident", 300, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hsj.getParty(), ags.getParty());
+        Claim thirdClaimProposal = new Claim("N3", "Minor accident", 400, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hsj.getParty(), ags.getParty());
+
+        transaction(ledgerServices, tx -> {
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, insuranceStateClaimProposal.withAppendedClaims(Arrays.asList(secondClaimProposal, thirdClaimProposal)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AddClaim());
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAddClaimCommandRequiresUniqueClaimNumbersWithinTheAppendedClaims(){
+        Claim secondClaimProposal = new Claim("N2", "Minor accident", 300, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hsj.getParty(), ags.getParty());
+
+        transaction(ledgerServices, tx -> {
+            // Appends the same claim number twice in one transaction, will fail.
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, insuranceStateClaimProposal.withAppendedClaims(Arrays.asList(secondClaimProposal, secondClaimProposal)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AddClaim());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAdjudicateClaimsCommandAcceptsAndRejectsManyClaimsInOneTransaction(){
+        Claim secondClaimProposal = new Claim("N2", "Minor accident", 300, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hsj.getParty(), ags.getParty());
+        Claim secondClaimRejected = new Claim("N2", "Minor accident", 300, ClaimStatus.Rejected,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hsj.getParty(), ags.getParty());
+        InsuranceState twoClaimProposals = insuranceState.withAppendedClaims(Arrays.asList(claimProposal, secondClaimProposal));
+
+        transaction(ledgerServices, tx -> {
+            tx.input(InsuranceContract.ID, twoClaimProposals);
+            tx.output(InsuranceContract.ID, twoClaimProposals.withAppendedClaims(Arrays.asList(claimAccepted, secondClaimRejected)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AdjudicateClaims());
+            tx.verifies();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAdjudicateClaimsCommandRequiresEveryClaimToBeAProposal(){
+        transaction(ledgerServices, tx -> {
+            // Adjudicates a claim that was already accepted, will fail.
+            tx.input(InsuranceContract.ID, insuranceStateClaimAccepted);
+            tx.output(InsuranceContract.ID, insuranceStateClaimAccepted.withAppendedClaims(Arrays.asList(claimRejected)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AdjudicateClaims());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAdjudicateClaimsCommandRequiresEveryClaimToBeAdjudicatedOnce(){
+        transaction(ledgerServices, tx -> {
+            // Accepts and rejects the same claim in one transaction, will fail.
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, insuranceStateClaimProposal.withAppendedClaims(Arrays.asList(claimAccepted, claimRejected)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AdjudicateClaims());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAdjudicateClaimsCommandRequiresAcceptedOrRejectedClaims(){
+        transaction(ledgerServices, tx -> {
+            // Appends a proposal under the adjudication command, will fail.
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, insuranceStateClaimProposal.withAppendedClaims(Arrays.asList(claimProposal)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AdjudicateClaims());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAdjudicateClaimsCommandRequiresTheInsurerToBeARequiredSigner(){
+        transaction(ledgerServices, tx -> {
+            tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
+            tx.output(InsuranceContract.ID, insuranceStateClaimProposal.withAppendedClaims(Arrays.asList(claimAccepted)));
+            tx.command(hsj.getPublicKey(), new InsuranceContract.Commands.AdjudicateClaims());
+            tx.fails();
+            return null;
+        });
+    }
+
+    @Test
+    public void insuranceContractAcceptClaimCommandRequiresTheClaimToStillBeAProposal(){
+        transaction(ledgerServices, tx -> {
+            // Accepts a claim which was already accepted, will fail.
+            tx.input(InsuranceContract.ID, insuranceStateClaimAccepted);
+            tx.output(InsuranceContract.ID, insuranceStateClaimAccepted.withAppendedClaims(Arrays.asList(claimAccepted)));
+            tx.command(Arrays.asList(ags.getPublicKey(), hsj.getPublicKey()), new InsuranceContract.Commands.AcceptClaim());
+            tx.fails();
+            return null;
+        });
+    }
+
     @Test
     public void insuranceContractAcceptClaimCommandRequiresOneInputInTheTransaction(){
         transaction(ledgerServices, tx -> {
@@ -650,7 +914,7 @@ public class ContractTests {
 
     @Test
     public void insuranceContractAcceptClaimCommandRequiresTheIssuerToBeARequiredSignerInTheTransaction(){
-        InsuranceState insuranceStateWhereHSJIsIssuer = new InsuranceState(1000, 12, hsj.getParty(), ags.getParty(), workerDetail, Arrays.asList(claimProposal, claimAccepted));
+        InsuranceState insuranceStateWhereHSJIsIssuer = new InsuranceState(1000, 12, hsj.getParty(), ags.getParty(), workerDetail, Arrays.asList(claimProposal, claimAccepted), 1);
 
         transaction(ledgerServices, tx -> {
             tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
@@ -975,7 +1239,7 @@ public class ContractTests {
 
     @Test
     public void insuranceContractRejectClaimCommandRequiresTheIssuerToBeARequiredSignerInTheTransaction(){
-        InsuranceState insuranceStateWhereHSJIsIssuer = new InsuranceState(1000, 12, hsj.getParty(), ags.getParty(), workerDetail, Arrays.asList(claimProposal, claimRejected));
+        InsuranceState insuranceStateWhereHSJIsIssuer = new InsuranceState(1000, 12, hsj.getParty(), ags.getParty(), workerDetail, Arrays.asList(claimProposal, claimRejected), 1);
 
         transaction(ledgerServices, tx -> {
             tx.input(InsuranceContract.ID, insuranceStateClaimProposal);
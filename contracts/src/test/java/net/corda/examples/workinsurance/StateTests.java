@@ -6,6 +6,10 @@ import net.corda.core.identity.Party;
 import net.corda.examples.workinsurance.enums.AccidentType;
 import net.corda.examples.workinsurance.enums.ClaimStatus;
 import net.corda.examples.workinsurance.enums.Module;
+import net.corda.examples.workinsurance.schema.InsuranceSchemaV1;
+import net.corda.examples.workinsurance.schema.InsuranceSchemaV2;
+import net.corda.examples.workinsurance.schema.PersistentInsurance;
+import net.corda.examples.workinsurance.schema.PersistentInsuranceV2;
 import net.corda.examples.workinsurance.states.Claim;
 import net.corda.examples.workinsurance.states.InsuranceDetail;
 import net.corda.examples.workinsurance.states.InsuranceState;
@@ -94,5 +98,97 @@ public class StateTests {
         assertTrue(insuranceState.getParticipants().contains(hospitalSaoJoao));
     }
 
+    @Test
+    public void insuranceStateWithAppendedClaimsCarriesOverThePreviousClaims(){
+        Date accidentDate = new Date(2019,10,12);
+        Claim firstClaim = new Claim("N1", "Minor accident", 200, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hospitalSaoJoao, agsInsurance);
+        Claim secondClaim = new Claim("N2", "Minor accident", 300, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hospitalSaoJoao, agsInsurance);
+
+        InsuranceState issued = new InsuranceState(2000, 12, agsInsurance, hospitalSaoJoao, workerDetail, null);
+        InsuranceState withFirstClaim = issued.withAppendedClaims(Collections.singletonList(firstClaim));
+        InsuranceState withSecondClaim = withFirstClaim.withAppendedClaims(Collections.singletonList(secondClaim));
+
+        assertEquals(0, withFirstClaim.getPreviousClaimCount());
+        assertEquals(1, withSecondClaim.getPreviousClaimCount());
+        assertEquals(2, withSecondClaim.getClaims().size());
+        assertEquals("N1", withSecondClaim.getClaims().get(0).getClaimNumber());
+        assertEquals("N2", withSecondClaim.getClaims().get(1).getClaimNumber());
+    }
+
+    @Test
+    public void insuranceStateOnlyMapsTheAppendedClaimsKeyedByThePolicyIdAndEntryIndex(){
+        Date accidentDate = new Date(2019,10,12);
+        Claim firstClaim = new Claim("N1", "Minor accident", 200, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hospitalSaoJoao, agsInsurance);
+        Claim secondClaim = new Claim("N2", "Minor accident", 300, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hospitalSaoJoao, agsInsurance);
+
+        InsuranceState withFirstClaim = new InsuranceState(2000, 12, agsInsurance, hospitalSaoJoao, workerDetail, null)
+                .withAppendedClaims(Collections.singletonList(firstClaim));
+        InsuranceState withSecondClaim = withFirstClaim.withAppendedClaims(Collections.singletonList(secondClaim));
+
+        PersistentInsurance firstVersion = (PersistentInsurance) withFirstClaim.generateMappedObject(new InsuranceSchemaV1());
+        PersistentInsurance secondVersion = (PersistentInsurance) withSecondClaim.generateMappedObject(new InsuranceSchemaV1());
+
+        assertEquals(1, firstVersion.getClaims().size());
+        assertEquals(1, secondVersion.getClaims().size());
+        assertEquals("N2", secondVersion.getClaims().get(0).getClaimNumber());
+        assertEquals(Integer.valueOf(1), secondVersion.getClaims().get(0).getEntryIndex());
+        assertEquals(withSecondClaim.getLinearId().getId().toString(), secondVersion.getClaims().get(0).getPolicyId());
+        assertNotEquals(firstVersion.getClaims().get(0).getId(), secondVersion.getClaims().get(0).getId());
+
+        // The same state data recorded again, as by a notary change, maps to the keys of the rows of its first
+        // recording, which are then upserted.
+        PersistentInsurance firstVersionAgain = (PersistentInsurance) withFirstClaim.generateMappedObject(new InsuranceSchemaV1());
+        assertEquals(firstVersion.getClaims().get(0).getPolicyId(), firstVersionAgain.getClaims().get(0).getPolicyId());
+        assertEquals(firstVersion.getClaims().get(0).getId(), firstVersionAgain.getClaims().get(0).getId());
+    }
+
+    @Test
+    public void legacyPoliciesWithTheSamePolicyNumberBetweenOtherPartiesHaveOtherLinearIds(){
+        Party otherHospital = new TestIdentity(new CordaX500Name("HSA", "", "GB")).getParty();
+
+        InsuranceState legacyPolicy = new InsuranceState(2000, 12, agsInsurance, hospitalSaoJoao, workerDetail, null, 0);
+        InsuranceState sameLegacyPolicy = new InsuranceState(2000, 12, agsInsurance, hospitalSaoJoao, workerDetail, null, 0);
+        InsuranceState otherLegacyPolicy = new InsuranceState(2000, 12, agsInsurance, otherHospital, workerDetail, null, 0);
+
+        assertEquals(legacyPolicy.getLinearId(), sameLegacyPolicy.getLinearId());
+        assertNotEquals(legacyPolicy.getLinearId(), otherLegacyPolicy.getLinearId());
+        assertEquals(workerDetail.getPolicyNumber(), otherLegacyPolicy.getLinearId().getExternalId());
+    }
+
+    @Test
+    public void insuranceStateMapsToSchemaV2OnlyByDefault(){
+        InsuranceState insuranceState = new InsuranceState(2000, 10, agsInsurance, hospitalSaoJoao, workerDetail, Collections.emptyList());
+        List<Integer> versions = new ArrayList<>();
+        insuranceState.supportedSchemas().forEach(schema -> versions.add(schema.getVersion()));
+        assertEquals(Collections.singletonList(2), versions);
+    }
+
+    @Test
+    public void insuranceStateMapsWorkerDetailsIntoThePolicyRowOfSchemaV2(){
+        Date accidentDate = new Date(2019,10,12);
+        Claim claim = new Claim("N1", "Minor accident", 200, ClaimStatus.Proposal,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, Module.DayHospital,
+                null, hospitalSaoJoao, agsInsurance);
+        InsuranceState insuranceState = new InsuranceState(2000, 12, agsInsurance, hospitalSaoJoao, workerDetail, null)
+                .withAppendedClaims(Collections.singletonList(claim));
+
+        PersistentInsuranceV2 persistentInsurance = (PersistentInsuranceV2) insuranceState.generateMappedObject(new InsuranceSchemaV2());
+
+        assertEquals(workerDetail.getPolicyNumber(), persistentInsurance.getPolicyNumber());
+        assertEquals(workerDetail.getName(), persistentInsurance.getWorkerName());
+        assertEquals(workerDetail.getHealthNumber(), persistentInsurance.getHealthNumber());
+        assertEquals(hospitalSaoJoao, persistentInsurance.getInsuree());
+        assertEquals(1, persistentInsurance.getClaims().size());
+        assertEquals(ClaimStatus.Proposal, persistentInsurance.getClaims().get(0).getClaimStatus());
+        assertEquals(workerDetail.getPolicyNumber(), persistentInsurance.getClaims().get(0).getPolicyNumber());
+    }
 
 }
@@ -0,0 +1,40 @@
+package net.corda.examples.workinsurance.load;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.testing.driver.DriverParameters;
+import net.corda.testing.driver.NodeHandle;
+import net.corda.testing.driver.NodeParameters;
+import org.junit.Test;
+
+import java.util.List;
+
+import static net.corda.testing.driver.Driver.driver;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Throughput and latency of the claim lifecycle flows on nodes started by the driver, run with
+ * ./gradlew workflows:loadTest. The nodes run in their own processes unless load.driverInProcess is true.
+ */
+public class DriverLoadTest {
+
+    @Test
+    public void claimLifecycleOnDriverNodes() {
+        boolean inProcess = Boolean.getBoolean("load.driverInProcess");
+        driver(new DriverParameters().withStartNodesInProcess(inProcess), dsl -> {
+            List<CordaFuture<NodeHandle>> handleFutures = ImmutableList.of(
+                    dsl.startNode(new NodeParameters().withProvidedName(new CordaX500Name("InsuranceAGS", "", "GB"))),
+                    dsl.startNode(new NodeParameters().withProvidedName(new CordaX500Name("HospitalA", "", "US")))
+            );
+            try {
+                LoadTarget target = new DriverTarget(handleFutures.get(0).get(), handleFutures.get(1).get());
+                List<LoadResult> results = LoadReport.sweep(target, "driver", LoadConfig.fromSystemProperties());
+                results.forEach(result -> assertTrue("Flows completed", result.getCompleted() > 0));
+            } catch (Exception e) {
+                throw new RuntimeException("Caught exception during load test: ", e);
+            }
+            return null;
+        });
+    }
+}
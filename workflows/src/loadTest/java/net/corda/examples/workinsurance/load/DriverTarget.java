@@ -0,0 +1,59 @@
+package net.corda.examples.workinsurance.load;
+
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceAcceptanceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceRejectClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.testing.driver.NodeHandle;
+
+/**
+ * An insurer and an insuree started by the Corda driver, as in DriverBasedTest. Flows are started over RPC, so the
+ * measured latencies include the RPC round trips and the nodes' real messaging and persistence.
+ */
+public final class DriverTarget implements LoadTarget {
+
+    private final CordaRPCOps insurer;
+    private final CordaRPCOps insuree;
+    private final Party insureeParty;
+
+    public DriverTarget(NodeHandle insurer, NodeHandle insuree) {
+        this.insurer = insurer.getRpc();
+        this.insuree = insuree.getRpc();
+        this.insureeParty = insuree.getNodeInfo().getLegalIdentities().get(0);
+    }
+
+    @Override
+    public CordaFuture<SignedTransaction> issue(InsuranceInfo insuranceInfo) {
+        return insurer.startFlowDynamic(IssueInsuranceFlow.IssueInsuranceInitiator.class, insuranceInfo, insureeParty)
+                .getReturnValue();
+    }
+
+    @Override
+    public CordaFuture<SignedTransaction> claim(ClaimInfo claimInfo, String policyNumber) {
+        return insuree.startFlowDynamic(InsuranceClaimFlow.InsuranceClaimInitiator.class, claimInfo, policyNumber)
+                .getReturnValue();
+    }
+
+    @Override
+    public CordaFuture<SignedTransaction> accept(String policyNumber, String claimNumber) {
+        return insurer.startFlowDynamic(InsuranceAcceptanceClaimFlow.InsuranceAcceptanceClaimInitiator.class,
+                INSURANCE_DETAIL, policyNumber, claimNumber, insureeParty).getReturnValue();
+    }
+
+    @Override
+    public CordaFuture<SignedTransaction> reject(String policyNumber, String claimNumber) {
+        return insurer.startFlowDynamic(InsuranceRejectClaimFlow.InsuranceRejectClaimInitiator.class,
+                policyNumber, claimNumber, insureeParty).getReturnValue();
+    }
+
+    @Override
+    public void close() {
+        // The driver stops the nodes when its block ends.
+    }
+}
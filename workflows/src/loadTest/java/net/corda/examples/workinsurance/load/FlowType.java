@@ -0,0 +1,11 @@
+package net.corda.examples.workinsurance.load;
+
+/**
+ * The flows of the claim lifecycle driven by the load harness.
+ */
+public enum FlowType {
+    ISSUE,
+    CLAIM,
+    ACCEPT,
+    REJECT
+}
@@ -0,0 +1,86 @@
+package net.corda.examples.workinsurance.load;
+
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Parameters of a load run, read from system properties so they can be set from the command line:
+ *
+ * load.mix          weights of the flow types, e.g. issue=1,claim=4,accept=2,reject=1
+ * load.concurrency  numbers of flows kept in flight, each measured in turn, e.g. 1,4,16
+ * load.policies     numbers of policies the flows are spread over, each measured in turn, e.g. 16,256
+ * load.flows        flows measured per step of the sweep
+ * load.warmupFlows  flows run before each step of the sweep, not measured
+ */
+public final class LoadConfig {
+
+    private final Map<FlowType, Integer> mix;
+    private final List<Integer> concurrencyLevels;
+    private final List<Integer> policyCounts;
+    private final int flows;
+    private final int warmupFlows;
+
+    private LoadConfig(Map<FlowType, Integer> mix, List<Integer> concurrencyLevels, List<Integer> policyCounts,
+                       int flows, int warmupFlows) {
+        this.mix = mix;
+        this.concurrencyLevels = concurrencyLevels;
+        this.policyCounts = policyCounts;
+        this.flows = flows;
+        this.warmupFlows = warmupFlows;
+    }
+
+    public static LoadConfig fromSystemProperties() {
+        return new LoadConfig(
+                parseMix(System.getProperty("load.mix", "issue=1,claim=4,accept=2,reject=1")),
+                parseInts(System.getProperty("load.concurrency", "1,4,16")),
+                parseInts(System.getProperty("load.policies", "16,256")),
+                Integer.parseInt(System.getProperty("load.flows", "400")),
+                Integer.parseInt(System.getProperty("load.warmupFlows", "50")));
+    }
+
+    static Map<FlowType, Integer> parseMix(String mix) {
+        Map<FlowType, Integer> weights = new EnumMap<>(FlowType.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Expected flow=weight in load.mix, got " + entry);
+            }
+            weights.put(FlowType.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        if (weights.getOrDefault(FlowType.CLAIM, 0) == 0 && weights.getOrDefault(FlowType.ISSUE, 0) == 0) {
+            throw new IllegalArgumentException("load.mix must issue policies or file claims");
+        }
+        return weights;
+    }
+
+    private static List<Integer> parseInts(String values) {
+        return Arrays.stream(values.split(",")).map(String::trim).map(Integer::parseInt).collect(toList());
+    }
+
+    public Map<FlowType, Integer> getMix() {
+        return mix;
+    }
+
+    public List<Integer> getConcurrencyLevels() {
+        return concurrencyLevels;
+    }
+
+    public List<Integer> getPolicyCounts() {
+        return policyCounts;
+    }
+
+    public int getFlows() {
+        return flows;
+    }
+
+    public int getWarmupFlows() {
+        return warmupFlows;
+    }
+
+    @Override
+    public String toString() {
+        return "mix=" + mix + " concurrency=" + concurrencyLevels + " policies=" + policyCounts + " flows=" + flows
+                + " warmupFlows=" + warmupFlows;
+    }
+}
@@ -0,0 +1,43 @@
+package net.corda.examples.workinsurance.load;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a LoadConfig sweep, every policy count at every concurrency level, and writes the results to standard out and
+ * to build/reports/loadTest/{target}.txt.
+ */
+public final class LoadReport {
+
+    private LoadReport() {}
+
+    public static List<LoadResult> sweep(LoadTarget target, String targetName, LoadConfig config) throws Exception {
+        LoadRunner runner = new LoadRunner(target, targetName, config.getMix());
+        List<LoadResult> results = new ArrayList<>();
+        StringBuilder report = new StringBuilder()
+                .append(config).append(System.lineSeparator())
+                .append(LoadResult.header()).append(System.lineSeparator());
+        System.out.print(report);
+        for (int policies : config.getPolicyCounts()) {
+            for (int concurrency : config.getConcurrencyLevels()) {
+                LoadResult result = runner.run(policies, concurrency, config.getWarmupFlows(), config.getFlows());
+                results.add(result);
+                System.out.print(result.format());
+                report.append(result.format());
+            }
+        }
+        write(targetName, report.toString());
+        return results;
+    }
+
+    private static void write(String targetName, String report) throws IOException {
+        Path directory = Paths.get(System.getProperty("load.reportDir", "build/reports/loadTest"));
+        Files.createDirectories(directory);
+        Files.write(directory.resolve(targetName + ".txt"), report.getBytes(StandardCharsets.UTF_8));
+    }
+}
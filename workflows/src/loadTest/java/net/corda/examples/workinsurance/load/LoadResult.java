@@ -0,0 +1,76 @@
+package net.corda.examples.workinsurance.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latencies and throughput of one step of a load sweep, per flow type.
+ */
+public final class LoadResult {
+
+    private final String target;
+    private final int policies;
+    private final int concurrency;
+    private final long elapsedNanos;
+    private final Map<FlowType, Histogram> latencies;
+    private final Map<FlowType, Long> failures;
+
+    LoadResult(String target, int policies, int concurrency, long elapsedNanos, Map<FlowType, Histogram> latencies,
+               Map<FlowType, Long> failures) {
+        this.target = target;
+        this.policies = policies;
+        this.concurrency = concurrency;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = new EnumMap<>(latencies);
+        this.failures = new EnumMap<>(failures);
+    }
+
+    public long getCompleted() {
+        return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    public long getFailures() {
+        return failures.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double getFlowsPerSecond() {
+        return getCompleted() / (elapsedNanos / 1e9);
+    }
+
+    public static String header() {
+        return String.format("%-8s %8s %11s %-6s %7s %6s %9s %9s %9s %9s %9s",
+                "target", "policies", "concurrency", "flow", "count", "fails", "flows/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+    }
+
+    /**
+     * One line per flow type which ran, then one line for every flow together.
+     */
+    public String format() {
+        StringBuilder lines = new StringBuilder();
+        Histogram all = new Histogram(3);
+        double seconds = elapsedNanos / 1e9;
+        for (Map.Entry<FlowType, Histogram> entry : latencies.entrySet()) {
+            if (entry.getValue().getTotalCount() == 0 && !failures.containsKey(entry.getKey())) {
+                continue;
+            }
+            all.add(entry.getValue());
+            lines.append(line(entry.getKey().toString(), entry.getValue(), failures.getOrDefault(entry.getKey(), 0L), seconds));
+        }
+        lines.append(line("ALL", all, getFailures(), seconds));
+        return lines.toString();
+    }
+
+    private String line(String flow, Histogram histogram, long fails, double seconds) {
+        return String.format("%-8s %8d %11d %-6s %7d %6d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                target, policies, concurrency, flow, histogram.getTotalCount(), fails,
+                histogram.getTotalCount() / seconds, millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+                histogram.getMaxValue() / (double) TimeUnit.MILLISECONDS.toMicros(1));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / (double) TimeUnit.MILLISECONDS.toMicros(1);
+    }
+}
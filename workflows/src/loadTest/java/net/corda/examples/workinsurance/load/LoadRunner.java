@@ -0,0 +1,156 @@
+package net.corda.examples.workinsurance.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives a mix of claim lifecycle flows against a LoadTarget with a fixed number of flows in flight.
+ *
+ * Each worker thread keeps one flow in flight: it takes an idle policy, picks a flow type by weight among those the
+ * policy allows (issue if it is not issued yet, accept or reject if it has a proposed claim, claim otherwise), and
+ * waits for the flow to end. A policy is only used by one flow at a time, so the flows never race on a policy and with
+ * fewer policies than workers the workers wait for one instead.
+ */
+public final class LoadRunner {
+
+    private static final AtomicInteger runs = new AtomicInteger();
+
+    private final LoadTarget target;
+    private final String targetName;
+    private final Map<FlowType, Integer> mix;
+
+    public LoadRunner(LoadTarget target, String targetName, Map<FlowType, Integer> mix) {
+        this.target = target;
+        this.targetName = targetName;
+        this.mix = mix;
+    }
+
+    /**
+     * Runs warmupFlows flows, then measures flows flows, spread over a fresh set of policies.
+     */
+    public LoadResult run(int policies, int concurrency, int warmupFlows, int flows) throws InterruptedException {
+        String prefix = "load" + runs.incrementAndGet() + "-";
+        BlockingQueue<PolicyProgress> idle = new LinkedBlockingQueue<>();
+        for (int index = 0; index < policies; index++) {
+            idle.add(new PolicyProgress(prefix + index));
+        }
+        // Without issue flows in the mix the policies are issued up front.
+        if (mix.getOrDefault(FlowType.ISSUE, 0) == 0) {
+            for (PolicyProgress policy : idle) {
+                execute(FlowType.ISSUE, policy);
+            }
+        }
+
+        runPhase(idle, concurrency, warmupFlows, null, null);
+        // Every flow type gets a histogram, as flows out of the mix still run when the mix allows no flow on a policy.
+        Map<FlowType, Histogram> latencies = new EnumMap<>(FlowType.class);
+        for (FlowType type : FlowType.values()) {
+            latencies.put(type, new Histogram(3));
+        }
+        Map<FlowType, Long> failures = new ConcurrentHashMap<>();
+        long started = System.nanoTime();
+        runPhase(idle, concurrency, flows, latencies, failures);
+        return new LoadResult(targetName, policies, concurrency, System.nanoTime() - started, latencies, failures);
+    }
+
+    private void runPhase(BlockingQueue<PolicyProgress> idle, int concurrency, int flows,
+                          Map<FlowType, Histogram> latencies, Map<FlowType, Long> failures) throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(flows);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            workers.execute(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    PolicyProgress policy;
+                    try {
+                        policy = idle.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    FlowType type = pick(policy);
+                    long start = System.nanoTime();
+                    try {
+                        execute(type, policy);
+                        if (latencies != null) {
+                            Histogram histogram = latencies.get(type);
+                            synchronized (histogram) {
+                                histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                            }
+                        }
+                    } catch (Exception e) {
+                        if (failures != null) {
+                            failures.merge(type, 1L, Long::sum);
+                        }
+                    } finally {
+                        idle.add(policy);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private FlowType pick(PolicyProgress policy) {
+        List<FlowType> allowed = new ArrayList<>();
+        if (!policy.issued) {
+            allowed.add(FlowType.ISSUE);
+        } else {
+            allowed.add(FlowType.CLAIM);
+            if (!policy.proposedClaims.isEmpty()) {
+                allowed.add(FlowType.ACCEPT);
+                allowed.add(FlowType.REJECT);
+            }
+        }
+        int total = allowed.stream().mapToInt(type -> mix.getOrDefault(type, 0)).sum();
+        if (total == 0) {
+            // The mix has no flow this policy allows, e.g. only adjudications: file a claim to adjudicate.
+            return policy.issued ? FlowType.CLAIM : FlowType.ISSUE;
+        }
+        int draw = ThreadLocalRandom.current().nextInt(total);
+        for (FlowType type : allowed) {
+            draw -= mix.getOrDefault(type, 0);
+            if (draw < 0) {
+                return type;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private void execute(FlowType type, PolicyProgress policy) throws ExecutionException, InterruptedException {
+        switch (type) {
+            case ISSUE:
+                target.issue(LoadTarget.insuranceInfo(policy.policyNumber)).get();
+                policy.issued = true;
+                break;
+            case CLAIM:
+                String claimNumber = policy.policyNumber + "-claim" + policy.claims++;
+                target.claim(LoadTarget.claimInfo(claimNumber), policy.policyNumber).get();
+                policy.proposedClaims.add(claimNumber);
+                break;
+            case ACCEPT:
+                target.accept(policy.policyNumber, policy.proposedClaims.peek()).get();
+                policy.proposedClaims.poll();
+                break;
+            case REJECT:
+                target.reject(policy.policyNumber, policy.proposedClaims.peek()).get();
+                policy.proposedClaims.poll();
+                break;
+        }
+    }
+
+    // Where a policy is in its lifecycle. Only the worker holding the policy reads or changes it.
+    private static final class PolicyProgress {
+        private final String policyNumber;
+        private boolean issued;
+        private int claims;
+        private final Deque<String> proposedClaims = new ArrayDeque<>();
+
+        private PolicyProgress(String policyNumber) {
+            this.policyNumber = policyNumber;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package net.corda.examples.workinsurance.load;
+
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+
+import java.util.Date;
+
+/**
+ * The nodes the load harness starts its flows on: an insurer, which issues policies and adjudicates claims, and an
+ * insuree, which files the claims.
+ */
+public interface LoadTarget extends AutoCloseable {
+
+    Date ACCIDENT_DATE = new Date(119, 9, 12);
+    InsuranceDetailInfo INSURANCE_DETAIL = new InsuranceDetailInfo("CompNr", "PolNr", "field");
+
+    CordaFuture<SignedTransaction> issue(InsuranceInfo insuranceInfo);
+
+    CordaFuture<SignedTransaction> claim(ClaimInfo claimInfo, String policyNumber);
+
+    CordaFuture<SignedTransaction> accept(String policyNumber, String claimNumber);
+
+    CordaFuture<SignedTransaction> reject(String policyNumber, String claimNumber);
+
+    static InsuranceInfo insuranceInfo(String policyNumber) {
+        return new InsuranceInfo(20000, 20, new WorkerInfo(policyNumber, "Worker " + policyNumber, "123456", "CSW"));
+    }
+
+    static ClaimInfo claimInfo(String claimNumber) {
+        return new ClaimInfo(claimNumber, "Minor accident", 200, "internalPolicyNr", ACCIDENT_DATE, ACCIDENT_DATE,
+                AccidentType.WorkAccident, "DayHospital");
+    }
+}
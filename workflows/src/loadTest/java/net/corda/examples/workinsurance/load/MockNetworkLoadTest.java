@@ -0,0 +1,21 @@
+package net.corda.examples.workinsurance.load;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Throughput and latency of the claim lifecycle flows on a MockNetwork, run with ./gradlew workflows:loadTest.
+ */
+public class MockNetworkLoadTest {
+
+    @Test
+    public void claimLifecycleOnMockNetwork() throws Exception {
+        try (MockNetworkTarget target = new MockNetworkTarget()) {
+            List<LoadResult> results = LoadReport.sweep(target, "mock", LoadConfig.fromSystemProperties());
+            results.forEach(result -> assertTrue("Flows completed", result.getCompleted() > 0));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.corda.examples.workinsurance.load;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceAcceptanceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceRejectClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+
+/**
+ * An insurer and an insuree on a MockNetwork in thread per node mode, so flows run concurrently on their own threads
+ * and messages are delivered without pumping the network.
+ */
+public final class MockNetworkTarget implements LoadTarget {
+
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")))
+            .withThreadPerNode(true)
+            .withNetworkSendManuallyPumped(false));
+    private final StartedMockNode insurer = network.createNode();
+    private final StartedMockNode insuree = network.createNode();
+    private final Party insureeParty = insuree.getInfo().getLegalIdentities().get(0);
+
+    public MockNetworkTarget() {
+        network.startNodes();
+    }
+
+    @Override
+    public CordaFuture<SignedTransaction> issue(InsuranceInfo insuranceInfo) {
+        return insurer.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, insureeParty));
+    }
+
+    @Override
+    public CordaFuture<SignedTransaction> claim(ClaimInfo claimInfo, String policyNumber) {
+        return insuree.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, policyNumber));
+    }
+
+    @Override
+    public CordaFuture<SignedTransaction> accept(String policyNumber, String claimNumber) {
+        return insurer.startFlow(new InsuranceAcceptanceClaimFlow.InsuranceAcceptanceClaimInitiator(INSURANCE_DETAIL,
+                policyNumber, claimNumber, insureeParty));
+    }
+
+    @Override
+    public CordaFuture<SignedTransaction> reject(String policyNumber, String claimNumber) {
+        return insurer.startFlow(new InsuranceRejectClaimFlow.InsuranceRejectClaimInitiator(policyNumber, claimNumber,
+                insureeParty));
+    }
+
+    @Override
+    public void close() {
+        network.stopNodes();
+    }
+}
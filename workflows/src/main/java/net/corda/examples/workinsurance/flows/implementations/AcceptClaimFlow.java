@@ -0,0 +1,135 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.examples.workinsurance.contracts.ClaimContract;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.interfaces.IInsuranceClaimState;
+import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
+import net.corda.examples.workinsurance.flows.services.ClaimStateLookup;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.ClaimState;
+import net.corda.examples.workinsurance.states.InsuranceDetail;
+
+import static java.util.Collections.singletonList;
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * Accepts a claim held in its own ClaimState. Only the claim state is consumed, the insurance policy is untouched.
+ */
+public class AcceptClaimFlow {
+
+    private AcceptClaimFlow(){}
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class AcceptClaimInitiator extends FlowLogic<SignedTransaction> implements IInsuranceClaimState {
+
+        private final InsuranceDetailInfo insuranceDetailInfo;
+        private final String policyNumber;
+        private final String claimNumber;
+        private final Party insuree;
+
+        public AcceptClaimInitiator(InsuranceDetailInfo insuranceDetailInfo, String policyNumber, String claimNumber, Party insuree) {
+            this.insuranceDetailInfo = insuranceDetailInfo;
+            this.policyNumber = policyNumber;
+            this.claimNumber = claimNumber;
+            this.insuree = insuree;
+        }
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+
+            StateAndRef<ClaimState> inputStateAndRef = ClaimStateLookup.findClaim(getServiceHub(), policyNumber, claimNumber, insuree);
+            ClaimState input = inputStateAndRef.getState().getData();
+            Claim inputClaim = input.getClaim();
+
+            if(!inputClaim.getClaimStatus().equals(this.getPreviousState())) {
+                throw new IllegalArgumentException("Proposed Claim Not In Proposal State");
+            }
+
+            InsuranceDetail insuranceDetail = new InsuranceDetail(
+                    insuranceDetailInfo.getInsuranceCompanyNumber(),
+                    insuranceDetailInfo.getInsuranceCompanyPolicyNumber(),
+                    insuranceDetailInfo.getField()
+            );
+
+            Party proposer = getOurIdentity();
+
+            Claim claim = new Claim(claimNumber, inputClaim.getClaimDescription(),
+                    inputClaim.getClaimAmount(), this.getNextState(), inputClaim.getInternalPolicyNo(),
+                    inputClaim.getAccidentDate(), inputClaim.getEpisodeDate(), inputClaim.getAccidentType(),
+                    inputClaim.getModule(), insuranceDetail, proposer, insuree);
+
+            //Create the output state
+            ClaimState output = input.withClaim(claim);
+
+            // Build the transaction.
+            TransactionBuilder transactionBuilder = new TransactionBuilder(inputStateAndRef.getState().getNotary())
+                    .addInputState(inputStateAndRef)
+                    .addOutputState(output, ClaimContract.ID)
+                    .addCommand(new ClaimContract.Commands.AcceptClaim(), ImmutableList.of(getOurIdentity().getOwningKey(), input.getInsuree().getOwningKey()));
+
+            // Verify the transaction
+            transactionBuilder.verify(getServiceHub());
+
+            FlowSession session = initiateFlow(insuree);
+
+            // We sign the transaction with our private key, making it immutable.
+            SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
+
+            // The counter party signs the transaction
+            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session)));
+
+            // We get the transaction notarised and recorded automatically by the platform.
+            return subFlow(new FinalityFlow(fullySignedTransaction, singletonList(session)));
+        }
+
+        @Override
+        public ClaimStatus getNextState() {
+            return ClaimStatus.Accepted;
+        }
+
+        @Override
+        public ClaimStatus getPreviousState() {
+            return ClaimStatus.Proposal;
+        }
+    }
+
+    @InitiatedBy(AcceptClaimInitiator.class)
+    public static class AcceptClaimResponder extends FlowLogic<Void> {
+
+        private FlowSession counterpartySession;
+
+        public AcceptClaimResponder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Override
+        @Suspendable
+        public Void call() throws FlowException {
+            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                @Suspendable
+                @Override
+                protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                    requireThat(require -> {
+                        ContractState output = stx.getTx().getOutputs().get(0).getData();
+                        require.using("This must be a ClaimState transaction.", output instanceof ClaimState);
+                        ClaimState claimState = (ClaimState) output;
+                        require.using("Transaction must have valid claim", claimState.getClaim().getClaimStatus().equals(ClaimStatus.Accepted));
+                        return null;
+                    });
+                }
+            });
+            subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            return null;
+        }
+    }
+}
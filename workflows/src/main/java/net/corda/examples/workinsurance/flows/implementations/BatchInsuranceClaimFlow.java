@@ -0,0 +1,190 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+import net.corda.examples.workinsurance.flows.interfaces.IInsuranceClaimState;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.services.ConflictRetry;
+import net.corda.examples.workinsurance.flows.services.FlowTimingService;
+import net.corda.examples.workinsurance.flows.services.InsurancePolicyLookup;
+import net.corda.examples.workinsurance.flows.services.RetryableFinality;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Collections.singletonList;
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * Files many claims against one policy in a single AddClaim transaction, so the vault lookup, the signature
+ * collection, the notarisation and the finality are done once for the whole batch instead of once per claim.
+ */
+public class BatchInsuranceClaimFlow {
+
+    private BatchInsuranceClaimFlow(){}
+
+    // Version 2 tells the counterparty whether the transaction was notarised, see RetryableFinality.
+    @InitiatingFlow(version = RetryableFinality.RETRYING_FLOW_VERSION)
+    @StartableByRPC
+    @StartableByService
+    public static class BatchInsuranceClaimInitiator extends FlowLogic<SignedTransaction> implements IInsuranceClaimState {
+
+        private final ProgressTracker progressTracker = new ProgressTracker();
+
+        // The session with the counterparty, opened by the first attempt which proposes a transaction.
+        private FlowSession session;
+
+        private final List<ClaimInfo> claimInfos;
+        private final String policyNumber;
+        private final UniqueIdentifier policyId;
+
+        public BatchInsuranceClaimInitiator(List<ClaimInfo> claimInfos, String policyNumber) {
+            this.claimInfos = claimInfos;
+            this.policyNumber = policyNumber;
+            this.policyId = null;
+        }
+
+        public BatchInsuranceClaimInitiator(List<ClaimInfo> claimInfos, UniqueIdentifier policyId) {
+            this.claimInfos = claimInfos;
+            this.policyNumber = null;
+            this.policyId = policyId;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        @Override
+        @Suspendable
+        public SignedTransaction call() throws FlowException {
+            if(claimInfos == null || claimInfos.isEmpty()) {
+                throw new FlowException("A batch must have at least one claim");
+            }
+            Set<String> claimNumbers = new HashSet<>();
+            for(ClaimInfo claimInfo : claimInfos) {
+                if(!claimNumbers.add(claimInfo.getClaimNumber())) {
+                    throw new FlowException("Claim number " + claimInfo.getClaimNumber() + " is repeated in the batch");
+                }
+            }
+
+            ConflictRetry retry = getServiceHub().cordaService(FlowTimingService.class).retry(this);
+            while (true) {
+                try {
+                    return attempt();
+                } catch (FlowException e) {
+                    // The policy was spent or reserved concurrently: back off, then resolve its latest version again.
+                    if (!retry.shouldRetry(e)) {
+                        throw e;
+                    }
+                    sleep(retry.nextBackoff());
+                }
+            }
+        }
+
+        @Suspendable
+        private SignedTransaction attempt() throws FlowException {
+            Party insureeOurIdentity = getOurIdentity();
+
+            // Query the vault for the unconsumed Insurance state of the policy, once for the whole batch, and reserve it.
+            StateAndRef<InsuranceState> inputStateAndRef = policyId != null
+                    ? InsurancePolicyLookup.reservePolicy(getServiceHub(), getRunId().getUuid(), policyId)
+                    : InsurancePolicyLookup.reservePolicy(getServiceHub(), getRunId().getUuid(), policyNumber, insureeOurIdentity);
+            InsuranceState input = inputStateAndRef.getState().getData();
+
+            List<Claim> claims = new ArrayList<>(claimInfos.size());
+            for(ClaimInfo claimInfo : claimInfos) {
+                claims.add(new Claim(claimInfo.getClaimNumber(), claimInfo.getClaimDescription(),
+                        claimInfo.getClaimAmount(), this.getNextState(), claimInfo.getInternalPolicyNo(), claimInfo.getAccidentDate(),
+                        claimInfo.getEpisodeDate(), AccidentType.WorkAccident, Module.valueOf(claimInfo.getModule()), null,
+                        insureeOurIdentity, input.getInsurer()));
+            }
+
+            //Create the output state, appending the whole batch to the claims of the input state
+            InsuranceState output = input.withAppendedClaims(claims);
+
+            // Build the transaction.
+            TransactionBuilder transactionBuilder = new TransactionBuilder(inputStateAndRef.getState().getNotary())
+                    .addInputState(inputStateAndRef)
+                    .addOutputState(output, InsuranceContract.ID)
+                    .addCommand(new InsuranceContract.Commands.AddClaim(), ImmutableList.of(insureeOurIdentity.getOwningKey(), input.getInsurer().getOwningKey()));
+
+            // Verify the transaction
+            transactionBuilder.verify(getServiceHub());
+
+            // One session serves every attempt: the counterparty signs the transaction of each until one is notarised.
+            if (session == null) {
+                session = initiateFlow(input.getInsurer());
+            }
+
+            // Sign the transaction
+            SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
+
+            // The counter party signs the transaction
+            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session)));
+
+            // We get the transaction notarised, telling the counterparty whether to record it or to sign the next attempt.
+            return RetryableFinality.notariseAndRecord(this, fullySignedTransaction, session);
+        }
+
+        @Override
+        public ClaimStatus getNextState() {
+            return ClaimStatus.Proposal;
+        }
+
+        @Override
+        public ClaimStatus getPreviousState() {
+            return ClaimStatus.None;
+        }
+    }
+
+    @InitiatedBy(BatchInsuranceClaimInitiator.class)
+    public static class BatchInsuranceClaimResponder extends FlowLogic<Void> {
+
+        private FlowSession counterpartySession;
+
+        public BatchInsuranceClaimResponder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Override
+        @Suspendable
+        public Void call() throws FlowException {
+            SignedTransaction signedTransaction;
+            do {
+                signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                    @Suspendable
+                    @Override
+                    protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                        requireThat(require -> {
+                            ContractState output = stx.getTx().getOutputs().get(0).getData();
+                            require.using("This must be an InsuranceState transaction.", output instanceof InsuranceState);
+                            InsuranceState insuranceState = (InsuranceState) output;
+                            require.using("We must be the insurer of the policy", insuranceState.getInsurer().equals(getOurIdentity()));
+                            require.using("Transaction must append claims", insuranceState.getClaims().size() > insuranceState.getPreviousClaimCount());
+                            return null;
+                        });
+                    }
+                });
+            } while (!RetryableFinality.receiveNotarised(counterpartySession));
+            subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            return null;
+        }
+    }
+}
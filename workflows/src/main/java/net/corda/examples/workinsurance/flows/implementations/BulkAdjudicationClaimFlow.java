@@ -0,0 +1,200 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.models.ClaimDecisionInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
+import net.corda.examples.workinsurance.flows.services.ConflictRetry;
+import net.corda.examples.workinsurance.flows.services.FlowTimingService;
+import net.corda.examples.workinsurance.flows.services.InsurancePolicyLookup;
+import net.corda.examples.workinsurance.flows.services.RetryableFinality;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceDetail;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * Accepts and rejects many claims of one policy in a single AdjudicateClaims transaction, so an adjudication run
+ * consumes and recreates the policy, and is notarised, once instead of once per claim.
+ */
+public class BulkAdjudicationClaimFlow {
+
+    private BulkAdjudicationClaimFlow(){}
+
+    // Version 2 tells the counterparty whether the transaction was notarised, see RetryableFinality.
+    @InitiatingFlow(version = RetryableFinality.RETRYING_FLOW_VERSION)
+    @StartableByRPC
+    @StartableByService
+    public static class BulkAdjudicationClaimInitiator extends FlowLogic<SignedTransaction> {
+
+        private final List<ClaimDecisionInfo> decisions;
+        private final String policyNumber;
+        private final UniqueIdentifier policyId;
+        private final Party insuree;
+
+        // The session with the counterparty, opened by the first attempt which proposes a transaction.
+        private FlowSession session;
+
+        public BulkAdjudicationClaimInitiator(List<ClaimDecisionInfo> decisions, String policyNumber, Party insuree) {
+            this.decisions = decisions;
+            this.policyNumber = policyNumber;
+            this.policyId = null;
+            this.insuree = insuree;
+        }
+
+        public BulkAdjudicationClaimInitiator(List<ClaimDecisionInfo> decisions, UniqueIdentifier policyId) {
+            this.decisions = decisions;
+            this.policyNumber = null;
+            this.policyId = policyId;
+            this.insuree = null;
+        }
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            if(decisions == null || decisions.isEmpty()) {
+                throw new FlowException("An adjudication run must have at least one decision");
+            }
+
+            ConflictRetry retry = getServiceHub().cordaService(FlowTimingService.class).retry(this);
+            while (true) {
+                try {
+                    return attempt();
+                } catch (FlowException e) {
+                    // The policy was spent or reserved concurrently: back off, then resolve its latest version again.
+                    if (!retry.shouldRetry(e)) {
+                        throw e;
+                    }
+                    sleep(retry.nextBackoff());
+                }
+            }
+        }
+
+        @Suspendable
+        private SignedTransaction attempt() throws FlowException {
+            // Query the vault for the unconsumed Insurance state of the policy, once for the whole run, and reserve it.
+            StateAndRef<InsuranceState> inputStateAndRef = policyId != null
+                    ? InsurancePolicyLookup.reservePolicy(getServiceHub(), getRunId().getUuid(), policyId)
+                    : InsurancePolicyLookup.reservePolicy(getServiceHub(), getRunId().getUuid(), policyNumber, insuree);
+            InsuranceState input = inputStateAndRef.getState().getData();
+
+            // Index the latest claim of every claim number, so each decision is matched in constant time.
+            Map<String, Claim> latestClaims = new HashMap<>();
+            if(input.getClaims() != null) {
+                for(Claim claim : input.getClaims()) {
+                    latestClaims.put(claim.getClaimNumber(), claim);
+                }
+            }
+
+            Party proposer = getOurIdentity();
+            List<Claim> claims = new ArrayList<>(decisions.size());
+            for(ClaimDecisionInfo decision : decisions) {
+                Claim inputClaim = latestClaims.remove(decision.getClaimNumber());
+                if(inputClaim == null || !inputClaim.getClaimStatus().equals(ClaimStatus.Proposal)) {
+                    throw new FlowException("Claim " + decision.getClaimNumber() + " is not in Proposal state or is adjudicated twice");
+                }
+                claims.add(new Claim(inputClaim.getClaimNumber(), inputClaim.getClaimDescription(),
+                        inputClaim.getClaimAmount(), decision.getDecision(), inputClaim.getInternalPolicyNo(),
+                        inputClaim.getAccidentDate(), inputClaim.getEpisodeDate(), inputClaim.getAccidentType(),
+                        inputClaim.getModule(), insuranceDetailOf(decision), proposer, input.getInsuree()));
+            }
+
+            //Create the output state, appending the adjudicated claims to the claims of the input state
+            InsuranceState output = input.withAppendedClaims(claims);
+
+            // Build the transaction.
+            TransactionBuilder transactionBuilder = new TransactionBuilder(inputStateAndRef.getState().getNotary())
+                    .addInputState(inputStateAndRef)
+                    .addOutputState(output, InsuranceContract.ID)
+                    .addCommand(new InsuranceContract.Commands.AdjudicateClaims(), ImmutableList.of(getOurIdentity().getOwningKey(), input.getInsuree().getOwningKey()));
+
+            // Verify the transaction
+            transactionBuilder.verify(getServiceHub());
+
+            // One session serves every attempt: the counterparty signs the transaction of each until one is notarised.
+            if (session == null) {
+                session = initiateFlow(input.getInsuree());
+            }
+
+            // We sign the transaction with our private key, making it immutable.
+            SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
+
+            // The counter party signs the transaction
+            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session)));
+
+            // We get the transaction notarised, telling the counterparty whether to record it or to sign the next attempt.
+            return RetryableFinality.notariseAndRecord(this, fullySignedTransaction, session);
+        }
+
+        private static InsuranceDetail insuranceDetailOf(ClaimDecisionInfo decision) throws FlowException {
+            switch (decision.getDecision()) {
+                case Accepted:
+                    InsuranceDetailInfo insuranceDetailInfo = decision.getInsuranceDetailInfo();
+                    if(insuranceDetailInfo == null) {
+                        throw new FlowException("Accepted claim " + decision.getClaimNumber() + " must have insurance detail information");
+                    }
+                    return new InsuranceDetail(
+                            insuranceDetailInfo.getInsuranceCompanyNumber(),
+                            insuranceDetailInfo.getInsuranceCompanyPolicyNumber(),
+                            insuranceDetailInfo.getField()
+                    );
+                case Rejected:
+                    return null;
+                default:
+                    throw new FlowException("Claim " + decision.getClaimNumber() + " must be either Accepted or Rejected");
+            }
+        }
+    }
+
+    @InitiatedBy(BulkAdjudicationClaimInitiator.class)
+    public static class BulkAdjudicationClaimResponder extends FlowLogic<Void> {
+
+        private FlowSession counterpartySession;
+
+        public BulkAdjudicationClaimResponder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Override
+        @Suspendable
+        public Void call() throws FlowException {
+            SignedTransaction signedTransaction;
+            do {
+                signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                    @Suspendable
+                    @Override
+                    protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                        requireThat(require -> {
+                            ContractState output = stx.getTx().getOutputs().get(0).getData();
+                            require.using("This must be an InsuranceState transaction.", output instanceof InsuranceState);
+                            InsuranceState insuranceState = (InsuranceState) output;
+                            require.using("We must be the insuree of the policy", insuranceState.getInsuree().equals(getOurIdentity()));
+                            require.using("Transaction must have valid claims", insuranceState.getClaims()
+                                    .subList(insuranceState.getPreviousClaimCount(), insuranceState.getClaims().size()).stream()
+                                    .allMatch(claim -> claim.getClaimStatus().equals(ClaimStatus.Accepted) || claim.getClaimStatus().equals(ClaimStatus.Rejected)));
+                            return null;
+                        });
+                    }
+                });
+            } while (!RetryableFinality.receiveNotarised(counterpartySession));
+            subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            return null;
+        }
+    }
+}
@@ -4,15 +4,22 @@ import co.paralleluniverse.fibers.Suspendable;
 import com.google.common.collect.ImmutableList;
 import net.corda.core.contracts.ContractState;
 import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
 import net.corda.core.flows.*;
 import net.corda.core.identity.Party;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
 import net.corda.core.utilities.ProgressTracker;
 import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.flows.services.ConflictRetry;
+import net.corda.examples.workinsurance.flows.services.FlowPhase;
+import net.corda.examples.workinsurance.flows.services.FlowTimingService;
+import net.corda.examples.workinsurance.flows.services.PhaseTimer;
 import net.corda.examples.workinsurance.enums.AccidentType;
 import net.corda.examples.workinsurance.enums.Module;
 import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.services.InsurancePolicyLookup;
+import net.corda.examples.workinsurance.flows.services.RetryableFinality;
 import net.corda.examples.workinsurance.flows.interfaces.IInsuranceClaimState;
 import net.corda.examples.workinsurance.states.Claim;
 import net.corda.examples.workinsurance.enums.ClaimStatus;
@@ -20,9 +27,6 @@ import net.corda.examples.workinsurance.states.InsuranceState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import static java.util.Collections.singletonList;
 import static net.corda.core.contracts.ContractsDSL.requireThat;
 
@@ -30,20 +34,32 @@ public class InsuranceClaimFlow {
 
     private InsuranceClaimFlow(){}
 
-    @InitiatingFlow
+    // Version 2 tells the counterparty whether the transaction was notarised, see RetryableFinality.
+    @InitiatingFlow(version = RetryableFinality.RETRYING_FLOW_VERSION)
     @StartableByRPC
     public static class InsuranceClaimInitiator extends FlowLogic<SignedTransaction> implements IInsuranceClaimState {
 
-        private final ProgressTracker progressTracker = new ProgressTracker();
+        private final ProgressTracker progressTracker = FlowPhase.initiatorTracker();
+
+        // The session with the counterparty, opened by the first attempt which proposes a transaction.
+        private FlowSession session;
 
         private final ClaimInfo claimInfo;
         private final String policyNumber;
+        private final UniqueIdentifier policyId;
 
         private final static Logger logger = LoggerFactory.getLogger(InsuranceClaimFlow.InsuranceClaimInitiator.class);
 
         public InsuranceClaimInitiator(ClaimInfo claimInfo, String policyNumber) {
             this.claimInfo = claimInfo;
             this.policyNumber = policyNumber;
+            this.policyId = null;
+        }
+
+        public InsuranceClaimInitiator(ClaimInfo claimInfo, UniqueIdentifier policyId) {
+            this.claimInfo = claimInfo;
+            this.policyNumber = null;
+            this.policyId = policyId;
         }
 
         @Override
@@ -55,18 +71,36 @@ public class InsuranceClaimFlow {
         @Suspendable
         public SignedTransaction call() throws FlowException {
 
-            Party insureeOurIdentity = getOurIdentity();
+            PhaseTimer timer = getServiceHub().cordaService(FlowTimingService.class).timer(this, progressTracker);
+            ConflictRetry retry = getServiceHub().cordaService(FlowTimingService.class).retry(this);
+            while (true) {
+                try {
+                    SignedTransaction finalTransaction = attempt(timer);
+                    timer.finish();
+                    return finalTransaction;
+                } catch (FlowException e) {
+                    // The policy was spent or reserved concurrently: back off, then resolve its latest version again.
+                    if (!retry.shouldRetry(e)) {
+                        throw e;
+                    }
+                    logger.info("Retrying after a conflict on the policy (attempt " + retry.getAttempts() + "): " + e.getMessage());
+                    sleep(retry.nextBackoff());
+                }
+            }
+        }
 
-            // Query the vault to fetch a list of all Insurance state, and filter the results based on the policyNumber
-            // to fetch the desired Insurance state from the vault. This filtered state would be used as input to the
-            // transaction.
-            List<StateAndRef<InsuranceState>> insuranceStateAndRefs = getServiceHub().getVaultService()
-                    .queryBy(InsuranceState.class).getStates();
+        @Suspendable
+        private SignedTransaction attempt(PhaseTimer timer) throws FlowException {
+            Party insureeOurIdentity = getOurIdentity();
 
-            StateAndRef<InsuranceState> inputStateAndRef = insuranceStateAndRefs.stream().filter(insuranceStateAndRef -> {
-                InsuranceState insuranceState = insuranceStateAndRef.getState().getData();
-                return insuranceState.getWorkerDetail().getPolicyNumber().equals(policyNumber) && insuranceState.getInsuree().equals(insureeOurIdentity);
-            }).findAny().orElseThrow(() -> new IllegalArgumentException("Insuree Policy Not Found"));
+            // Query the vault for the unconsumed Insurance state with the given policyId, or else with the given
+            // policyNumber. The lookup is done on the vault's linear state table or on the indexed custom schema
+            // columns, so only the matching state is loaded. This state would be used as input to the transaction.
+            // It is reserved with a soft lock, so the other flows of this node do not select it until this flow ends.
+            timer.start(FlowPhase.VAULT_QUERY);
+            StateAndRef<InsuranceState> inputStateAndRef = policyId != null
+                    ? InsurancePolicyLookup.reservePolicy(getServiceHub(), getRunId().getUuid(), policyId)
+                    : InsurancePolicyLookup.reservePolicy(getServiceHub(), getRunId().getUuid(), policyNumber, insureeOurIdentity);
 
             Claim claim = new Claim(claimInfo.getClaimNumber(), claimInfo.getClaimDescription(),
                     claimInfo.getClaimAmount(), this.getNextState(), claimInfo.getInternalPolicyNo(), claimInfo.getAccidentDate(),
@@ -74,18 +108,8 @@ public class InsuranceClaimFlow {
                     insureeOurIdentity, inputStateAndRef.getState().getData().getInsurer());
             InsuranceState input = inputStateAndRef.getState().getData();
 
-            List<Claim> claims = new ArrayList<>();
-            if(input.getClaims() == null || input.getClaims().size() == 0 ){
-                claims.add(claim);
-            }else {
-                claims.addAll(input.getClaims());
-                claims.add(claim);
-            }
-
-            //Create the output state
-            InsuranceState output = new InsuranceState(input.getInsuredValue(),
-                    input.getDuration(), input.getInsurer(), input.getInsuree(),
-                    input.getWorkerDetail(), claims);
+            //Create the output state, appending the claim to the claims of the input state
+            InsuranceState output = input.withAppendedClaims(singletonList(claim));
 
             // Build the transaction.
             TransactionBuilder transactionBuilder = new TransactionBuilder(inputStateAndRef.getState().getNotary())
@@ -94,18 +118,27 @@ public class InsuranceClaimFlow {
                     .addCommand(new InsuranceContract.Commands.AddClaim(), ImmutableList.of(getOurIdentity().getOwningKey(), input.getInsurer().getOwningKey()));
 
             // Verify the transaction
+            timer.start(FlowPhase.VERIFY);
             transactionBuilder.verify(getServiceHub());
 
-            FlowSession session = initiateFlow(input.getInsurer());
+            // One session serves every attempt: the counterparty signs the transaction of each until one is notarised.
+            if (session == null) {
+                session = initiateFlow(input.getInsurer());
+            }
 
             // Sign the transaction
+            timer.start(FlowPhase.SIGN);
             SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
 
             // The counter party signs the transaction
-            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session)));
-
-            // We get the transaction notarised and recorded automatically by the platform.
-            return subFlow(new FinalityFlow(fullySignedTransaction, singletonList(session)));
+            timer.start(FlowPhase.COLLECT_SIGNATURES);
+            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session),
+                    timer.childTracker()));
+
+            // We get the transaction notarised, telling the counterparty whether to record it or to sign the next attempt.
+            timer.start(FlowPhase.FINALITY);
+            SignedTransaction finalTransaction = RetryableFinality.notariseAndRecord(this, fullySignedTransaction, session, timer.childTracker());
+            return finalTransaction;
         }
 
         @Override
@@ -122,29 +155,43 @@ public class InsuranceClaimFlow {
     @InitiatedBy(InsuranceClaimInitiator.class)
     public static class InsuranceClaimResponder extends FlowLogic<Void> {
 
+        private final ProgressTracker progressTracker = FlowPhase.responderTracker();
+
         private FlowSession counterpartySession;
 
         public InsuranceClaimResponder(FlowSession counterpartySession) {
             this.counterpartySession = counterpartySession;
         }
 
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
         @Override
         @Suspendable
         public Void call() throws FlowException {
-            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
-                @Suspendable
-                @Override
-                protected void checkTransaction(SignedTransaction stx) throws FlowException {
-                    requireThat(require -> {
-                        ContractState output = stx.getTx().getOutputs().get(0).getData();
-                        require.using("This must be an InsuranceState transaction.", output instanceof InsuranceState);
-                        InsuranceState insuranceState = (InsuranceState) output;
-                        require.using("Transaction must have valid claim", insuranceState.getClaims().get(0).getClaimStatus().equals(ClaimStatus.Proposal));
-                        return null;
-                    });
-                }
-            });
+            PhaseTimer timer = getServiceHub().cordaService(FlowTimingService.class).timer(this, progressTracker);
+            SignedTransaction signedTransaction;
+            do {
+                timer.start(FlowPhase.CHECK_AND_SIGN);
+                signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                    @Suspendable
+                    @Override
+                    protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                        requireThat(require -> {
+                            ContractState output = stx.getTx().getOutputs().get(0).getData();
+                            require.using("This must be an InsuranceState transaction.", output instanceof InsuranceState);
+                            InsuranceState insuranceState = (InsuranceState) output;
+                            require.using("Transaction must have valid claim", insuranceState.getClaims().get(0).getClaimStatus().equals(ClaimStatus.Proposal));
+                            return null;
+                        });
+                    }
+                });
+            } while (!RetryableFinality.receiveNotarised(counterpartySession));
+            timer.start(FlowPhase.RECEIVE_FINALITY);
             subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            timer.finish();
             return null;
         }
     }
@@ -0,0 +1,20 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.examples.workinsurance.schema.InsuranceSchemaMode;
+
+/**
+ * Returns the InsuranceSchemaMode of the node, so RPC clients query the custom tables the node actually maps.
+ */
+@StartableByRPC
+public class InsuranceSchemaModeFlow extends FlowLogic<InsuranceSchemaMode> {
+
+    @Suspendable
+    @Override
+    public InsuranceSchemaMode call() throws FlowException {
+        return InsuranceSchemaMode.current();
+    }
+}
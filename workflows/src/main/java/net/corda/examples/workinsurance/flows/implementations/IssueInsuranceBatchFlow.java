@@ -0,0 +1,173 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.flows.services.NotarySelectionService;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.examples.workinsurance.states.WorkerDetail;
+
+import java.util.*;
+
+import static java.util.Collections.singletonList;
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * Issues the policies of many workers of one insuree in a few IssueInsuranceBatch transactions, each with at most
+ * batchSize policies of the same notary. The flow session is shared by all the transactions of the onboarding.
+ */
+public class IssueInsuranceBatchFlow {
+
+    // Policies per transaction when the caller does not choose, well below InsuranceContract.MAX_ISSUE_BATCH_SIZE.
+    public static final int DEFAULT_BATCH_SIZE = 250;
+
+    private IssueInsuranceBatchFlow(){}
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class IssueInsuranceBatchInitiator extends FlowLogic<List<SignedTransaction>> {
+
+        private final ProgressTracker progressTracker = new ProgressTracker();
+
+        private final List<InsuranceInfo> insuranceInfos;
+        private final Party insuree;
+        private final int batchSize;
+
+        public IssueInsuranceBatchInitiator(List<InsuranceInfo> insuranceInfos, Party insuree) {
+            this(insuranceInfos, insuree, DEFAULT_BATCH_SIZE);
+        }
+
+        public IssueInsuranceBatchInitiator(List<InsuranceInfo> insuranceInfos, Party insuree, int batchSize) {
+            this.insuranceInfos = insuranceInfos;
+            this.insuree = insuree;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        @Suspendable
+        @Override
+        public List<SignedTransaction> call() throws FlowException {
+            if(insuranceInfos == null || insuranceInfos.isEmpty()) {
+                throw new FlowException("A batch must have at least one insurance");
+            }
+            if(batchSize < 1 || batchSize > InsuranceContract.MAX_ISSUE_BATCH_SIZE) {
+                throw new FlowException("Batch size must be between 1 and " + InsuranceContract.MAX_ISSUE_BATCH_SIZE);
+            }
+            Set<String> policyNumbers = new HashSet<>();
+            for(InsuranceInfo insuranceInfo : insuranceInfos) {
+                if(!policyNumbers.add(insuranceInfo.getWorkerInfo().getPolicyNumber())) {
+                    throw new FlowException("Policy number " + insuranceInfo.getWorkerInfo().getPolicyNumber() + " is repeated in the batch");
+                }
+            }
+
+            // Group the policies by the notary chosen for them, a transaction has a single notary.
+            NotarySelectionService notarySelection = getServiceHub().cordaService(NotarySelectionService.class);
+            Map<Party, List<InsuranceInfo>> insuranceInfosByNotary = new LinkedHashMap<>();
+            for(InsuranceInfo insuranceInfo : insuranceInfos) {
+                insuranceInfosByNotary.computeIfAbsent(notarySelection.notaryFor(insuranceInfo.getWorkerInfo().getPolicyNumber()),
+                        notary -> new ArrayList<>()).add(insuranceInfo);
+            }
+
+            Party insurer = getOurIdentity();
+            int transactionCount = 0;
+            for(List<InsuranceInfo> notaryInsuranceInfos : insuranceInfosByNotary.values()) {
+                transactionCount += (notaryInsuranceInfos.size() + batchSize - 1) / batchSize;
+            }
+
+            // The insuree signs every transaction of the onboarding over the same session.
+            FlowSession session = initiateFlow(insuree);
+            session.send(transactionCount);
+
+            List<SignedTransaction> transactions = new ArrayList<>(transactionCount);
+            for(Map.Entry<Party, List<InsuranceInfo>> notaryInsuranceInfos : insuranceInfosByNotary.entrySet()) {
+                Party notary = notaryInsuranceInfos.getKey();
+                List<InsuranceInfo> infos = notaryInsuranceInfos.getValue();
+                for(int from = 0; from < infos.size(); from += batchSize) {
+                    List<InsuranceInfo> batch = new ArrayList<>(infos.subList(from, Math.min(from + batchSize, infos.size())));
+
+                    // Build the transaction, with one insurance output state per worker of the batch.
+                    TransactionBuilder builder = new TransactionBuilder(notary)
+                            .addCommand(new InsuranceContract.Commands.IssueInsuranceBatch(), ImmutableList.of(insurer.getOwningKey(), insuree.getOwningKey()));
+                    for(InsuranceInfo insuranceInfo : batch) {
+                        builder.addOutputState(insuranceOf(insuranceInfo, insurer), InsuranceContract.ID);
+                    }
+
+                    // Verify the transaction
+                    builder.verify(getServiceHub());
+
+                    // We sign the transaction with our private key, making it immutable.
+                    SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(builder);
+
+                    // The counter party signs the transaction
+                    SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session)));
+
+                    // We get the transaction notarised and recorded automatically by the platform.
+                    transactions.add(subFlow(new FinalityFlow(fullySignedTransaction, singletonList(session))));
+                }
+            }
+            return transactions;
+        }
+
+        private InsuranceState insuranceOf(InsuranceInfo insuranceInfo, Party insurer) {
+            WorkerInfo workerInfo = insuranceInfo.getWorkerInfo();
+            WorkerDetail workerDetail = new WorkerDetail(workerInfo.getPolicyNumber(), workerInfo.getName(), workerInfo.getHealthNumber(), workerInfo.getPolicyHolder());
+            return new InsuranceState(insuranceInfo.getInsuredValue(),
+                    insuranceInfo.getDuration(), insurer, insuree, workerDetail, null, 0,
+                    new UniqueIdentifier(workerInfo.getPolicyNumber()));
+        }
+    }
+
+    @InitiatedBy(IssueInsuranceBatchInitiator.class)
+    public static class IssueInsuranceBatchResponder extends FlowLogic<Void> {
+
+        private FlowSession counterpartySession;
+
+        public IssueInsuranceBatchResponder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Override
+        @Suspendable
+        public Void call() throws FlowException {
+            int transactionCount = counterpartySession.receive(Integer.class).unwrap(count -> {
+                if(count < 1) {
+                    throw new IllegalArgumentException("An onboarding must have at least one transaction");
+                }
+                return count;
+            });
+
+            for(int index = 0; index < transactionCount; index++) {
+                SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                    @Suspendable
+                    @Override
+                    protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                        requireThat(require -> {
+                            for(ContractState output : stx.getTx().getOutputStates()) {
+                                require.using("This must be an InsuranceState transaction.", output instanceof InsuranceState);
+                                InsuranceState insuranceState = (InsuranceState) output;
+                                require.using("Transaction must have valid worker detail", insuranceState.getWorkerDetail() != null);
+                                require.using("We must be the insuree of the policies", insuranceState.getInsuree().equals(getOurIdentity()));
+                            }
+                            return null;
+                        });
+                    }
+                });
+                subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            }
+            return null;
+        }
+    }
+}
@@ -3,12 +3,17 @@ package net.corda.examples.workinsurance.flows.implementations;
 import co.paralleluniverse.fibers.Suspendable;
 import com.google.common.collect.ImmutableList;
 import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.UniqueIdentifier;
 import net.corda.core.flows.*;
 import net.corda.core.identity.Party;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
 import net.corda.core.utilities.ProgressTracker;
 import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.flows.services.FlowPhase;
+import net.corda.examples.workinsurance.flows.services.FlowTimingService;
+import net.corda.examples.workinsurance.flows.services.NotarySelectionService;
+import net.corda.examples.workinsurance.flows.services.PhaseTimer;
 import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
 import net.corda.examples.workinsurance.flows.models.WorkerInfo;
 import net.corda.examples.workinsurance.states.InsuranceState;
@@ -27,7 +32,8 @@ public class IssueInsuranceFlow {
     @StartableByRPC
     public static class IssueInsuranceInitiator extends FlowLogic<SignedTransaction> {
 
-        private final ProgressTracker progressTracker = new ProgressTracker();
+        private final ProgressTracker progressTracker = FlowPhase.tracker(FlowPhase.VERIFY, FlowPhase.SIGN,
+                FlowPhase.COLLECT_SIGNATURES, FlowPhase.FINALITY);
 
         private final InsuranceInfo insuranceInfo;
         private final Party insuree;
@@ -48,24 +54,23 @@ public class IssueInsuranceFlow {
         @Suspendable
         @Override
         public SignedTransaction call() throws FlowException {
+            PhaseTimer timer = getServiceHub().cordaService(FlowTimingService.class).timer(this, progressTracker);
 
-            // Obtain a reference to a notary we wish to use.
-            /** METHOD 1: Take first notary on network, WARNING: use for test, non-prod environments, and single-notary networks only!*
-             *  METHOD 2: Explicit selection of notary by CordaX500Name - argument can by coded in flow or parsed from config (Preferred)
-             *
-             *  * - For production you always want to use Method 2 as it guarantees the expected notary is returned.
-             */
-            final Party notary = getServiceHub().getNetworkMapCache().getNotaryIdentities().get(0); // METHOD 1
-            // final Party notary = getServiceHub().getNetworkMapCache().getNotary(CordaX500Name.parse("O=Notary,L=London,C=GB")); // METHOD 2
+            // Obtain a reference to the notary of the policy, chosen by the strategy of the CorDapp config. All the later
+            // transactions of the policy are notarised by the same notary.
+            final Party notary = getServiceHub().cordaService(NotarySelectionService.class)
+                    .notaryFor(insuranceInfo.getWorkerInfo().getPolicyNumber());
 
             Party insurer = getOurIdentity();
 
             WorkerInfo workerInfo = insuranceInfo.getWorkerInfo();
             WorkerDetail workerDetail = new WorkerDetail(workerInfo.getPolicyNumber(), workerInfo.getName(), workerInfo.getHealthNumber(), workerInfo.getPolicyHolder());
 
-            // Build the insurance output state.
+            // Build the insurance output state. The policy gets the linearId which identifies it across its versions,
+            // callers read it back from the output of the returned transaction.
             InsuranceState insurance = new InsuranceState(insuranceInfo.getInsuredValue(),
-                    insuranceInfo.getDuration(), insurer, insuree, workerDetail,null);
+                    insuranceInfo.getDuration(), insurer, insuree, workerDetail,null, 0,
+                    new UniqueIdentifier(workerInfo.getPolicyNumber()));
 
             // Build the transaction
             TransactionBuilder builder = new TransactionBuilder(notary)
@@ -73,33 +78,50 @@ public class IssueInsuranceFlow {
                 .addCommand(new InsuranceContract.Commands.IssueInsurance(), ImmutableList.of(insurer.getOwningKey(), insuree.getOwningKey()));
 
             // Verify the transaction
+            timer.start(FlowPhase.VERIFY);
             builder.verify(getServiceHub());
 
             FlowSession session = initiateFlow(insuree);
 
             // We sign the transaction with our private key, making it immutable.
+            timer.start(FlowPhase.SIGN);
             SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(builder);
 
             // The counter party signs the transaction
-            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session)));
+            timer.start(FlowPhase.COLLECT_SIGNATURES);
+            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session),
+                    timer.childTracker()));
 
             // We get the transaction notarised and recorded automatically by the platform.
-            return subFlow(new FinalityFlow(fullySignedTransaction, singletonList(session)));
+            timer.start(FlowPhase.FINALITY);
+            SignedTransaction finalTransaction = subFlow(new FinalityFlow(fullySignedTransaction, singletonList(session),
+                    timer.childTracker()));
+            timer.finish();
+            return finalTransaction;
         }
     }
 
     @InitiatedBy(IssueInsuranceInitiator.class)
     public static class IssueInsuranceResponder extends FlowLogic<Void> {
 
+        private final ProgressTracker progressTracker = FlowPhase.responderTracker();
+
         private FlowSession counterpartySession;
 
         public IssueInsuranceResponder(FlowSession counterpartySession) {
             this.counterpartySession = counterpartySession;
         }
 
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
         @Override
         @Suspendable
         public Void call() throws FlowException {
+            PhaseTimer timer = getServiceHub().cordaService(FlowTimingService.class).timer(this, progressTracker);
+            timer.start(FlowPhase.CHECK_AND_SIGN);
             SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
                 @Suspendable
                 @Override
@@ -113,7 +135,9 @@ public class IssueInsuranceFlow {
                     });
                 }
             });
+            timer.start(FlowPhase.RECEIVE_FINALITY);
             subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            timer.finish();
             return null;
         }
     }
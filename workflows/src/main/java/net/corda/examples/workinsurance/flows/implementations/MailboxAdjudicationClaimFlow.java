@@ -0,0 +1,59 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowExternalAsyncOperation;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.flows.models.ClaimDecisionInfo;
+import net.corda.examples.workinsurance.flows.services.PolicyMailboxService;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Accepts or rejects a claim of the insuree's policy through the policy's mailbox, so concurrent decisions on the
+ * policy are group committed instead of racing for its current version. Returns the transaction which adjudicated the
+ * claim, along with the other claims of its group.
+ */
+@StartableByRPC
+public class MailboxAdjudicationClaimFlow extends FlowLogic<SignedTransaction> {
+
+    private final ClaimDecisionInfo decision;
+    private final String policyNumber;
+    private final Party insuree;
+
+    public MailboxAdjudicationClaimFlow(ClaimDecisionInfo decision, String policyNumber, Party insuree) {
+        this.decision = decision;
+        this.policyNumber = policyNumber;
+        this.insuree = insuree;
+    }
+
+    @Suspendable
+    @Override
+    public SignedTransaction call() throws FlowException {
+        return await(new SubmitDecision(getServiceHub().cordaService(PolicyMailboxService.class), decision, policyNumber, insuree));
+    }
+
+    private static class SubmitDecision implements FlowExternalAsyncOperation<SignedTransaction> {
+        private final PolicyMailboxService mailboxes;
+        private final ClaimDecisionInfo decision;
+        private final String policyNumber;
+        private final Party insuree;
+
+        SubmitDecision(PolicyMailboxService mailboxes, ClaimDecisionInfo decision, String policyNumber, Party insuree) {
+            this.mailboxes = mailboxes;
+            this.decision = decision;
+            this.policyNumber = policyNumber;
+            this.insuree = insuree;
+        }
+
+        @NotNull
+        @Override
+        public CompletableFuture<SignedTransaction> execute(@NotNull String deduplicationId) {
+            return mailboxes.submitDecision(deduplicationId, policyNumber, insuree, decision);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowExternalAsyncOperation;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.services.PolicyMailboxService;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Files a claim against one of our policies through the policy's mailbox, so concurrent claims on the policy are
+ * group committed instead of racing for its current version. Returns the transaction which filed the claim, along with
+ * the other claims of its group.
+ */
+@StartableByRPC
+public class MailboxInsuranceClaimFlow extends FlowLogic<SignedTransaction> {
+
+    private final ClaimInfo claimInfo;
+    private final String policyNumber;
+
+    public MailboxInsuranceClaimFlow(ClaimInfo claimInfo, String policyNumber) {
+        this.claimInfo = claimInfo;
+        this.policyNumber = policyNumber;
+    }
+
+    @Suspendable
+    @Override
+    public SignedTransaction call() throws FlowException {
+        return await(new SubmitClaim(getServiceHub().cordaService(PolicyMailboxService.class), claimInfo, policyNumber));
+    }
+
+    private static class SubmitClaim implements FlowExternalAsyncOperation<SignedTransaction> {
+        private final PolicyMailboxService mailboxes;
+        private final ClaimInfo claimInfo;
+        private final String policyNumber;
+
+        SubmitClaim(PolicyMailboxService mailboxes, ClaimInfo claimInfo, String policyNumber) {
+            this.mailboxes = mailboxes;
+            this.claimInfo = claimInfo;
+            this.policyNumber = policyNumber;
+        }
+
+        @NotNull
+        @Override
+        public CompletableFuture<SignedTransaction> execute(@NotNull String deduplicationId) {
+            return mailboxes.submitClaim(deduplicationId, policyNumber, claimInfo);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.models.PolicyClaim;
+import net.corda.examples.workinsurance.flows.services.PolicyClaimLookup;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Returns a page of the claims held in the unconsumed policies of the node, read by the PolicyClaimLookup. The claim
+ * rows are not states, so RPC clients cannot read them with a vault query.
+ */
+@StartableByRPC
+public class PolicyClaimsQueryFlow extends FlowLogic<List<PolicyClaim>> {
+
+    private final String policyNumber;
+    private final String claimNumber;
+    private final ClaimStatus status;
+    private final Date accidentFrom;
+    private final Date accidentTo;
+    private final int offset;
+    private final int limit;
+
+    public PolicyClaimsQueryFlow(String policyNumber, String claimNumber, ClaimStatus status, Date accidentFrom,
+                                 Date accidentTo, int offset, int limit) {
+        this.policyNumber = policyNumber;
+        this.claimNumber = claimNumber;
+        this.status = status;
+        this.accidentFrom = accidentFrom;
+        this.accidentTo = accidentTo;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    @Suspendable
+    @Override
+    public List<PolicyClaim> call() throws FlowException {
+        return PolicyClaimLookup.findClaims(getServiceHub(), policyNumber, claimNumber, status, accidentFrom, accidentTo,
+                offset, limit);
+    }
+}
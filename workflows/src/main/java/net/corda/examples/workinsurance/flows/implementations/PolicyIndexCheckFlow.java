@@ -0,0 +1,21 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.examples.workinsurance.flows.models.PolicyIndexReport;
+import net.corda.examples.workinsurance.flows.services.PolicyIndexService;
+
+/**
+ * Checks the node's policy index against the vault and returns its hit and miss counters.
+ */
+@StartableByRPC
+public class PolicyIndexCheckFlow extends FlowLogic<PolicyIndexReport> {
+
+    @Suspendable
+    @Override
+    public PolicyIndexReport call() throws FlowException {
+        return getServiceHub().cordaService(PolicyIndexService.class).checkConsistency();
+    }
+}
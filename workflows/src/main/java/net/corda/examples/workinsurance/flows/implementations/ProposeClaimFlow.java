@@ -0,0 +1,157 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.LinearPointer;
+import net.corda.core.contracts.ReferencedStateAndRef;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.flows.*;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.examples.workinsurance.contracts.ClaimContract;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+import net.corda.examples.workinsurance.flows.interfaces.IInsuranceClaimState;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.services.ClaimStateLookup;
+import net.corda.examples.workinsurance.flows.services.InsurancePolicyLookup;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.ClaimState;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import static java.util.Collections.singletonList;
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * Proposes a claim as its own ClaimState. The insurance policy is a reference input of the transaction, so it is not
+ * consumed and does not grow with the claims made against it.
+ */
+public class ProposeClaimFlow {
+
+    private ProposeClaimFlow(){}
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class ProposeClaimInitiator extends FlowLogic<SignedTransaction> implements IInsuranceClaimState {
+
+        private final ProgressTracker progressTracker = new ProgressTracker();
+
+        private final ClaimInfo claimInfo;
+        private final String policyNumber;
+        private final UniqueIdentifier policyId;
+
+        public ProposeClaimInitiator(ClaimInfo claimInfo, String policyNumber) {
+            this.claimInfo = claimInfo;
+            this.policyNumber = policyNumber;
+            this.policyId = null;
+        }
+
+        public ProposeClaimInitiator(ClaimInfo claimInfo, UniqueIdentifier policyId) {
+            this.claimInfo = claimInfo;
+            this.policyNumber = null;
+            this.policyId = policyId;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        @Override
+        @Suspendable
+        public SignedTransaction call() throws FlowException {
+
+            Party insureeOurIdentity = getOurIdentity();
+
+            StateAndRef<InsuranceState> policyStateAndRef = policyId != null
+                    ? InsurancePolicyLookup.findPolicy(getServiceHub(), policyId)
+                    : InsurancePolicyLookup.findPolicy(getServiceHub(), policyNumber, insureeOurIdentity);
+            InsuranceState policy = policyStateAndRef.getState().getData();
+
+            // A claim number is proposed once per policy, so the claim flows resolve it to a single ClaimState.
+            if(ClaimStateLookup.claimExists(getServiceHub(), policy.getWorkerDetail().getPolicyNumber(),
+                    claimInfo.getClaimNumber(), insureeOurIdentity)) {
+                throw new FlowException("Claim " + claimInfo.getClaimNumber() + " is already proposed against policy "
+                        + policy.getWorkerDetail().getPolicyNumber());
+            }
+
+            Claim claim = new Claim(claimInfo.getClaimNumber(), claimInfo.getClaimDescription(),
+                    claimInfo.getClaimAmount(), this.getNextState(), claimInfo.getInternalPolicyNo(), claimInfo.getAccidentDate(),
+                    claimInfo.getEpisodeDate(), AccidentType.WorkAccident, Module.valueOf(claimInfo.getModule()), null,
+                    insureeOurIdentity, policy.getInsurer());
+
+            //Create the output state. The claim points to the policy by its linearId, so it follows the policy across
+            // its versions. The pointer is not resolved by the builder, as the policy is added as a reference below.
+            ClaimState output = new ClaimState(new UniqueIdentifier(claimInfo.getClaimNumber()),
+                    new LinearPointer<>(policy.getLinearId(), InsuranceState.class, false),
+                    policy.getWorkerDetail().getPolicyNumber(), claim, policy.getInsurer(), insureeOurIdentity);
+
+            // Build the transaction. The policy is referenced, not consumed.
+            TransactionBuilder transactionBuilder = new TransactionBuilder(policyStateAndRef.getState().getNotary())
+                    .addReferenceState(new ReferencedStateAndRef<>(policyStateAndRef))
+                    .addOutputState(output, ClaimContract.ID)
+                    .addCommand(new ClaimContract.Commands.ProposeClaim(), ImmutableList.of(insureeOurIdentity.getOwningKey(), policy.getInsurer().getOwningKey()));
+
+            // Verify the transaction
+            transactionBuilder.verify(getServiceHub());
+
+            FlowSession session = initiateFlow(policy.getInsurer());
+
+            // Sign the transaction
+            SignedTransaction signedTransaction = getServiceHub().signInitialTransaction(transactionBuilder);
+
+            // The counter party signs the transaction
+            SignedTransaction fullySignedTransaction = subFlow(new CollectSignaturesFlow(signedTransaction, singletonList(session)));
+
+            // We get the transaction notarised and recorded automatically by the platform.
+            return subFlow(new FinalityFlow(fullySignedTransaction, singletonList(session)));
+        }
+
+        @Override
+        public ClaimStatus getNextState() {
+            return ClaimStatus.Proposal;
+        }
+
+        @Override
+        public ClaimStatus getPreviousState() {
+            return ClaimStatus.None;
+        }
+    }
+
+    @InitiatedBy(ProposeClaimInitiator.class)
+    public static class ProposeClaimResponder extends FlowLogic<Void> {
+
+        private FlowSession counterpartySession;
+
+        public ProposeClaimResponder(FlowSession counterpartySession) {
+            this.counterpartySession = counterpartySession;
+        }
+
+        @Override
+        @Suspendable
+        public Void call() throws FlowException {
+            SignedTransaction signedTransaction = subFlow(new SignTransactionFlow(counterpartySession) {
+                @Suspendable
+                @Override
+                protected void checkTransaction(SignedTransaction stx) throws FlowException {
+                    requireThat(require -> {
+                        ContractState output = stx.getTx().getOutputs().get(0).getData();
+                        require.using("This must be a ClaimState transaction.", output instanceof ClaimState);
+                        ClaimState claimState = (ClaimState) output;
+                        require.using("Transaction must have valid claim", claimState.getClaim().getClaimStatus().equals(ClaimStatus.Proposal));
+                        require.using("The claim must not be proposed twice against the policy", !ClaimStateLookup.claimExists(getServiceHub(),
+                                claimState.getPolicyNumber(), claimState.getClaim().getClaimNumber(), claimState.getInsuree()));
+                        return null;
+                    });
+                }
+            });
+            subFlow(new ReceiveFinalityFlow(counterpartySession, signedTransaction.getId()));
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package net.corda.examples.workinsurance.flows.implementations;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.flows.AbstractStateReplacementFlow;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.NotaryChangeFlow;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.StatesNotAvailableException;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.examples.workinsurance.flows.models.NotaryRebalanceReport;
+import net.corda.examples.workinsurance.flows.services.InsurancePolicyLookup;
+import net.corda.examples.workinsurance.flows.services.NotarySelectionService;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+/**
+ * Moves the policies the node insures to the notary the NotarySelectionService chooses for them, e.g. after notaries were
+ * added to the notarySelection config, with a NotaryChangeFlow per policy. At most maxPolicies policies are moved per
+ * run, so a large rebalancing can be spread over several runs; with dryRun the misplaced policies are only counted.
+ *
+ * Only the insurer moves a policy, so the insurer and the insuree never change its notary concurrently. Each policy is
+ * reserved with a soft lock before it is moved, so the claim and adjudication flows of the node do not select it
+ * meanwhile; a policy reserved by one of them is left for the next run. A notary change consumes the policy, so a flow
+ * of the insuree racing with it retries on the new version of the policy.
+ */
+@StartableByRPC
+public class RebalanceNotariesFlow extends FlowLogic<NotaryRebalanceReport> {
+
+    private final static Logger logger = LoggerFactory.getLogger(RebalanceNotariesFlow.class);
+
+    private final static int PAGE_SIZE = 500;
+
+    private final int maxPolicies;
+    private final boolean dryRun;
+
+    public RebalanceNotariesFlow(int maxPolicies, boolean dryRun) {
+        this.maxPolicies = maxPolicies;
+        this.dryRun = dryRun;
+    }
+
+    @Suspendable
+    @Override
+    public NotaryRebalanceReport call() throws FlowException {
+        NotarySelectionService notarySelection = getServiceHub().cordaService(NotarySelectionService.class);
+        Party insurer = getOurIdentity();
+
+        // Find the misplaced policies first, as moving them changes the pages of the query. Only the linearIds of the
+        // policies to move in this run are kept, so the checkpoint of the flow does not grow with the vault.
+        int policies = 0;
+        int misplaced = 0;
+        List<UniqueIdentifier> toMove = new ArrayList<>();
+        int pageNumber = DEFAULT_PAGE_NUM;
+        while(true) {
+            Vault.Page<InsuranceState> page = getServiceHub().getVaultService().queryBy(InsuranceState.class,
+                    new QueryCriteria.VaultQueryCriteria(), new PageSpecification(pageNumber, PAGE_SIZE), InsurancePolicyLookup.stateRefSort());
+            for(StateAndRef<InsuranceState> policy : page.getStates()) {
+                if(!policy.getState().getData().getInsurer().equals(insurer)) continue;
+                policies++;
+                if(isMisplaced(notarySelection, policy)) {
+                    misplaced++;
+                    if(!dryRun && toMove.size() < maxPolicies) {
+                        toMove.add(policy.getState().getData().getLinearId());
+                    }
+                }
+            }
+            if((long) pageNumber * PAGE_SIZE >= page.getTotalStatesAvailable()) break;
+            pageNumber++;
+        }
+
+        int moved = 0;
+        int failed = 0;
+        for(UniqueIdentifier policyId : toMove) {
+            StateAndRef<InsuranceState> policy;
+            try {
+                policy = InsurancePolicyLookup.reservePolicy(getServiceHub(), getRunId().getUuid(), policyId);
+            } catch(StatesNotAvailableException e) {
+                logger.warn("Unable to move policy " + policyId + ", reserved by another flow: " + e.getMessage());
+                failed++;
+                continue;
+            }
+            // The policy may have changed since it was found.
+            if(!isMisplaced(notarySelection, policy)) continue;
+            String policyNumber = policy.getState().getData().getWorkerDetail().getPolicyNumber();
+            Party notary = notarySelection.notaryFor(policyNumber);
+            try {
+                subFlow(new NotaryChangeFlow<>(policy, notary, AbstractStateReplacementFlow.Instigator.Companion.tracker()));
+                moved++;
+            } catch(FlowException e) {
+                logger.warn("Unable to move policy " + policyNumber + " to notary " + notary + ": " + e.getMessage());
+                failed++;
+            }
+        }
+        getServiceHub().getVaultService().softLockRelease(getRunId().getUuid(), null);
+        logger.info("Notary rebalancing: {} policies, {} misplaced, {} moved, {} failed", policies, misplaced, moved, failed);
+        return new NotaryRebalanceReport(policies, misplaced, moved, failed);
+    }
+
+    private static boolean isMisplaced(NotarySelectionService notarySelection, StateAndRef<InsuranceState> policy) {
+        Party notary = notarySelection.notaryFor(policy.getState().getData().getWorkerDetail().getPolicyNumber());
+        return !notary.equals(policy.getState().getNotary());
+    }
+}
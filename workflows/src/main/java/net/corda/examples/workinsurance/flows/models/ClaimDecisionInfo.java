@@ -0,0 +1,30 @@
+package net.corda.examples.workinsurance.flows.models;
+
+import net.corda.core.serialization.CordaSerializable;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+
+@CordaSerializable
+public class ClaimDecisionInfo {
+
+    private final String claimNumber;
+    private final ClaimStatus decision;
+    private final InsuranceDetailInfo insuranceDetailInfo;
+
+    public ClaimDecisionInfo(String claimNumber, ClaimStatus decision, InsuranceDetailInfo insuranceDetailInfo) {
+        this.claimNumber = claimNumber;
+        this.decision = decision;
+        this.insuranceDetailInfo = insuranceDetailInfo;
+    }
+
+    public String getClaimNumber() {
+        return claimNumber;
+    }
+
+    public ClaimStatus getDecision() {
+        return decision;
+    }
+
+    public InsuranceDetailInfo getInsuranceDetailInfo() {
+        return insuranceDetailInfo;
+    }
+}
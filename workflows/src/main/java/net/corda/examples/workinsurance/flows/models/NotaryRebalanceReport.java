@@ -0,0 +1,42 @@
+package net.corda.examples.workinsurance.flows.models;
+
+import net.corda.core.serialization.CordaSerializable;
+
+/**
+ * Result of moving the policies of the node to the notaries chosen for them.
+ */
+@CordaSerializable
+public class NotaryRebalanceReport {
+
+    private final int policies;
+    private final int misplaced;
+    private final int moved;
+    private final int failed;
+
+    public NotaryRebalanceReport(int policies, int misplaced, int moved, int failed) {
+        this.policies = policies;
+        this.misplaced = misplaced;
+        this.moved = moved;
+        this.failed = failed;
+    }
+
+    // Number of unconsumed policies insured by the node.
+    public int getPolicies() {
+        return policies;
+    }
+
+    // Number of policies on another notary than the one chosen for them.
+    public int getMisplaced() {
+        return misplaced;
+    }
+
+    // Number of policies moved to the notary chosen for them.
+    public int getMoved() {
+        return moved;
+    }
+
+    // Number of policies whose notary change failed, e.g. as they were consumed meanwhile.
+    public int getFailed() {
+        return failed;
+    }
+}
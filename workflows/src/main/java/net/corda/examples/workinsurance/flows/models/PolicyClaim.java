@@ -0,0 +1,94 @@
+package net.corda.examples.workinsurance.flows.models;
+
+import net.corda.core.serialization.CordaSerializable;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+
+import java.util.Date;
+
+/**
+ * The latest claim of a claim number held in an unconsumed policy, read from the claim rows of the custom tables. The
+ * parties are given by their X.500 names.
+ */
+@CordaSerializable
+public class PolicyClaim {
+
+    private final String policyNumber;
+    private final String claimNumber;
+    private final String claimDescription;
+    private final int claimAmount;
+    private final ClaimStatus claimStatus;
+    private final String internalPolicyNo;
+    private final Date accidentDate;
+    private final Date episodeDate;
+    private final AccidentType accidentType;
+    private final Module module;
+    private final String insurer;
+    private final String insuree;
+
+    public PolicyClaim(String policyNumber, String claimNumber, String claimDescription, int claimAmount,
+                       ClaimStatus claimStatus, String internalPolicyNo, Date accidentDate, Date episodeDate,
+                       AccidentType accidentType, Module module, String insurer, String insuree) {
+        this.policyNumber = policyNumber;
+        this.claimNumber = claimNumber;
+        this.claimDescription = claimDescription;
+        this.claimAmount = claimAmount;
+        this.claimStatus = claimStatus;
+        this.internalPolicyNo = internalPolicyNo;
+        this.accidentDate = accidentDate;
+        this.episodeDate = episodeDate;
+        this.accidentType = accidentType;
+        this.module = module;
+        this.insurer = insurer;
+        this.insuree = insuree;
+    }
+
+    public String getPolicyNumber() {
+        return policyNumber;
+    }
+
+    public String getClaimNumber() {
+        return claimNumber;
+    }
+
+    public String getClaimDescription() {
+        return claimDescription;
+    }
+
+    public int getClaimAmount() {
+        return claimAmount;
+    }
+
+    public ClaimStatus getClaimStatus() {
+        return claimStatus;
+    }
+
+    public String getInternalPolicyNo() {
+        return internalPolicyNo;
+    }
+
+    public Date getAccidentDate() {
+        return accidentDate;
+    }
+
+    public Date getEpisodeDate() {
+        return episodeDate;
+    }
+
+    public AccidentType getAccidentType() {
+        return accidentType;
+    }
+
+    public Module getModule() {
+        return module;
+    }
+
+    public String getInsurer() {
+        return insurer;
+    }
+
+    public String getInsuree() {
+        return insuree;
+    }
+}
@@ -0,0 +1,50 @@
+package net.corda.examples.workinsurance.flows.models;
+
+import net.corda.core.serialization.CordaSerializable;
+
+/**
+ * Result of comparing the node's policy index with the vault.
+ */
+@CordaSerializable
+public class PolicyIndexReport {
+
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final int staleEntries;
+    private final int missingEntries;
+
+    public PolicyIndexReport(int size, long hits, long misses, int staleEntries, int missingEntries) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.staleEntries = staleEntries;
+        this.missingEntries = missingEntries;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    // Number of indexed states which are no longer unconsumed in the vault.
+    public int getStaleEntries() {
+        return staleEntries;
+    }
+
+    // Number of unconsumed policies in the vault which are not indexed.
+    public int getMissingEntries() {
+        return missingEntries;
+    }
+
+    public boolean isConsistent() {
+        return staleEntries == 0 && missingEntries == 0;
+    }
+}
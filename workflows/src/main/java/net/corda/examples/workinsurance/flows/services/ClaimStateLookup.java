@@ -0,0 +1,58 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.identity.Party;
+import net.corda.core.node.ServiceHub;
+import net.corda.core.node.services.vault.Builder;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.examples.workinsurance.schema.PersistentClaimState;
+import net.corda.examples.workinsurance.states.ClaimState;
+
+import java.util.List;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.getField;
+
+/**
+ * Resolves the current (unconsumed) ClaimState of a claim through the indexed CLAIM_STATE custom table.
+ */
+public class ClaimStateLookup {
+
+    private ClaimStateLookup(){}
+
+    /**
+     * Returns the unconsumed ClaimState with the given claimNumber, made against the given policy of the insuree.
+     *
+     * @throws IllegalArgumentException if the node holds no such claim.
+     */
+    public static StateAndRef<ClaimState> findClaim(ServiceHub serviceHub, String policyNumber, String claimNumber, Party insuree) {
+        List<StateAndRef<ClaimState>> claimStateAndRefs = queryClaim(serviceHub, policyNumber, claimNumber, insuree);
+        if(claimStateAndRefs.isEmpty()) {
+            throw new IllegalArgumentException("Claim Not Found");
+        }
+        return claimStateAndRefs.get(0);
+    }
+
+    /**
+     * Whether the node holds an unconsumed ClaimState with the given claimNumber, in any status, made against the given
+     * policy of the insuree.
+     */
+    public static boolean claimExists(ServiceHub serviceHub, String policyNumber, String claimNumber, Party insuree) {
+        return !queryClaim(serviceHub, policyNumber, claimNumber, insuree).isEmpty();
+    }
+
+    private static List<StateAndRef<ClaimState>> queryClaim(ServiceHub serviceHub, String policyNumber, String claimNumber, Party insuree) {
+        QueryCriteria policyNumberCriteria = new QueryCriteria.VaultCustomQueryCriteria(
+                Builder.equal(getField("policyNumber", PersistentClaimState.class), policyNumber));
+        QueryCriteria claimNumberCriteria = new QueryCriteria.VaultCustomQueryCriteria(
+                Builder.equal(getField("claimNumber", PersistentClaimState.class), claimNumber));
+        QueryCriteria insureeCriteria = new QueryCriteria.VaultCustomQueryCriteria(
+                Builder.equal(getField("insuree", PersistentClaimState.class), insuree));
+
+        return serviceHub.getVaultService()
+                .queryBy(ClaimState.class, policyNumberCriteria.and(claimNumberCriteria).and(insureeCriteria),
+                        new PageSpecification(DEFAULT_PAGE_NUM, 1))
+                .getStates();
+    }
+}
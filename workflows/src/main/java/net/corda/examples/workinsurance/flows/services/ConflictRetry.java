@@ -0,0 +1,76 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.NotaryError;
+import net.corda.core.flows.NotaryException;
+import net.corda.core.node.services.StatesNotAvailableException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry policy of one run of a flow whose input policy is spent or reserved concurrently.
+ *
+ * An attempt failing because the notary found the policy already consumed, or because another flow of the node holds a
+ * soft lock on it, is retried after a jittered exponential backoff: a random delay of up to
+ * workinsurance.retry.backoffMillis (100) doubled on every attempt, at most 2 seconds. The flow then resolves the latest
+ * version of the policy again. A run makes at most workinsurance.retry.maxAttempts (8) attempts, so it waits several
+ * seconds in all for a flow holding the policy to finish. Like a PhaseTimer, the
+ * retry is a local of the flow, so it is checkpointed with it.
+ *
+ * Every attempt proposes its transaction on the session the first one opened with the counterparty, whose responder
+ * signs each until RetryableFinality tells it the transaction was notarised.
+ */
+public class ConflictRetry {
+
+    public static final String MAX_ATTEMPTS_PROPERTY = "workinsurance.retry.maxAttempts";
+    public static final String BACKOFF_MILLIS_PROPERTY = "workinsurance.retry.backoffMillis";
+
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+
+    private final FlowTimingService timingService;
+    private final String flowName;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private int attempts = 1;
+
+    ConflictRetry(FlowTimingService timingService, String flowName) {
+        this.timingService = timingService;
+        this.flowName = flowName;
+        this.maxAttempts = Integer.getInteger(MAX_ATTEMPTS_PROPERTY, 8);
+        this.backoffMillis = Long.getLong(BACKOFF_MILLIS_PROPERTY, 100);
+    }
+
+    /**
+     * Whether the attempt which failed with the given exception is to be retried. Conflicts are counted, and the runs
+     * failing on a conflict after their last attempt.
+     */
+    public boolean shouldRetry(FlowException failure) {
+        FlowRetries retries = timingService.retries(flowName);
+        if (failure instanceof NotaryException && ((NotaryException) failure).getError() instanceof NotaryError.Conflict) {
+            retries.notaryConflict();
+        } else if (failure instanceof StatesNotAvailableException) {
+            retries.softLockConflict();
+        } else {
+            return false;
+        }
+        if (attempts >= maxAttempts) {
+            retries.exhausted();
+            return false;
+        }
+        attempts++;
+        return true;
+    }
+
+    /**
+     * The delay before the next attempt.
+     */
+    public Duration nextBackoff() {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << Math.min(attempts - 1, 16));
+        return Duration.ofMillis(1 + ThreadLocalRandom.current().nextLong(Math.max(ceiling, 1)));
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,70 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.flows.CollectSignaturesFlow;
+import net.corda.core.flows.FinalityFlow;
+import net.corda.core.utilities.ProgressTracker;
+
+/**
+ * The phases of the insurance flows which are timed by the FlowTimingService, each with the progress tracker step
+ * reporting it. The signature collection and finality steps carry the progress tracker of their sub flow.
+ */
+public enum FlowPhase {
+    VAULT_QUERY(new ProgressTracker.Step("Querying the vault for the policy.")),
+    VERIFY(new ProgressTracker.Step("Verifying the transaction.")),
+    SIGN(new ProgressTracker.Step("Signing the transaction.")),
+    COLLECT_SIGNATURES(new ProgressTracker.Step("Collecting the counterparty's signature.") {
+        @Override
+        public ProgressTracker childProgressTracker() {
+            return CollectSignaturesFlow.Companion.tracker();
+        }
+    }),
+    FINALITY(new ProgressTracker.Step("Notarising and recording the transaction.") {
+        @Override
+        public ProgressTracker childProgressTracker() {
+            return FinalityFlow.Companion.tracker();
+        }
+    }),
+    CHECK_AND_SIGN(new ProgressTracker.Step("Checking and signing the counterparty's transaction.")),
+    RECEIVE_FINALITY(new ProgressTracker.Step("Recording the finalised transaction.")),
+    // The whole flow, from its first phase to the end of its last one.
+    TOTAL(null);
+
+    private final ProgressTracker.Step step;
+
+    FlowPhase(ProgressTracker.Step step) {
+        this.step = step;
+    }
+
+    /**
+     * The progress tracker step of the phase, null for the TOTAL pseudo phase.
+     */
+    public ProgressTracker.Step getStep() {
+        return step;
+    }
+
+    /**
+     * A progress tracker with the steps of the given phases, in order.
+     */
+    public static ProgressTracker tracker(FlowPhase... phases) {
+        ProgressTracker.Step[] steps = new ProgressTracker.Step[phases.length];
+        for (int index = 0; index < phases.length; index++) {
+            steps[index] = phases[index].getStep();
+        }
+        return new ProgressTracker(steps);
+    }
+
+    /**
+     * The progress tracker of the initiating insurance flows: vault query, verification, signing, signature
+     * collection and finality.
+     */
+    public static ProgressTracker initiatorTracker() {
+        return tracker(VAULT_QUERY, VERIFY, SIGN, COLLECT_SIGNATURES, FINALITY);
+    }
+
+    /**
+     * The progress tracker of the responders of the insurance flows: check and sign, then receive finality.
+     */
+    public static ProgressTracker responderTracker() {
+        return tracker(CHECK_AND_SIGN, RECEIVE_FINALITY);
+    }
+}
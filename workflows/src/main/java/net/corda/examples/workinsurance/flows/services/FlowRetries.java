@@ -0,0 +1,47 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry counters of one flow.
+ */
+public class FlowRetries implements FlowRetriesMBean {
+
+    private final LongAdder notaryConflicts = new LongAdder();
+    private final LongAdder softLockConflicts = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    void notaryConflict() {
+        notaryConflicts.increment();
+    }
+
+    void softLockConflict() {
+        softLockConflicts.increment();
+    }
+
+    void exhausted() {
+        exhausted.increment();
+    }
+
+    @Override
+    public long getNotaryConflicts() {
+        return notaryConflicts.sum();
+    }
+
+    @Override
+    public long getSoftLockConflicts() {
+        return softLockConflicts.sum();
+    }
+
+    @Override
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public void reset() {
+        notaryConflicts.reset();
+        softLockConflicts.reset();
+        exhausted.reset();
+    }
+}
@@ -0,0 +1,27 @@
+package net.corda.examples.workinsurance.flows.services;
+
+/**
+ * JMX view of the retries of one flow on conflicts over its input policy.
+ */
+public interface FlowRetriesMBean {
+
+    /**
+     * The attempts retried because the notary found the input policy already consumed.
+     */
+    long getNotaryConflicts();
+
+    /**
+     * The attempts retried because the input policy was reserved by another flow of the node.
+     */
+    long getSoftLockConflicts();
+
+    /**
+     * The runs which failed on a conflict after their last attempt.
+     */
+    long getExhausted();
+
+    /**
+     * Clears the counters.
+     */
+    void reset();
+}
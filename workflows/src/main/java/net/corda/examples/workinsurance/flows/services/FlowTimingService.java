@@ -0,0 +1,93 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import net.corda.core.utilities.ProgressTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node resident latency histograms of the phases of the insurance flows, and counters of their retries.
+ *
+ * Every phase of every flow gets its own histogram, registered on the platform MBean server as
+ * net.corda.examples.workinsurance:type=FlowTiming,node=...,flow=...,phase=..., so the per-phase percentiles can be
+ * read with any JMX client, or through the node's Jolokia agent. The retries of every flow on conflicts over its input
+ * policy are counted under net.corda.examples.workinsurance:type=FlowRetries,node=...,flow=....
+ */
+@CordaService
+public class FlowTimingService extends SingletonSerializeAsToken {
+
+    private final static Logger logger = LoggerFactory.getLogger(FlowTimingService.class);
+
+    private final static String JMX_DOMAIN = "net.corda.examples.workinsurance";
+
+    private final String nodeName;
+    private final Map<String, PhaseTiming> timings = new ConcurrentHashMap<>();
+    private final Map<String, FlowRetries> retries = new ConcurrentHashMap<>();
+
+    public FlowTimingService(AppServiceHub serviceHub) {
+        this.nodeName = serviceHub.getMyInfo().getLegalIdentities().get(0).getName().toString();
+    }
+
+    /**
+     * Starts timing a run of the given flow, moving the given progress tracker along with the phases.
+     */
+    public PhaseTimer timer(FlowLogic<?> flow, ProgressTracker progressTracker) {
+        return new PhaseTimer(this, flow.getClass().getSimpleName(), progressTracker);
+    }
+
+    /**
+     * The retry policy of a run of the given flow.
+     */
+    public ConflictRetry retry(FlowLogic<?> flow) {
+        return new ConflictRetry(this, flow.getClass().getSimpleName());
+    }
+
+    /**
+     * The histogram of the given phase of the given flow, created and registered with JMX on first use.
+     */
+    public PhaseTiming timing(String flowName, FlowPhase phase) {
+        return timings.computeIfAbsent(flowName + '/' + phase,
+                key -> register(new PhaseTiming(), "FlowTiming", ",flow=" + flowName + ",phase=" + phase));
+    }
+
+    /**
+     * The retry counters of the given flow, created and registered with JMX on first use.
+     */
+    public FlowRetries retries(String flowName) {
+        return retries.computeIfAbsent(flowName, key -> register(new FlowRetries(), "FlowRetries", ",flow=" + flowName));
+    }
+
+    void record(String flowName, FlowPhase phase, long nanos) {
+        if (nanos >= 0) {
+            timing(flowName, phase).record(nanos);
+        }
+    }
+
+    private <T> T register(T mbean, String type, String keys) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=" + type + ",node=" + ObjectName.quote(nodeName) + keys);
+            try {
+                server.registerMBean(mbean, name);
+            } catch (InstanceAlreadyExistsException e) {
+                // Left behind by a previous instance of the node in this JVM, e.g. a restarted mock node.
+                server.unregisterMBean(name);
+                server.registerMBean(mbean, name);
+            }
+        } catch (JMException e) {
+            logger.warn("Unable to register the " + type + keys + " MBean with JMX: " + e.getMessage());
+        }
+        return mbean;
+    }
+}
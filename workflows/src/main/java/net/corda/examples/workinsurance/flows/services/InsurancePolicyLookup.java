@@ -0,0 +1,237 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.identity.Party;
+import net.corda.core.node.ServiceHub;
+import net.corda.core.node.services.StatesNotAvailableException;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.Builder;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.node.services.vault.SortAttribute;
+import net.corda.core.schemas.PersistentState;
+import net.corda.core.utilities.NonEmptySet;
+import net.corda.examples.workinsurance.schema.InsuranceSchemaMode;
+import net.corda.examples.workinsurance.schema.PersistentInsurance;
+import net.corda.examples.workinsurance.schema.PersistentInsuranceV2;
+import net.corda.examples.workinsurance.states.InsuranceState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Collections.singletonList;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_SIZE;
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.getField;
+
+/**
+ * Resolves the current (unconsumed) InsuranceState of a policy.
+ *
+ * The policy is first looked up in the node's PolicyIndexService. On a miss, the policyNumber and insuree are pushed
+ * down to the indexed columns of the custom tables, so the vault only loads the matching policy instead of every
+ * InsuranceState held by the node. Nodes which map InsuranceSchemaV2 query its INSURANCE_DETAIL_V2 table, which holds
+ * the policyNumber in the policy row.
+ *
+ * Flows about to consume the policy reserve it instead, with a soft lock in the vault, so two flows of the node never
+ * build transactions on the same version of a policy: the second one fails fast, before any signature is collected,
+ * rather than at the notary.
+ */
+public class InsurancePolicyLookup {
+
+    private InsurancePolicyLookup(){}
+
+    /**
+     * Returns the unconsumed InsuranceState with the given policyNumber issued to the given insuree.
+     *
+     * @throws IllegalArgumentException if the node holds no such policy.
+     */
+    public static StateAndRef<InsuranceState> findPolicy(ServiceHub serviceHub, String policyNumber, Party insuree) {
+        StateAndRef<InsuranceState> indexedPolicy = serviceHub.cordaService(PolicyIndexService.class).lookup(policyNumber, insuree);
+        if(indexedPolicy != null) {
+            return indexedPolicy;
+        }
+
+        List<StateAndRef<InsuranceState>> insuranceStateAndRefs = serviceHub.getVaultService()
+                .queryBy(InsuranceState.class, policyCriteria(policyNumber, insuree), new PageSpecification(DEFAULT_PAGE_NUM, 1))
+                .getStates();
+
+        if(insuranceStateAndRefs.isEmpty()) {
+            throw new IllegalArgumentException("Insuree Policy Not Found");
+        }
+        return insuranceStateAndRefs.get(0);
+    }
+
+    /**
+     * Returns the unconsumed InsuranceState with the given linearId. The lookup goes through the vault's linear state
+     * table, with no custom schema join, and falls back to the policy number for the policies issued before
+     * InsuranceState was a LinearState.
+     *
+     * @throws IllegalArgumentException if the node holds no such policy.
+     */
+    public static StateAndRef<InsuranceState> findPolicy(ServiceHub serviceHub, UniqueIdentifier policyId) {
+        QueryCriteria policyIdCriteria = new QueryCriteria.LinearStateQueryCriteria(null, singletonList(policyId));
+        List<StateAndRef<InsuranceState>> insuranceStateAndRefs = serviceHub.getVaultService()
+                .queryBy(InsuranceState.class, policyIdCriteria, new PageSpecification(DEFAULT_PAGE_NUM, 1))
+                .getStates();
+
+        if(insuranceStateAndRefs.isEmpty()) {
+            StateAndRef<InsuranceState> legacyPolicy = findLegacyPolicy(serviceHub, policyId);
+            if(legacyPolicy == null) {
+                throw new IllegalArgumentException("Insuree Policy Not Found");
+            }
+            return legacyPolicy;
+        }
+        return insuranceStateAndRefs.get(0);
+    }
+
+    /**
+     * Returns the unconsumed InsuranceState with the given policyNumber issued to the given insuree, soft locked with
+     * the given lockId, which is the flow's run id. The policies reserved with the lockId by a previous attempt of the
+     * flow are released first.
+     *
+     * @throws StatesNotAvailableException if the policy is reserved by another flow.
+     * @throws IllegalArgumentException if the node holds no such policy.
+     */
+    public static StateAndRef<InsuranceState> reservePolicy(ServiceHub serviceHub, UUID lockId, String policyNumber, Party insuree) throws StatesNotAvailableException {
+        serviceHub.getVaultService().softLockRelease(lockId, null);
+        StateAndRef<InsuranceState> policy = serviceHub.cordaService(PolicyIndexService.class).lookup(policyNumber, insuree);
+        if(policy == null) {
+            policy = firstUnlocked(serviceHub, lockId, policyCriteria(policyNumber, insuree));
+        }
+        return reserve(serviceHub, lockId, policy);
+    }
+
+    /**
+     * Returns the unconsumed InsuranceState with the given linearId, soft locked with the given lockId, which is the
+     * flow's run id. The policies reserved with the lockId by a previous attempt of the flow are released first. As in
+     * findPolicy, the policies issued before InsuranceState was a LinearState are found by their policy number.
+     *
+     * @throws StatesNotAvailableException if the policy is reserved by another flow.
+     * @throws IllegalArgumentException if the node holds no such policy.
+     */
+    public static StateAndRef<InsuranceState> reservePolicy(ServiceHub serviceHub, UUID lockId, UniqueIdentifier policyId) throws StatesNotAvailableException {
+        serviceHub.getVaultService().softLockRelease(lockId, null);
+        QueryCriteria policyIdCriteria = new QueryCriteria.LinearStateQueryCriteria(null, singletonList(policyId));
+        try {
+            return reserve(serviceHub, lockId, firstUnlocked(serviceHub, lockId, policyIdCriteria));
+        } catch (IllegalArgumentException e) {
+            StateAndRef<InsuranceState> legacyPolicy = findLegacyPolicy(serviceHub, policyId);
+            if(legacyPolicy == null) {
+                throw e;
+            }
+            QueryCriteria stateRefCriteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED, null,
+                    singletonList(legacyPolicy.getRef()));
+            return reserve(serviceHub, lockId, firstUnlocked(serviceHub, lockId, stateRefCriteria));
+        }
+    }
+
+    // The unconsumed policy with the given linearId among the policies issued before InsuranceState was a LinearState,
+    // or null. They have no row in the linear state table until their next transaction, and their linearId is derived
+    // from the parties and the policy number, its externalId, so they are found by policy number and derived linearId.
+    private static StateAndRef<InsuranceState> findLegacyPolicy(ServiceHub serviceHub, UniqueIdentifier policyId) {
+        if(policyId.getExternalId() == null) {
+            return null;
+        }
+        List<StateAndRef<InsuranceState>> insuranceStateAndRefs = serviceHub.getVaultService()
+                .queryBy(InsuranceState.class, policyNumberCriteria(policyId.getExternalId()),
+                        new PageSpecification(DEFAULT_PAGE_NUM, DEFAULT_PAGE_SIZE))
+                .getStates();
+        for(StateAndRef<InsuranceState> insuranceStateAndRef : insuranceStateAndRefs) {
+            if(insuranceStateAndRef.getState().getData().getLinearId().getId().equals(policyId.getId())) {
+                return insuranceStateAndRef;
+            }
+        }
+        return null;
+    }
+
+    // The first state matching the criteria which is not soft locked, or soft locked with the given lockId.
+    private static StateAndRef<InsuranceState> firstUnlocked(ServiceHub serviceHub, UUID lockId, QueryCriteria criteria) throws StatesNotAvailableException {
+        QueryCriteria unlockedCriteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED, null, null, null,
+                new QueryCriteria.SoftLockingCondition(QueryCriteria.SoftLockingType.UNLOCKED_AND_SPECIFIED, singletonList(lockId)));
+        List<StateAndRef<InsuranceState>> insuranceStateAndRefs = serviceHub.getVaultService()
+                .queryBy(InsuranceState.class, criteria.and(unlockedCriteria), new PageSpecification(DEFAULT_PAGE_NUM, 1))
+                .getStates();
+        if(!insuranceStateAndRefs.isEmpty()) {
+            return insuranceStateAndRefs.get(0);
+        }
+        if(serviceHub.getVaultService().queryBy(InsuranceState.class, criteria, new PageSpecification(DEFAULT_PAGE_NUM, 1))
+                .getStates().isEmpty()) {
+            throw new IllegalArgumentException("Insuree Policy Not Found");
+        }
+        throw new StatesNotAvailableException("Insuree Policy Reserved By Another Flow", null);
+    }
+
+    // Soft locks the policy, the vault rejects the reservation if another flow holds it or the policy is consumed.
+    private static StateAndRef<InsuranceState> reserve(ServiceHub serviceHub, UUID lockId, StateAndRef<InsuranceState> policy) throws StatesNotAvailableException {
+        serviceHub.getVaultService().softLockReserve(lockId, NonEmptySet.of(policy.getRef()));
+        return policy;
+    }
+
+    /**
+     * Criteria selecting the unconsumed InsuranceState of a policy through the indexed policyNumber and insuree columns.
+     */
+    public static QueryCriteria policyCriteria(String policyNumber, Party insuree) {
+        return policyNumberCriteria(policyNumber).and(insureeCriteria(insuree));
+    }
+
+    /**
+     * Criteria selecting the InsuranceStates with the given policy number, of any insuree, through the indexed
+     * policyNumber column.
+     */
+    public static QueryCriteria policyNumberCriteria(String policyNumber) {
+        return new QueryCriteria.VaultCustomQueryCriteria(
+                Builder.equal(getField("policyNumber", policyEntity(InsuranceSchemaMode.current())), policyNumber));
+    }
+
+    /**
+     * Criteria selecting the InsuranceStates issued to the given insuree through the indexed insuree column.
+     */
+    public static QueryCriteria insureeCriteria(Party insuree) {
+        return insureeCriteria(insuree, InsuranceSchemaMode.current());
+    }
+
+    /**
+     * Criteria selecting the InsuranceStates issued to the given insuree through the indexed insuree column of the
+     * table mapped in the given mode, for RPC clients querying a node whose mode they were told by the node.
+     */
+    public static QueryCriteria insureeCriteria(Party insuree, InsuranceSchemaMode schemaMode) {
+        return new QueryCriteria.VaultCustomQueryCriteria(
+                Builder.equal(getField("insuree", policyEntity(schemaMode)), insuree));
+    }
+
+    /**
+     * Sort of InsuranceStates by the policyNumber column of the custom table, then by state reference so pages are
+     * stable between queries.
+     */
+    public static Sort policyNumberSort() {
+        return policyNumberSort(InsuranceSchemaMode.current());
+    }
+
+    /**
+     * Sort of InsuranceStates by the policyNumber column of the table mapped in the given mode, then by state
+     * reference.
+     */
+    public static Sort policyNumberSort(InsuranceSchemaMode schemaMode) {
+        return new Sort(Arrays.asList(
+                new Sort.SortColumn(new SortAttribute.Custom(policyEntity(schemaMode), "policyNumber"), Sort.Direction.ASC),
+                new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF), Sort.Direction.ASC)));
+    }
+
+    /**
+     * Sort of states by state reference, so the pages of a vault query do not depend on the order the database returns
+     * the rows in.
+     */
+    public static Sort stateRefSort() {
+        return new Sort(singletonList(
+                new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF), Sort.Direction.ASC)));
+    }
+
+    // The custom table queried for policies, INSURANCE_DETAIL_V2 when the mode maps InsuranceSchemaV2.
+    private static Class<? extends PersistentState> policyEntity(InsuranceSchemaMode schemaMode) {
+        return schemaMode.mapsV2() ? PersistentInsuranceV2.class : PersistentInsurance.class;
+    }
+}
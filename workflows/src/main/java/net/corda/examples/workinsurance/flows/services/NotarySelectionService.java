@@ -0,0 +1,136 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.cordapp.CordappConfig;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Chooses the notary of every new policy. All the later transactions of the policy use the notary of its input state.
+ *
+ * The strategy is read from the CorDapp config of the workflows CorDapp:
+ * - notarySelection: FIRST (the default) puts every policy on the first notary, CONSISTENT_HASH spreads the policies
+ *   over the notaries by consistent hashing of their policy number.
+ * - notaries: the X500 names of the notaries to choose from, by default every notary of the network map.
+ * - notaryVirtualNodes: the points of every notary on the hash ring (100), more points spread the policies more evenly.
+ *
+ * With consistent hashing a policy number always maps to the same notary while the notaries do not change. Adding or
+ * removing a notary only moves the policies of the ring arcs it gains or loses, about one policy in N for N notaries,
+ * which RebalanceNotariesFlow moves to their new notary.
+ */
+@CordaService
+public class NotarySelectionService extends SingletonSerializeAsToken {
+
+    private final static Logger logger = LoggerFactory.getLogger(NotarySelectionService.class);
+
+    public static final String STRATEGY_KEY = "notarySelection";
+    public static final String NOTARIES_KEY = "notaries";
+    public static final String VIRTUAL_NODES_KEY = "notaryVirtualNodes";
+
+    public enum Strategy {
+        FIRST,
+        CONSISTENT_HASH
+    }
+
+    private final AppServiceHub serviceHub;
+    private final Strategy strategy;
+    private final List<CordaX500Name> notaryNames;
+    private final int virtualNodes;
+
+    // The ring of the notaries it was built for, rebuilt when the notaries of the network map change.
+    private volatile HashRing ring;
+
+    public NotarySelectionService(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        CordappConfig config = serviceHub.getAppContext().getConfig();
+        this.strategy = config.exists(STRATEGY_KEY)
+                ? Strategy.valueOf(config.getString(STRATEGY_KEY).toUpperCase()) : Strategy.FIRST;
+        this.notaryNames = config.exists(NOTARIES_KEY)
+                ? ((List<?>) config.get(NOTARIES_KEY)).stream().map(name -> CordaX500Name.parse(name.toString())).collect(toList())
+                : null;
+        this.virtualNodes = config.exists(VIRTUAL_NODES_KEY) ? config.getInt(VIRTUAL_NODES_KEY) : 100;
+        logger.info("Notary selection {} over {}", strategy, notaryNames != null ? notaryNames : "every notary of the network map");
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * The notary of the policy with the given policy number.
+     *
+     * @throws IllegalStateException if no notary is known, or a configured notary is not on the network map.
+     */
+    public Party notaryFor(String policyNumber) {
+        List<Party> notaries = notaries();
+        if (strategy == Strategy.FIRST) {
+            return notaries.get(0);
+        }
+        HashRing current = ring;
+        if (current == null || !current.notaries.equals(notaries)) {
+            current = new HashRing(notaries, virtualNodes);
+            ring = current;
+        }
+        return current.notaryFor(policyNumber);
+    }
+
+    /**
+     * The notaries the policies are spread over, in the configured order, or else in the order of their names.
+     */
+    public List<Party> notaries() {
+        List<Party> notaries;
+        if (notaryNames != null) {
+            notaries = new ArrayList<>(notaryNames.size());
+            for (CordaX500Name name : notaryNames) {
+                Party notary = serviceHub.getNetworkMapCache().getNotary(name);
+                if (notary == null) {
+                    throw new IllegalStateException("Notary " + name + " is not on the network map");
+                }
+                notaries.add(notary);
+            }
+        } else {
+            notaries = new ArrayList<>(serviceHub.getNetworkMapCache().getNotaryIdentities());
+            if (strategy == Strategy.CONSISTENT_HASH) {
+                notaries.sort(Comparator.comparing(notary -> notary.getName().toString()));
+            }
+        }
+        if (notaries.isEmpty()) {
+            throw new IllegalStateException("No notary on the network map");
+        }
+        return notaries;
+    }
+
+    private static long hash(String value) {
+        return ByteBuffer.wrap(SecureHash.sha256(value).getBytes()).getLong();
+    }
+
+    private static final class HashRing {
+        private final List<Party> notaries;
+        private final NavigableMap<Long, Party> points = new TreeMap<>();
+
+        HashRing(List<Party> notaries, int virtualNodes) {
+            this.notaries = notaries;
+            for (Party notary : notaries) {
+                for (int point = 0; point < virtualNodes; point++) {
+                    points.put(hash(notary.getName() + "#" + point), notary);
+                }
+            }
+        }
+
+        // The notary of the first point of the ring at or after the hash of the policy number.
+        Party notaryFor(String policyNumber) {
+            Map.Entry<Long, Party> point = points.ceilingEntry(hash(policyNumber));
+            return (point != null ? point : points.firstEntry()).getValue();
+        }
+    }
+}
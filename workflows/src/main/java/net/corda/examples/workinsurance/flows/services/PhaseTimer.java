@@ -0,0 +1,72 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.utilities.ProgressTracker;
+
+import java.util.UUID;
+
+/**
+ * Times the phases of one run of a flow, and moves its progress tracker along with them.
+ *
+ * Starting a phase ends the previous one, and finishing the timer ends the last phase and the TOTAL of the run. A timer
+ * is a local of the flow, so it is checkpointed with it; phases measured across a node restart are not recorded, as
+ * the clock readings of the previous run are meaningless.
+ */
+public class PhaseTimer {
+
+    // Identifies the run of the node, a timer restored from a checkpoint of a previous run stops recording.
+    private static final UUID NODE_RUN = UUID.randomUUID();
+
+    private final FlowTimingService timingService;
+    private final String flowName;
+    private final ProgressTracker progressTracker;
+    private final UUID nodeRun = NODE_RUN;
+    private final long startedAt;
+    private FlowPhase phase;
+    private long phaseStartedAt;
+
+    PhaseTimer(FlowTimingService timingService, String flowName, ProgressTracker progressTracker) {
+        this.timingService = timingService;
+        this.flowName = flowName;
+        this.progressTracker = progressTracker;
+        this.startedAt = System.nanoTime();
+    }
+
+    /**
+     * Ends the current phase, if any, and starts the given one.
+     */
+    public void start(FlowPhase next) {
+        long now = System.nanoTime();
+        endPhase(now);
+        phase = next;
+        phaseStartedAt = now;
+        if (progressTracker != null && next.getStep() != null) {
+            progressTracker.setCurrentStep(next.getStep());
+        }
+    }
+
+    /**
+     * The progress tracker of the sub flow run by the current phase, linked to the flow's progress tracker.
+     */
+    public ProgressTracker childTracker() {
+        ProgressTracker child = progressTracker != null ? progressTracker.getChildProgressTracker(phase.getStep()) : null;
+        return child != null ? child : phase.getStep().childProgressTracker();
+    }
+
+    /**
+     * Ends the current phase and the run of the flow.
+     */
+    public void finish() {
+        long now = System.nanoTime();
+        endPhase(now);
+        phase = null;
+        if (nodeRun.equals(NODE_RUN)) {
+            timingService.record(flowName, FlowPhase.TOTAL, now - startedAt);
+        }
+    }
+
+    private void endPhase(long now) {
+        if (phase != null && nodeRun.equals(NODE_RUN)) {
+            timingService.record(flowName, phase, now - phaseStartedAt);
+        }
+    }
+}
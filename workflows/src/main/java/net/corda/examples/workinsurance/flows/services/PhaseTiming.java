@@ -0,0 +1,77 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram of one phase of one flow.
+ *
+ * Flows record into an HdrHistogram Recorder, which is wait free, so concurrent flows never contend on the histogram.
+ * Readers fold the interval recorded since the last read into the accumulated histogram.
+ */
+public class PhaseTiming implements PhaseTimingMBean {
+
+    // Latencies are tracked up to an hour, with 3 significant digits.
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram accumulated = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private Histogram interval;
+
+    void record(long nanos) {
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    /**
+     * A copy of every latency recorded since the last reset.
+     */
+    public synchronized Histogram snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        accumulated.add(interval);
+        return accumulated.copy();
+    }
+
+    @Override
+    public long getCount() {
+        return snapshot().getTotalCount();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return snapshot().getMean();
+    }
+
+    @Override
+    public long getP50Micros() {
+        return snapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90Micros() {
+        return snapshot().getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99Micros() {
+        return snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999Micros() {
+        return snapshot().getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return snapshot().getMaxValue();
+    }
+
+    @Override
+    public synchronized void reset() {
+        recorder.reset();
+        accumulated.reset();
+    }
+}
@@ -0,0 +1,26 @@
+package net.corda.examples.workinsurance.flows.services;
+
+/**
+ * JMX view of the latency histogram of one phase of one flow, in microseconds.
+ */
+public interface PhaseTimingMBean {
+
+    long getCount();
+
+    double getMeanMicros();
+
+    long getP50Micros();
+
+    long getP90Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    /**
+     * Clears the recorded latencies.
+     */
+    void reset();
+}
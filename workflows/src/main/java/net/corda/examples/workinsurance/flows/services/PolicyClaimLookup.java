@@ -0,0 +1,116 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import kotlin.jvm.functions.Function1;
+import net.corda.core.node.ServiceHub;
+import net.corda.core.node.services.Vault;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.enums.Module;
+import net.corda.examples.workinsurance.flows.models.PolicyClaim;
+import net.corda.examples.workinsurance.schema.ClaimPersistenceMode;
+import net.corda.examples.workinsurance.schema.InsuranceSchemaMode;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TemporalType;
+import java.util.Date;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reads the claims held in the unconsumed policies from the claim rows of the custom tables, filtered on their indexed
+ * columns and paged in the database.
+ *
+ * A claim row is current when it is held by an unconsumed policy, and no later entry of the claim history of the policy
+ * has the same claim number. In the FULL ClaimPersistenceMode every version of the policy holds the whole history, so
+ * only the rows of the unconsumed version are read, joined by their state reference; this includes the policies
+ * issued before InsuranceState was a LinearState, which have no row in the linear state table. In the DELTA mode a
+ * claim has a single row, held by the version which appended it, so the row is joined to the unconsumed version of its
+ * policy by its policyId.
+ */
+public class PolicyClaimLookup {
+
+    private PolicyClaimLookup(){}
+
+    /**
+     * Returns the current claims matching the given filters, each of which is optional, sorted by policyNumber and
+     * claimNumber, from the given offset. The accident date range includes accidentFrom and excludes accidentTo.
+     */
+    public static List<PolicyClaim> findClaims(ServiceHub serviceHub, String policyNumber, String claimNumber,
+                                               ClaimStatus status, Date accidentFrom, Date accidentTo,
+                                               int offset, int limit) {
+        boolean v2 = InsuranceSchemaMode.current().mapsV2();
+        String claimTable = v2 ? "CLAIM_DETAIL_V2" : "CLAIM_DETAIL";
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT policy.insuree, claim.proposer, claim.proposee, claim.policyNumber, claim.claimNumber, ")
+                .append("claim.claimDescription, claim.claimAmount, claim.claimStatus, claim.internalPolicyNo, ")
+                .append("claim.accidentDate, claim.episodeDate, claim.accidentType, claim.module ")
+                .append("FROM ").append(claimTable).append(" claim ");
+        String policyRef;
+        String samePolicy;
+        if (ClaimPersistenceMode.current() == ClaimPersistenceMode.FULL) {
+            policyRef = "claim";
+            samePolicy = "later.transaction_id = claim.transaction_id AND later.output_index = claim.output_index";
+        } else {
+            sql.append("JOIN VAULT_LINEAR_STATES linear ON linear.uuid = claim.policyId ");
+            policyRef = "linear";
+            samePolicy = "later.policyId = claim.policyId";
+        }
+        sql.append("JOIN VAULT_STATES state ON state.transaction_id = ").append(policyRef).append(".transaction_id ")
+                .append("AND state.output_index = ").append(policyRef).append(".output_index ")
+                .append("JOIN ").append(v2 ? "INSURANCE_DETAIL_V2" : "INSURANCE_DETAIL").append(" policy ")
+                .append("ON policy.transaction_id = ").append(policyRef).append(".transaction_id ")
+                .append("AND policy.output_index = ").append(policyRef).append(".output_index ")
+                .append("WHERE state.state_status = :unconsumed ");
+        if (policyNumber != null) {
+            sql.append("AND claim.policyNumber = :policyNumber ");
+        }
+        if (claimNumber != null) {
+            sql.append("AND claim.claimNumber = :claimNumber ");
+        }
+        if (status != null) {
+            sql.append("AND claim.claimStatus = :status ");
+        }
+        if (accidentFrom != null) {
+            sql.append("AND claim.accidentDate >= :accidentFrom ");
+        }
+        if (accidentTo != null) {
+            sql.append("AND claim.accidentDate < :accidentTo ");
+        }
+        sql.append("AND NOT EXISTS (SELECT 1 FROM ").append(claimTable).append(" later ")
+                .append("WHERE ").append(samePolicy).append(" AND later.claimNumber = claim.claimNumber ")
+                .append("AND later.entryIndex > claim.entryIndex) ")
+                .append("ORDER BY claim.policyNumber, claim.claimNumber, claim.id");
+
+        return serviceHub.withEntityManager((Function1<EntityManager, List<PolicyClaim>>) entityManager -> {
+            Query query = entityManager.createNativeQuery(sql.toString());
+            query.setParameter("unconsumed", Vault.StateStatus.UNCONSUMED.ordinal());
+            if (policyNumber != null) query.setParameter("policyNumber", policyNumber);
+            if (claimNumber != null) query.setParameter("claimNumber", claimNumber);
+            if (status != null) query.setParameter("status", status.name());
+            if (accidentFrom != null) query.setParameter("accidentFrom", accidentFrom, TemporalType.TIMESTAMP);
+            if (accidentTo != null) query.setParameter("accidentTo", accidentTo, TemporalType.TIMESTAMP);
+            query.setFirstResult(offset);
+            query.setMaxResults(limit);
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = query.getResultList();
+            return rows.stream().map(PolicyClaimLookup::policyClaim).collect(toList());
+        });
+    }
+
+    private static PolicyClaim policyClaim(Object[] row) {
+        String insuree = (String) row[0];
+        String proposer = (String) row[1];
+        String proposee = (String) row[2];
+        // The insuree proposes the claims and the insurer adjudicates them, so the insurer is the other party.
+        String insurer = insuree != null && insuree.equals(proposer) ? proposee : proposer;
+        return new PolicyClaim((String) row[3], (String) row[4], (String) row[5],
+                row[6] == null ? 0 : ((Number) row[6]).intValue(),
+                row[7] == null ? null : ClaimStatus.valueOf((String) row[7]),
+                (String) row[8], (Date) row[9], (Date) row[10],
+                row[11] == null ? null : AccidentType.valueOf((String) row[11]),
+                row[12] == null ? null : Module.valueOf((String) row[12]),
+                insurer, insuree);
+    }
+}
@@ -0,0 +1,205 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.DataFeed;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.node.services.ServiceLifecycleEvent;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.BinaryComparisonOperator;
+import net.corda.core.node.services.vault.ColumnPredicate;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.node.services.vault.SortAttribute;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import net.corda.examples.workinsurance.flows.models.PolicyIndexReport;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+
+/**
+ * Node resident index from (policyNumber, insuree) to the current version of the policy.
+ *
+ * The index is filled from the vault once the node has started its state machine, and kept current from the vault
+ * updates feed, so the claim flows can resolve their input state without querying the database. Until it is filled,
+ * lookups miss and the flows query the vault. A consumed state is removed from the index as
+ * soon as the transaction consuming it is committed.
+ */
+@CordaService
+public class PolicyIndexService extends SingletonSerializeAsToken {
+
+    private final static Logger logger = LoggerFactory.getLogger(PolicyIndexService.class);
+
+    private final static int PAGE_SIZE = 500;
+
+    private final AppServiceHub serviceHub;
+
+    private final Map<PolicyKey, StateAndRef<InsuranceState>> policies = new ConcurrentHashMap<>();
+
+    // States consumed while the initial snapshot is being loaded, which must not be added back to the index.
+    private Set<StateRef> consumedDuringLoad = new HashSet<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PolicyIndexService(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        // The vault is only read once the node has started, so the index never delays the start of the node.
+        serviceHub.register(event -> {
+            if(event == ServiceLifecycleEvent.STATE_MACHINE_STARTED) {
+                load();
+            }
+        });
+    }
+
+    /**
+     * Returns the current version of the policy, or null if the policy is not in the index.
+     */
+    public StateAndRef<InsuranceState> lookup(String policyNumber, Party insuree) {
+        StateAndRef<InsuranceState> policy = policies.get(new PolicyKey(policyNumber, insuree));
+        if(policy == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return policy;
+    }
+
+    /**
+     * Compares the index with the vault. Must be called from within a flow, as it queries the vault.
+     *
+     * An entry is stale if the vault no longer holds its state as unconsumed, and a policy is missing if the vault
+     * holds an unconsumed version of it which is not in the index.
+     */
+    public PolicyIndexReport checkConsistency() {
+        Map<StateRef, StateAndRef<InsuranceState>> indexed = new HashMap<>();
+        policies.values().forEach(policy -> indexed.put(policy.getRef(), policy));
+
+        Set<StateRef> unconsumed = new HashSet<>();
+        forEachUnconsumedPolicy(policy -> unconsumed.add(policy.getRef()));
+
+        int staleEntries = 0;
+        for(StateRef ref : indexed.keySet()) {
+            if(!unconsumed.contains(ref)) staleEntries++;
+        }
+        int missingEntries = 0;
+        for(StateRef ref : unconsumed) {
+            if(!indexed.containsKey(ref)) missingEntries++;
+        }
+
+        if(staleEntries > 0 || missingEntries > 0) {
+            logger.warn("Policy index is inconsistent with the vault: {} stale and {} missing entries", staleEntries, missingEntries);
+        }
+        return new PolicyIndexReport(policies.size(), hits.get(), misses.get(), staleEntries, missingEntries);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return policies.size();
+    }
+
+    private void load() {
+        // Only the updates are used, the unconsumed policies are loaded page by page instead of from the snapshot.
+        DataFeed<Vault.Page<InsuranceState>, Vault.Update<InsuranceState>> feed = serviceHub.getVaultService()
+                .trackBy(InsuranceState.class, new QueryCriteria.VaultQueryCriteria(), new PageSpecification(DEFAULT_PAGE_NUM, 1));
+        feed.getUpdates().subscribe(this::apply, error -> logger.error("Policy index stopped receiving vault updates", error));
+
+        forEachUnconsumedPolicy(this::addFromSnapshot);
+
+        synchronized (this) {
+            consumedDuringLoad = null;
+        }
+        logger.info("Policy index loaded with {} policies", policies.size());
+    }
+
+    private synchronized void addFromSnapshot(StateAndRef<InsuranceState> policy) {
+        if(consumedDuringLoad != null && consumedDuringLoad.contains(policy.getRef())) return;
+        policies.putIfAbsent(keyOf(policy), policy);
+    }
+
+    private synchronized void apply(Vault.Update<InsuranceState> update) {
+        for(StateAndRef<InsuranceState> consumed : update.getConsumed()) {
+            policies.remove(keyOf(consumed), consumed);
+            if(consumedDuringLoad != null) consumedDuringLoad.add(consumed.getRef());
+        }
+        for(StateAndRef<InsuranceState> produced : update.getProduced()) {
+            policies.put(keyOf(produced), produced);
+        }
+    }
+
+    // Pages the unconsumed policies by key: sorted by recorded time and state reference, every page starts at the
+    // recorded time of the last policy read, so a policy consumed meanwhile never shifts the others onto a page already
+    // read. The policies of the last time are read twice.
+    private void forEachUnconsumedPolicy(Consumer<StateAndRef<InsuranceState>> action) {
+        Sort byRecordedTime = new Sort(Arrays.asList(
+                new Sort.SortColumn(new SortAttribute.Standard(Sort.VaultStateAttribute.RECORDED_TIME), Sort.Direction.ASC),
+                new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF), Sort.Direction.ASC)));
+        Instant from = null;
+        int pageNumber = DEFAULT_PAGE_NUM;
+        while(true) {
+            QueryCriteria.TimeCondition recordedFrom = from == null ? null : new QueryCriteria.TimeCondition(
+                    QueryCriteria.TimeInstantType.RECORDED,
+                    new ColumnPredicate.BinaryComparison<>(BinaryComparisonOperator.GREATER_THAN_OR_EQUAL, from));
+            QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED, null, null,
+                    null, null, recordedFrom);
+            Vault.Page<InsuranceState> page = serviceHub.getVaultService().queryBy(InsuranceState.class, criteria,
+                    new PageSpecification(pageNumber, PAGE_SIZE), byRecordedTime);
+            page.getStates().forEach(action);
+            if(page.getStates().size() < PAGE_SIZE) break;
+            Instant last = page.getStatesMetadata().get(page.getStatesMetadata().size() - 1).getRecordedTime();
+            if(last.equals(from)) {
+                // A whole page recorded at the same time, by one large transaction: its next page follows.
+                pageNumber++;
+            } else {
+                from = last;
+                pageNumber = DEFAULT_PAGE_NUM;
+            }
+        }
+    }
+
+    private static PolicyKey keyOf(StateAndRef<InsuranceState> policy) {
+        InsuranceState insuranceState = policy.getState().getData();
+        return new PolicyKey(insuranceState.getWorkerDetail().getPolicyNumber(), insuranceState.getInsuree());
+    }
+
+    private static final class PolicyKey {
+        private final String policyNumber;
+        private final Party insuree;
+
+        PolicyKey(String policyNumber, Party insuree) {
+            this.policyNumber = policyNumber;
+            this.insuree = insuree;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof PolicyKey)) return false;
+            PolicyKey other = (PolicyKey) o;
+            return Objects.equals(policyNumber, other.policyNumber) && Objects.equals(insuree, other.insuree);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(policyNumber, insuree);
+        }
+    }
+}
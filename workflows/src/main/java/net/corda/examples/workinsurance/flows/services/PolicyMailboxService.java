@@ -0,0 +1,273 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.FlowHandle;
+import net.corda.core.node.AppServiceHub;
+import net.corda.core.node.services.CordaService;
+import net.corda.core.serialization.SingletonSerializeAsToken;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.flows.implementations.BatchInsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.BulkAdjudicationClaimFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimDecisionInfo;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Node resident mailboxes serializing the claims and adjudications of every policy.
+ *
+ * Concurrent flows consuming the same version of a policy race at the notary, and all but one fail with a double spend.
+ * Instead, the claims and decisions submitted for a policy are queued in its mailbox, and a single transaction at a
+ * time is in flight per policy. The requests arriving while a transaction is in flight are group committed by the next
+ * one: the queued claims are filed together by a BatchInsuranceClaimFlow and the queued decisions are made together by
+ * a BulkAdjudicationClaimFlow, so the busier a policy, the more requests every transaction carries.
+ *
+ * A group holds at most workinsurance.mailbox.maxGroupSize requests (50), never twice the same claim number. When a
+ * group of several requests fails, its requests are retried one per transaction, so a request failing on its own does
+ * not fail the others.
+ *
+ * Requests are submitted by the flows awaiting them, with the deduplication id of the flow's external operation. A
+ * flow replayed from its checkpoint submits its request again with the same id, and gets the result of the request
+ * already queued or committed instead of filing it twice. The results of the last MAX_COMPLETED_RESULTS completed
+ * requests are kept for such replays.
+ */
+@CordaService
+public class PolicyMailboxService extends SingletonSerializeAsToken {
+
+    private final static Logger logger = LoggerFactory.getLogger(PolicyMailboxService.class);
+
+    public static final String MAX_GROUP_SIZE_PROPERTY = "workinsurance.mailbox.maxGroupSize";
+
+    private final static int MAX_COMPLETED_RESULTS = 10000;
+
+    private final AppServiceHub serviceHub;
+    private final int maxGroupSize;
+
+    private final Map<MailboxKey, Mailbox> mailboxes = new HashMap<>();
+    // Results of the requests by deduplication id, and the ids of the completed ones, oldest first, to evict them.
+    private final Map<String, CompletableFuture<SignedTransaction>> results = new HashMap<>();
+    private final Deque<String> completedIds = new ArrayDeque<>();
+    // Starts the group commits, outside of the flow state machine's threads which complete them.
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "policy-mailbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+
+    public PolicyMailboxService(AppServiceHub serviceHub) {
+        this.serviceHub = serviceHub;
+        this.maxGroupSize = Integer.getInteger(MAX_GROUP_SIZE_PROPERTY, 50);
+    }
+
+    /**
+     * Queues a claim against one of our policies, completed with the transaction which files it. A request already
+     * submitted with the same deduplication id is not queued again, its result is returned instead.
+     */
+    public CompletableFuture<SignedTransaction> submitClaim(String deduplicationId, String policyNumber, ClaimInfo claimInfo) {
+        Party insuree = serviceHub.getMyInfo().getLegalIdentities().get(0);
+        return submit(deduplicationId, new MailboxKey(policyNumber, insuree),
+                new Request(RequestKind.CLAIM, claimInfo.getClaimNumber(), claimInfo));
+    }
+
+    /**
+     * Queues a decision on a claim of the insuree's policy, completed with the transaction which adjudicates it. A
+     * request already submitted with the same deduplication id is not queued again, its result is returned instead.
+     */
+    public CompletableFuture<SignedTransaction> submitDecision(String deduplicationId, String policyNumber, Party insuree,
+                                                               ClaimDecisionInfo decision) {
+        return submit(deduplicationId, new MailboxKey(policyNumber, insuree),
+                new Request(RequestKind.DECISION, decision.getClaimNumber(), decision));
+    }
+
+    /**
+     * The number of requests submitted to the mailboxes.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * The number of transactions started to commit the requests.
+     */
+    public long getTransactions() {
+        return transactions.get();
+    }
+
+    private CompletableFuture<SignedTransaction> submit(String deduplicationId, MailboxKey key, Request request) {
+        synchronized (this) {
+            CompletableFuture<SignedTransaction> submitted = results.putIfAbsent(deduplicationId, request.result);
+            if (submitted != null) {
+                return submitted;
+            }
+            mailboxes.computeIfAbsent(key, k -> new Mailbox()).pending.addLast(request);
+        }
+        requests.incrementAndGet();
+        request.result.whenComplete((transaction, failure) -> completed(deduplicationId));
+        dispatchNext(key);
+        return request.result;
+    }
+
+    // Keeps the result of the completed request for the replays of its flow, evicting the oldest completed results.
+    private synchronized void completed(String deduplicationId) {
+        completedIds.addLast(deduplicationId);
+        while (completedIds.size() > MAX_COMPLETED_RESULTS) {
+            results.remove(completedIds.pollFirst());
+        }
+    }
+
+    // Starts the next group commit of the mailbox, unless one is in flight or the mailbox is empty.
+    private void dispatchNext(MailboxKey key) {
+        List<Request> group;
+        synchronized (this) {
+            Mailbox mailbox = mailboxes.get(key);
+            if (mailbox == null || mailbox.inFlight) {
+                return;
+            }
+            if (mailbox.pending.isEmpty()) {
+                mailboxes.remove(key);
+                return;
+            }
+            group = nextGroup(mailbox);
+            mailbox.inFlight = true;
+        }
+        dispatcher.execute(() -> start(key, group));
+    }
+
+    // The longest run of requests of the same kind at the head of the mailbox, without a repeated claim number.
+    private List<Request> nextGroup(Mailbox mailbox) {
+        List<Request> group = new ArrayList<>();
+        Set<String> claimNumbers = new HashSet<>();
+        Request head = mailbox.pending.pollFirst();
+        group.add(head);
+        claimNumbers.add(head.claimNumber);
+        while (!head.isolated && group.size() < maxGroupSize) {
+            Request next = mailbox.pending.peekFirst();
+            if (next == null || next.isolated || next.kind != head.kind || !claimNumbers.add(next.claimNumber)) {
+                break;
+            }
+            group.add(mailbox.pending.pollFirst());
+        }
+        return group;
+    }
+
+    private void start(MailboxKey key, List<Request> group) {
+        try {
+            FlowHandle<SignedTransaction> handle = serviceHub.startFlow(flowOf(key, group));
+            transactions.incrementAndGet();
+            handle.getReturnValue().then(done -> {
+                dispatcher.execute(() -> committed(key, group, done));
+                return null;
+            });
+        } catch (Exception e) {
+            failed(key, group, e);
+        }
+    }
+
+    private void committed(MailboxKey key, List<Request> group, Future<SignedTransaction> done) {
+        try {
+            SignedTransaction transaction = done.get();
+            group.forEach(request -> request.result.complete(transaction));
+            release(key, Collections.emptyList());
+        } catch (ExecutionException e) {
+            failed(key, group, e.getCause() != null ? e.getCause() : e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed(key, group, e);
+        }
+    }
+
+    private void failed(MailboxKey key, List<Request> group, Throwable failure) {
+        if (group.size() == 1) {
+            group.get(0).result.completeExceptionally(failure);
+            release(key, Collections.emptyList());
+        } else {
+            logger.warn("Group commit of {} requests on policy {} failed, retrying them one by one: {}",
+                    group.size(), key.policyNumber, failure.getMessage());
+            group.forEach(request -> request.isolated = true);
+            release(key, group);
+        }
+    }
+
+    // Ends the group commit in flight, puts the given requests back at the head of the mailbox and starts the next one.
+    private void release(MailboxKey key, List<Request> requeued) {
+        synchronized (this) {
+            Mailbox mailbox = mailboxes.get(key);
+            mailbox.inFlight = false;
+            for (int index = requeued.size() - 1; index >= 0; index--) {
+                mailbox.pending.addFirst(requeued.get(index));
+            }
+        }
+        dispatchNext(key);
+    }
+
+    private static FlowLogic<SignedTransaction> flowOf(MailboxKey key, List<Request> group) {
+        if (group.get(0).kind == RequestKind.CLAIM) {
+            List<ClaimInfo> claimInfos = group.stream().map(request -> (ClaimInfo) request.payload).collect(toList());
+            return new BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator(claimInfos, key.policyNumber);
+        }
+        List<ClaimDecisionInfo> decisions = group.stream().map(request -> (ClaimDecisionInfo) request.payload).collect(toList());
+        return new BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator(decisions, key.policyNumber, key.insuree);
+    }
+
+    private enum RequestKind {
+        CLAIM,
+        DECISION
+    }
+
+    private static final class Request {
+        private final RequestKind kind;
+        private final String claimNumber;
+        private final Object payload;
+        private final CompletableFuture<SignedTransaction> result = new CompletableFuture<>();
+        // Set once the request failed as part of a group, so it is committed on its own.
+        private boolean isolated;
+
+        private Request(RequestKind kind, String claimNumber, Object payload) {
+            this.kind = kind;
+            this.claimNumber = claimNumber;
+            this.payload = payload;
+        }
+    }
+
+    private static final class Mailbox {
+        private final Deque<Request> pending = new ArrayDeque<>();
+        private boolean inFlight;
+    }
+
+    private static final class MailboxKey {
+        private final String policyNumber;
+        private final Party insuree;
+
+        MailboxKey(String policyNumber, Party insuree) {
+            this.policyNumber = policyNumber;
+            this.insuree = insuree;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof MailboxKey)) return false;
+            MailboxKey other = (MailboxKey) o;
+            return Objects.equals(policyNumber, other.policyNumber) && Objects.equals(insuree, other.insuree);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(policyNumber, insuree);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.corda.examples.workinsurance.flows.services;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.crypto.TransactionSignature;
+import net.corda.core.flows.FinalityFlow;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.FlowSession;
+import net.corda.core.flows.NotaryException;
+import net.corda.core.flows.NotaryFlow;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Finality of the flows retrying their transaction on a conflict, over a single session with the counterparty.
+ *
+ * The counterparty signs the transaction of every attempt, so the initiator gets it notarised before finality and
+ * tells the counterparty whether it was. When the notary rejected it, the counterparty waits on the same session for
+ * the transaction of the next attempt, instead of waiting for the finality of a transaction which is never notarised.
+ *
+ * Telling the counterparty is version 2 of the protocol of these flows. A counterparty running version 1 of the
+ * CorDapp gets the transaction recorded by FinalityFlow alone, as before, and its flow ends with the first attempt, so
+ * a notary conflict found once it signed is not retried.
+ */
+public class RetryableFinality {
+
+    /**
+     * The version of the initiating flows which tell the counterparty whether their transaction was notarised.
+     */
+    public static final int RETRYING_FLOW_VERSION = 2;
+
+    private RetryableFinality(){}
+
+    /**
+     * Gets the fully signed transaction notarised, then recorded by us and by the counterparty.
+     *
+     * @throws NotaryException if the notary rejected the transaction, once the counterparty is told so.
+     * @throws FlowException if the notary rejected the transaction signed by a counterparty running version 1, which
+     * cannot sign another attempt.
+     */
+    @Suspendable
+    public static SignedTransaction notariseAndRecord(FlowLogic<?> flow, SignedTransaction fullySignedTransaction,
+                                                      FlowSession session, ProgressTracker progressTracker) throws FlowException {
+        if (!retriesOnSession(session)) {
+            try {
+                return flow.subFlow(new FinalityFlow(fullySignedTransaction, singletonList(session), progressTracker));
+            } catch (NotaryException e) {
+                throw new FlowException("The notary rejected the transaction and the counterparty runs version "
+                        + session.getCounterpartyFlowInfo().getFlowVersion() + " of the flow, which cannot be retried", e);
+            }
+        }
+        List<TransactionSignature> notarySignatures;
+        try {
+            notarySignatures = flow.subFlow(new NotaryFlow.Client(fullySignedTransaction));
+        } catch (NotaryException e) {
+            session.send(false);
+            throw e;
+        }
+        session.send(true);
+        // FinalityFlow does not notarise a transaction which already holds the signature of its notary.
+        return flow.subFlow(new FinalityFlow(fullySignedTransaction.withAdditionalSignatures(notarySignatures),
+                singletonList(session), progressTracker));
+    }
+
+    @Suspendable
+    public static SignedTransaction notariseAndRecord(FlowLogic<?> flow, SignedTransaction fullySignedTransaction,
+                                                      FlowSession session) throws FlowException {
+        return notariseAndRecord(flow, fullySignedTransaction, session, FinalityFlow.Companion.tracker());
+    }
+
+    /**
+     * Whether the transaction last signed for the counterparty was notarised. Otherwise the counterparty proposes the
+     * transaction of its next attempt, or ends its flow. A counterparty running version 1 tells nothing, and records the
+     * transaction it proposed.
+     */
+    @Suspendable
+    public static boolean receiveNotarised(FlowSession session) throws FlowException {
+        if (!retriesOnSession(session)) {
+            return true;
+        }
+        return session.receive(Boolean.class).unwrap(notarised -> notarised);
+    }
+
+    @Suspendable
+    private static boolean retriesOnSession(FlowSession session) throws FlowException {
+        return session.getCounterpartyFlowInfo().getFlowVersion() >= RETRYING_FLOW_VERSION;
+    }
+}
@@ -0,0 +1,142 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.implementations.BatchInsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class BatchInsuranceClaimFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+    )));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    private final Date accidentDate = new Date(2019,10,12);
+    private final ClaimInfo firstClaimInfo = new ClaimInfo("N1", "Minor accident", 200,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+    private final ClaimInfo secondClaimInfo = new ClaimInfo("N2", "Minor accident", 300,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+    private final ClaimInfo thirdClaimInfo = new ClaimInfo("N3", "Major accident", 4000,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+
+    private final WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    private UniqueIdentifier issuePolicy() throws Exception {
+        InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20, workerInfo);
+        CordaFuture<SignedTransaction> future = a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        return future.get().getTx().outputsOfType(InsuranceState.class).get(0).getLinearId();
+    }
+
+    @Test
+    public void transactionConstructedByFlowAppendsAllTheClaimsInOneOutput() throws Exception {
+        issuePolicy();
+
+        List<ClaimInfo> claimInfos = ImmutableList.of(firstClaimInfo, secondClaimInfo, thirdClaimInfo);
+        CordaFuture<SignedTransaction> future = b.startFlow(new BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator(claimInfos, workerInfo.getPolicyNumber()));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        assertEquals(1, signedTransaction.getTx().getInputs().size());
+        assertEquals(1, signedTransaction.getTx().getOutputStates().size());
+        InsuranceState output = signedTransaction.getTx().outputsOfType(InsuranceState.class).get(0);
+
+        assertEquals(0, output.getPreviousClaimCount());
+        assertEquals(claimInfos.size(), output.getClaims().size());
+        for (int i = 0; i < claimInfos.size(); i++) {
+            Claim claim = output.getClaims().get(i);
+            assertEquals(claimInfos.get(i).getClaimNumber(), claim.getClaimNumber());
+            assertEquals(ClaimStatus.Proposal, claim.getClaimStatus());
+        }
+    }
+
+    @Test
+    public void transactionConstructedByFlowHasOneAddClaimCommandWithTheIssuerAndTheOwnerAsSigners() throws Exception {
+        UniqueIdentifier policyId = issuePolicy();
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator(
+                ImmutableList.of(firstClaimInfo, secondClaimInfo), policyId));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        assertEquals(1, signedTransaction.getTx().getCommands().size());
+        Command command = signedTransaction.getTx().getCommands().get(0);
+
+        assert(command.getValue() instanceof InsuranceContract.Commands.AddClaim);
+        assertEquals(2, command.getSigners().size());
+        assertTrue(command.getSigners().contains(a.getInfo().getLegalIdentities().get(0).getOwningKey()));
+        assertTrue(command.getSigners().contains(b.getInfo().getLegalIdentities().get(0).getOwningKey()));
+        assertEquals(policyId, signedTransaction.getTx().outputsOfType(InsuranceState.class).get(0).getLinearId());
+    }
+
+    @Test
+    public void transactionIsRecordedByBothParties() throws Exception {
+        issuePolicy();
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator(
+                ImmutableList.of(firstClaimInfo, secondClaimInfo), workerInfo.getPolicyNumber()));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        for (StartedMockNode node : ImmutableList.of(a, b)) {
+            assertEquals(signedTransaction, node.getServices().getValidatedTransactions().getTransaction(signedTransaction.getId()));
+        }
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void flowFailsForAnEmptyBatch() throws Exception {
+        issuePolicy();
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator(
+                Collections.emptyList(), workerInfo.getPolicyNumber()));
+        network.runNetwork();
+        future.get();
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void flowFailsForARepeatedClaimNumber() throws Exception {
+        issuePolicy();
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator(
+                ImmutableList.of(firstClaimInfo, firstClaimInfo), workerInfo.getPolicyNumber()));
+        network.runNetwork();
+        future.get();
+    }
+}
@@ -0,0 +1,154 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.implementations.BatchInsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.BulkAdjudicationClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimDecisionInfo;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class BulkAdjudicationClaimFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+    )));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    private final Date accidentDate = new Date(2019,10,12);
+    private final WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+    private final InsuranceDetailInfo insuranceDetailInfo = new InsuranceDetailInfo("InsuranceCompanyNr", "InsuranceCompanyPolicyNr", "Field");
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    private UniqueIdentifier issuePolicyWithClaims(String... claimNumbers) throws Exception {
+        CordaFuture<SignedTransaction> issueFuture = a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(
+                new InsuranceInfo(20000, 20, workerInfo), b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        UniqueIdentifier policyId = issueFuture.get().getTx().outputsOfType(InsuranceState.class).get(0).getLinearId();
+
+        ImmutableList.Builder<ClaimInfo> claimInfos = ImmutableList.builder();
+        for (String claimNumber : claimNumbers) {
+            claimInfos.add(new ClaimInfo(claimNumber, "Minor accident", 200,
+                    "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital"));
+        }
+        CordaFuture<SignedTransaction> claimFuture = b.startFlow(new BatchInsuranceClaimFlow.BatchInsuranceClaimInitiator(claimInfos.build(), policyId));
+        network.runNetwork();
+        claimFuture.get();
+        return policyId;
+    }
+
+    @Test
+    public void transactionConstructedByFlowAdjudicatesEveryClaimInOneOutput() throws Exception {
+        UniqueIdentifier policyId = issuePolicyWithClaims("N1", "N2", "N3");
+
+        BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator flow = new BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator(ImmutableList.of(
+                new ClaimDecisionInfo("N1", ClaimStatus.Accepted, insuranceDetailInfo),
+                new ClaimDecisionInfo("N3", ClaimStatus.Rejected, null)), policyId);
+        CordaFuture<SignedTransaction> future = a.startFlow(flow);
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        assertEquals(1, signedTransaction.getTx().getInputs().size());
+        assertEquals(1, signedTransaction.getTx().getOutputStates().size());
+        InsuranceState output = signedTransaction.getTx().outputsOfType(InsuranceState.class).get(0);
+
+        assertEquals(3, output.getPreviousClaimCount());
+        assertEquals(5, output.getClaims().size());
+        Claim accepted = output.getClaims().get(3);
+        assertEquals("N1", accepted.getClaimNumber());
+        assertEquals(ClaimStatus.Accepted, accepted.getClaimStatus());
+        assertNotNull(accepted.getInsuranceDetail());
+        Claim rejected = output.getClaims().get(4);
+        assertEquals("N3", rejected.getClaimNumber());
+        assertEquals(ClaimStatus.Rejected, rejected.getClaimStatus());
+        assertNull(rejected.getInsuranceDetail());
+    }
+
+    @Test
+    public void transactionConstructedByFlowHasOneAdjudicateClaimsCommandWithBothPartiesAsSigners() throws Exception {
+        UniqueIdentifier policyId = issuePolicyWithClaims("N1", "N2");
+
+        CordaFuture<SignedTransaction> future = a.startFlow(new BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator(ImmutableList.of(
+                new ClaimDecisionInfo("N1", ClaimStatus.Rejected, null),
+                new ClaimDecisionInfo("N2", ClaimStatus.Rejected, null)), policyId));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        assertEquals(1, signedTransaction.getTx().getCommands().size());
+        Command command = signedTransaction.getTx().getCommands().get(0);
+
+        assert(command.getValue() instanceof InsuranceContract.Commands.AdjudicateClaims);
+        assertEquals(2, command.getSigners().size());
+        assertTrue(command.getSigners().contains(a.getInfo().getLegalIdentities().get(0).getOwningKey()));
+        assertTrue(command.getSigners().contains(b.getInfo().getLegalIdentities().get(0).getOwningKey()));
+    }
+
+    @Test
+    public void flowSelectsThePolicyWithTheGivenPolicyNumber() throws Exception {
+        issuePolicyWithClaims("N1");
+
+        CordaFuture<SignedTransaction> future = a.startFlow(new BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator(ImmutableList.of(
+                new ClaimDecisionInfo("N1", ClaimStatus.Accepted, insuranceDetailInfo)),
+                workerInfo.getPolicyNumber(), b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        InsuranceState output = signedTransaction.getTx().outputsOfType(InsuranceState.class).get(0);
+        assertEquals(workerInfo.getPolicyNumber(), output.getWorkerDetail().getPolicyNumber());
+        assertEquals(ClaimStatus.Accepted, output.getClaims().get(1).getClaimStatus());
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void flowFailsForAClaimAdjudicatedTwice() throws Exception {
+        UniqueIdentifier policyId = issuePolicyWithClaims("N1");
+
+        CordaFuture<SignedTransaction> future = a.startFlow(new BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator(ImmutableList.of(
+                new ClaimDecisionInfo("N1", ClaimStatus.Accepted, insuranceDetailInfo),
+                new ClaimDecisionInfo("N1", ClaimStatus.Rejected, null)), policyId));
+        network.runNetwork();
+        future.get();
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void flowFailsForAnAcceptanceWithoutInsuranceDetail() throws Exception {
+        UniqueIdentifier policyId = issuePolicyWithClaims("N1");
+
+        CordaFuture<SignedTransaction> future = a.startFlow(new BulkAdjudicationClaimFlow.BulkAdjudicationClaimInitiator(ImmutableList.of(
+                new ClaimDecisionInfo("N1", ClaimStatus.Accepted, null)), policyId));
+        network.runNetwork();
+        future.get();
+    }
+}
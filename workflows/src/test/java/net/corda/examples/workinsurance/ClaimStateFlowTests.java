@@ -0,0 +1,145 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.Command;
+import net.corda.core.flows.FlowException;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.contracts.ClaimContract;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.implementations.AcceptClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.implementations.ProposeClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.RejectClaimFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.states.ClaimState;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+
+import static net.corda.testing.common.internal.ParametersUtilitiesKt.testNetworkParameters;
+import static org.junit.Assert.*;
+
+public class ClaimStateFlowTests {
+    // Reference states need a minimum platform version of 4.
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+    )).withNetworkParameters(testNetworkParameters(Collections.emptyList(), 4)));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    private final Date accidentDate = new Date(2019,10,12);
+    private final ClaimInfo claimInfo = new ClaimInfo("N1", "Minor accident", 200,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+
+    private final WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+    private final InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20, workerInfo);
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    private SignedTransaction issueAndProposeClaim() throws Exception {
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new ProposeClaimFlow.ProposeClaimInitiator(claimInfo, workerInfo.getPolicyNumber()));
+        network.runNetwork();
+        return future.get();
+    }
+
+    @Test
+    public void proposeClaimReferencesThePolicyWithoutConsumingIt() throws Exception {
+        SignedTransaction signedTransaction = issueAndProposeClaim();
+
+        assertEquals(0, signedTransaction.getTx().getInputs().size());
+        assertEquals(1, signedTransaction.getTx().getReferences().size());
+
+        ClaimState output = signedTransaction.getTx().outputsOfType(ClaimState.class).get(0);
+        assertEquals(claimInfo.getClaimNumber(), output.getClaim().getClaimNumber());
+        assertEquals(ClaimStatus.Proposal, output.getClaim().getClaimStatus());
+        assertEquals(workerInfo.getPolicyNumber(), output.getPolicyNumber());
+
+        Command command = signedTransaction.getTx().getCommands().get(0);
+        assert(command.getValue() instanceof ClaimContract.Commands.ProposeClaim);
+
+        // The policy is still unconsumed and holds no claims.
+        for(StartedMockNode node : ImmutableList.of(a, b)) {
+            InsuranceState policy = node.getServices().getVaultService().queryBy(InsuranceState.class).getStates().get(0).getState().getData();
+            assertNull(policy.getClaims());
+        }
+    }
+
+    @Test
+    public void aClaimNumberCannotBeProposedTwiceAgainstThePolicy() throws Exception {
+        issueAndProposeClaim();
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new ProposeClaimFlow.ProposeClaimInitiator(claimInfo, workerInfo.getPolicyNumber()));
+        network.runNetwork();
+        try {
+            future.get();
+            fail("The claim number is already proposed against the policy");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof FlowException);
+        }
+
+        for(StartedMockNode node : ImmutableList.of(a, b)) {
+            assertEquals(1, node.getServices().getVaultService().queryBy(ClaimState.class).getStates().size());
+        }
+    }
+
+    @Test
+    public void acceptClaimConsumesOnlyTheClaimState() throws Exception {
+        SignedTransaction proposal = issueAndProposeClaim();
+
+        InsuranceDetailInfo insuranceDetailInfo = new InsuranceDetailInfo("CompNr", "PolNr", "field");
+        CordaFuture<SignedTransaction> future = a.startFlow(new AcceptClaimFlow.AcceptClaimInitiator(insuranceDetailInfo,
+                workerInfo.getPolicyNumber(), claimInfo.getClaimNumber(), b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        assertEquals(1, signedTransaction.getTx().getInputs().size());
+        assertEquals(proposal.getId(), signedTransaction.getTx().getInputs().get(0).getTxhash());
+
+        ClaimState output = signedTransaction.getTx().outputsOfType(ClaimState.class).get(0);
+        assertEquals(ClaimStatus.Accepted, output.getClaim().getClaimStatus());
+        assertNotNull(output.getClaim().getInsuranceDetail());
+    }
+
+    @Test
+    public void rejectClaimConsumesOnlyTheClaimState() throws Exception {
+        SignedTransaction proposal = issueAndProposeClaim();
+
+        CordaFuture<SignedTransaction> future = a.startFlow(new RejectClaimFlow.RejectClaimInitiator(
+                workerInfo.getPolicyNumber(), claimInfo.getClaimNumber(), b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        assertEquals(1, signedTransaction.getTx().getInputs().size());
+        assertEquals(proposal.getId(), signedTransaction.getTx().getInputs().get(0).getTxhash());
+
+        ClaimState output = signedTransaction.getTx().outputsOfType(ClaimState.class).get(0);
+        assertEquals(ClaimStatus.Rejected, output.getClaim().getClaimStatus());
+        assertNull(output.getClaim().getInsuranceDetail());
+    }
+}
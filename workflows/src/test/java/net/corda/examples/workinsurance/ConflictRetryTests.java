@@ -0,0 +1,169 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.NotaryError;
+import net.corda.core.flows.NotaryException;
+import net.corda.core.node.services.StatesNotAvailableException;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.utilities.NonEmptySet;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.flows.services.ConflictRetry;
+import net.corda.examples.workinsurance.flows.services.FlowPhase;
+import net.corda.examples.workinsurance.flows.services.FlowRetries;
+import net.corda.examples.workinsurance.flows.services.FlowTimingService;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class ConflictRetryTests {
+    // The nodes run their own threads, so the flows wake up from their backoff without pumping the network.
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+    )).withThreadPerNode(true));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    private final Date accidentDate = new Date(2019,10,12);
+    private final WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+        System.clearProperty(ConflictRetry.MAX_ATTEMPTS_PROPERTY);
+    }
+
+    private ClaimInfo claimInfo(String claimNumber) {
+        return new ClaimInfo(claimNumber, "Minor accident", 200,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+    }
+
+    private StateAndRef<InsuranceState> issuePolicy() throws Exception {
+        SignedTransaction issued = a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(
+                new InsuranceInfo(20000, 20, workerInfo), b.getInfo().getLegalIdentities().get(0))).get();
+        return issued.getTx().outRef(0);
+    }
+
+    // Soft locks the policy on the insuree's node, as another flow selecting it would.
+    private void lock(UUID lockId, StateAndRef<InsuranceState> policy) {
+        b.transaction(() -> {
+            try {
+                b.getServices().getVaultService().softLockReserve(lockId, NonEmptySet.of(policy.getRef()));
+            } catch (StatesNotAvailableException e) {
+                throw new IllegalStateException(e);
+            }
+            return null;
+        });
+    }
+
+    private void unlock(UUID lockId) {
+        b.transaction(() -> {
+            b.getServices().getVaultService().softLockRelease(lockId, null);
+            return null;
+        });
+    }
+
+    private FlowRetries claimRetries() {
+        return b.getServices().cordaService(FlowTimingService.class).retries("InsuranceClaimInitiator");
+    }
+
+    @Test
+    public void notaryConflictsAreRetriedUpToTheMaximumNumberOfAttempts() {
+        System.setProperty(ConflictRetry.MAX_ATTEMPTS_PROPERTY, "5");
+        FlowTimingService timingService = b.getServices().cordaService(FlowTimingService.class);
+        ConflictRetry retry = timingService.retry(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo("N1"), "policyNr"));
+        NotaryException conflict = new NotaryException(new NotaryError.Conflict(SecureHash.randomSHA256(), Collections.emptyMap()), null);
+
+        for (int attempt = 1; attempt < 5; attempt++) {
+            assertTrue(retry.shouldRetry(conflict));
+            Duration backoff = retry.nextBackoff();
+            assertTrue(backoff.toMillis() >= 1 && backoff.toMillis() <= 2000);
+        }
+        assertFalse(retry.shouldRetry(conflict));
+        assertEquals(5, claimRetries().getNotaryConflicts());
+        assertEquals(1, claimRetries().getExhausted());
+    }
+
+    @Test
+    public void otherFailuresAreNotRetried() {
+        FlowTimingService timingService = b.getServices().cordaService(FlowTimingService.class);
+        ConflictRetry retry = timingService.retry(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo("N1"), "policyNr"));
+
+        assertFalse(retry.shouldRetry(new FlowException("Claim rejected by the counterparty")));
+        assertEquals(0, claimRetries().getNotaryConflicts() + claimRetries().getSoftLockConflicts() + claimRetries().getExhausted());
+    }
+
+    @Test
+    public void aPolicyReservedByAnotherFlowFailsBeforeCollectingSignatures() throws Exception {
+        System.setProperty(ConflictRetry.MAX_ATTEMPTS_PROPERTY, "3");
+        StateAndRef<InsuranceState> policy = issuePolicy();
+        lock(UUID.randomUUID(), policy);
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo("N1"), workerInfo.getPolicyNumber()));
+        try {
+            future.get();
+            fail("The claim must fail while the policy is reserved");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof StatesNotAvailableException);
+        }
+        assertEquals(3, claimRetries().getSoftLockConflicts());
+        assertEquals(1, claimRetries().getExhausted());
+        // No transaction was proposed to the insurer.
+        assertEquals(0, a.getServices().cordaService(FlowTimingService.class).timing("InsuranceClaimResponder",
+                FlowPhase.CHECK_AND_SIGN).getCount());
+    }
+
+    @Test
+    public void aClaimWaitsForTheReservationOfThePolicyToBeReleased() throws Exception {
+        StateAndRef<InsuranceState> policy = issuePolicy();
+        UUID lockId = UUID.randomUUID();
+        lock(lockId, policy);
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo("N1"), workerInfo.getPolicyNumber()));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (claimRetries().getSoftLockConflicts() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        unlock(lockId);
+
+        InsuranceState output = future.get().getTx().outputsOfType(InsuranceState.class).get(0);
+        assertEquals(1, output.getClaims().size());
+        assertTrue(claimRetries().getSoftLockConflicts() >= 1);
+        assertEquals(0, claimRetries().getExhausted());
+    }
+
+    @Test
+    public void concurrentClaimsOnTheSamePolicyBothSucceed() throws Exception {
+        issuePolicy();
+
+        CordaFuture<SignedTransaction> first = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo("N1"), workerInfo.getPolicyNumber()));
+        CordaFuture<SignedTransaction> second = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo("N2"), workerInfo.getPolicyNumber()));
+        first.get();
+        second.get();
+
+        InsuranceState policy = b.transaction(() -> b.getServices().getVaultService().queryBy(InsuranceState.class)
+                .getStates().get(0).getState().getData());
+        assertEquals(2, policy.getClaims().size());
+    }
+}
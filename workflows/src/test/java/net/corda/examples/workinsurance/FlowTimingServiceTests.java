@@ -0,0 +1,85 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.flows.services.FlowPhase;
+import net.corda.examples.workinsurance.flows.services.FlowTimingService;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class FlowTimingServiceTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+    )));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    private final Date accidentDate = new Date(2019,10,12);
+    private final ClaimInfo claimInfo = new ClaimInfo("N1", "Minor accident", 200,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+
+    private final WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+    private final InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20, workerInfo);
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void everyPhaseOfTheInitiatorAndResponderIsTimed() throws Exception {
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, workerInfo.getPolicyNumber()));
+        network.runNetwork();
+
+        FlowTimingService insureeTiming = b.getServices().cordaService(FlowTimingService.class);
+        for (FlowPhase phase : ImmutableList.of(FlowPhase.VAULT_QUERY, FlowPhase.VERIFY, FlowPhase.SIGN,
+                FlowPhase.COLLECT_SIGNATURES, FlowPhase.FINALITY, FlowPhase.TOTAL)) {
+            assertEquals(phase.toString(), 1, insureeTiming.timing("InsuranceClaimInitiator", phase).getCount());
+        }
+
+        FlowTimingService insurerTiming = a.getServices().cordaService(FlowTimingService.class);
+        assertEquals(1, insurerTiming.timing("IssueInsuranceInitiator", FlowPhase.TOTAL).getCount());
+        assertEquals(0, insurerTiming.timing("IssueInsuranceInitiator", FlowPhase.VAULT_QUERY).getCount());
+        for (FlowPhase phase : ImmutableList.of(FlowPhase.CHECK_AND_SIGN, FlowPhase.RECEIVE_FINALITY, FlowPhase.TOTAL)) {
+            assertEquals(phase.toString(), 1, insurerTiming.timing("InsuranceClaimResponder", phase).getCount());
+        }
+    }
+
+    @Test
+    public void timingsAreExposedThroughJmx() throws Exception {
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        ObjectName name = new ObjectName("net.corda.examples.workinsurance:type=FlowTiming,node="
+                + ObjectName.quote(a.getInfo().getLegalIdentities().get(0).getName().toString())
+                + ",flow=IssueInsuranceInitiator,phase=TOTAL");
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Count"));
+        long p99 = (Long) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "P99Micros");
+        assertTrue(p99 > 0);
+    }
+}
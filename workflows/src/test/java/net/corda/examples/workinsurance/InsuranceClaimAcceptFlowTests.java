@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import net.corda.core.concurrent.CordaFuture;
 import net.corda.core.contracts.Command;
 import net.corda.core.contracts.TransactionState;
+import net.corda.core.flows.FlowLogic;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.examples.workinsurance.contracts.InsuranceContract;
 import net.corda.examples.workinsurance.enums.AccidentType;
@@ -11,9 +12,11 @@ import net.corda.examples.workinsurance.enums.ClaimStatus;
 import net.corda.examples.workinsurance.flows.implementations.InsuranceAcceptanceClaimFlow;
 import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
 import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.implementations.PolicyClaimsQueryFlow;
 import net.corda.examples.workinsurance.flows.models.ClaimInfo;
 import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
 import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.PolicyClaim;
 import net.corda.examples.workinsurance.flows.models.WorkerInfo;
 import net.corda.examples.workinsurance.states.Claim;
 import net.corda.examples.workinsurance.states.InsuranceState;
@@ -26,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -210,4 +214,73 @@ public class InsuranceClaimAcceptFlowTests {
         assertEquals(1, signedTransaction.getTx().getAttachments().size());
         assertNull(signedTransaction.getTx().getTimeWindow());
     }
+
+    @Test(timeout = 60000)
+    public void aClaimFiledWhileAnotherIsAcceptedIsRetriedOnTheSameSession() throws Exception {
+        WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+        InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20, workerInfo);
+
+        IssueInsuranceFlow.IssueInsuranceInitiator insuranceIssueFlow = new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0));
+        a.startFlow(insuranceIssueFlow);
+        network.runNetwork();
+
+        InsuranceClaimFlow.InsuranceClaimInitiator issueClaimflow = new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, workerInfo.getPolicyNumber());
+        b.startFlow(issueClaimflow);
+        network.runNetwork();
+
+        // Both flows spend the same version of the policy, so the notary rejects one of them, which is retried.
+        ClaimInfo secondClaimInfo = new ClaimInfo("N2", "Minor accident", 300,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+        CordaFuture<SignedTransaction> claimFuture = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(secondClaimInfo, workerInfo.getPolicyNumber()));
+        InsuranceDetailInfo insuranceDetailInfo = new InsuranceDetailInfo("CompNr", "PolNr", "field");
+        CordaFuture<SignedTransaction> acceptFuture = a.startFlow(new InsuranceAcceptanceClaimFlow.InsuranceAcceptanceClaimInitiator(insuranceDetailInfo, workerInfo.getPolicyNumber(),claimInfo.getClaimNumber(),b.getInfo().getLegalIdentities().get(0)));
+        // The retry sleeps between its attempts, so the network is pumped until both flows end.
+        while (!claimFuture.isDone() || !acceptFuture.isDone()) {
+            network.runNetwork();
+            Thread.sleep(10);
+        }
+        // The counterparties record the transactions after the initiators end.
+        network.runNetwork();
+        claimFuture.get();
+        acceptFuture.get();
+
+        // Both parties recorded the policy holding both transactions, and no counterparty flow is left waiting.
+        for(StartedMockNode node : ImmutableList.of(a, b)) {
+            InsuranceState policy = node.transaction(() -> node.getServices().getVaultService().queryBy(InsuranceState.class)
+                    .getStates().get(0).getState().getData());
+            assertEquals(3, policy.getClaims().size());
+            assertTrue(policy.getClaims().stream().anyMatch(claim -> claim.getClaimNumber().equals(claimInfo.getClaimNumber())
+                    && claim.getClaimStatus().equals(ClaimStatus.Accepted)));
+            assertTrue(policy.getClaims().stream().anyMatch(claim -> claim.getClaimNumber().equals(secondClaimInfo.getClaimNumber())
+                    && claim.getClaimStatus().equals(ClaimStatus.Proposal)));
+            assertTrue(node.findStateMachines(FlowLogic.class).isEmpty());
+        }
+    }
+
+    @Test
+    public void policyClaimsQueryReturnsOnlyTheLatestClaimOfTheClaimNumber() throws Exception {
+        WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+        InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20, workerInfo);
+
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, workerInfo.getPolicyNumber()));
+        network.runNetwork();
+        InsuranceDetailInfo insuranceDetailInfo = new InsuranceDetailInfo("CompNr", "PolNr", "field");
+        a.startFlow(new InsuranceAcceptanceClaimFlow.InsuranceAcceptanceClaimInitiator(insuranceDetailInfo, workerInfo.getPolicyNumber(),claimInfo.getClaimNumber(),b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        CordaFuture<List<PolicyClaim>> accepted = a.startFlow(new PolicyClaimsQueryFlow(null, null, ClaimStatus.Accepted, null, null, 0, 10));
+        CordaFuture<List<PolicyClaim>> proposed = a.startFlow(new PolicyClaimsQueryFlow(workerInfo.getPolicyNumber(), null, ClaimStatus.Proposal, null, null, 0, 10));
+        network.runNetwork();
+
+        // The proposal is superseded by the acceptance appended after it.
+        assertEquals(1, accepted.get().size());
+        PolicyClaim policyClaim = accepted.get().get(0);
+        assertEquals(workerInfo.getPolicyNumber(), policyClaim.getPolicyNumber());
+        assertEquals(claimInfo.getClaimNumber(), policyClaim.getClaimNumber());
+        assertEquals(a.getInfo().getLegalIdentities().get(0).getName().toString(), policyClaim.getInsurer());
+        assertEquals(b.getInfo().getLegalIdentities().get(0).getName().toString(), policyClaim.getInsuree());
+        assertTrue(proposed.get().isEmpty());
+    }
 }
@@ -1,9 +1,11 @@
 package net.corda.examples.workinsurance;
 
 import com.google.common.collect.ImmutableList;
+import kotlin.jvm.functions.Function1;
 import net.corda.core.concurrent.CordaFuture;
 import net.corda.core.contracts.Command;
 import net.corda.core.contracts.TransactionState;
+import net.corda.core.contracts.UniqueIdentifier;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.examples.workinsurance.contracts.InsuranceContract;
 import net.corda.examples.workinsurance.enums.AccidentType;
@@ -14,6 +16,7 @@ import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow
 import net.corda.examples.workinsurance.flows.models.ClaimInfo;
 import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
 import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.schema.PersistentClaimV2;
 import net.corda.examples.workinsurance.states.Claim;
 import net.corda.examples.workinsurance.states.InsuranceState;
 import net.corda.testing.node.MockNetwork;
@@ -24,7 +27,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -176,4 +185,84 @@ public class InsuranceClaimFlowTests {
         assertEquals(1, signedTransaction.getTx().getAttachments().size());
         assertNull(signedTransaction.getTx().getTimeWindow());
     }
+
+    @Test
+    public void flowSelectsThePolicyWithTheGivenPolicyNumber() throws Exception {
+        WorkerInfo otherWorkerInfo = new WorkerInfo("otherPolicyNr", "Maria", "654321", "CSW" );
+        WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(new InsuranceInfo(10000, 10, otherWorkerInfo), b.getInfo().getLegalIdentities().get(0)));
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(new InsuranceInfo(20000, 20, workerInfo), b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        InsuranceClaimFlow.InsuranceClaimInitiator flow = new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, workerInfo.getPolicyNumber());
+        CordaFuture<SignedTransaction> future = b.startFlow(flow);
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        InsuranceState output = signedTransaction.getTx().outputsOfType(InsuranceState.class).get(0);
+        assertEquals(workerInfo.getPolicyNumber(), output.getWorkerDetail().getPolicyNumber());
+    }
+
+    @Test
+    public void flowSelectsThePolicyWithTheGivenLinearId() throws Exception {
+        WorkerInfo otherWorkerInfo = new WorkerInfo("otherPolicyNr", "Maria", "654321", "CSW" );
+        WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(new InsuranceInfo(10000, 10, otherWorkerInfo), b.getInfo().getLegalIdentities().get(0)));
+        CordaFuture<SignedTransaction> issueFuture = a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(new InsuranceInfo(20000, 20, workerInfo), b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        UniqueIdentifier policyId = issueFuture.get().getTx().outputsOfType(InsuranceState.class).get(0).getLinearId();
+
+        InsuranceClaimFlow.InsuranceClaimInitiator flow = new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, policyId);
+        CordaFuture<SignedTransaction> future = b.startFlow(flow);
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        InsuranceState output = signedTransaction.getTx().outputsOfType(InsuranceState.class).get(0);
+        assertEquals(policyId, output.getLinearId());
+        assertEquals(workerInfo.getPolicyNumber(), output.getWorkerDetail().getPolicyNumber());
+    }
+
+    @Test
+    public void claimsOnTwoPoliciesWithTheSamePolicyNumberAreBothPersisted() throws Exception {
+        WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+        List<UniqueIdentifier> policyIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            CordaFuture<SignedTransaction> issueFuture = a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(
+                    new InsuranceInfo(20000, 20, workerInfo), b.getInfo().getLegalIdentities().get(0)));
+            network.runNetwork();
+            policyIds.add(issueFuture.get().getTx().outputsOfType(InsuranceState.class).get(0).getLinearId());
+        }
+        assertNotEquals(policyIds.get(0), policyIds.get(1));
+
+        for (UniqueIdentifier policyId : policyIds) {
+            CordaFuture<SignedTransaction> future = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, policyId));
+            network.runNetwork();
+            assertEquals(policyId, future.get().getTx().outputsOfType(InsuranceState.class).get(0).getLinearId());
+        }
+
+        for (StartedMockNode node : ImmutableList.of(a, b)) {
+            List<PersistentClaimV2> claims = node.transaction(() -> node.getServices().withEntityManager(
+                    (Function1<EntityManager, List<PersistentClaimV2>>) entityManager -> entityManager
+                            .createQuery("SELECT claim FROM PersistentClaimV2 claim", PersistentClaimV2.class).getResultList()));
+            assertEquals(2, claims.size());
+            Set<String> claimPolicyIds = claims.stream().map(PersistentClaimV2::getPolicyId).collect(Collectors.toSet());
+            assertEquals(policyIds.stream().map(policyId -> policyId.getId().toString()).collect(Collectors.toSet()), claimPolicyIds);
+        }
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void flowFailsForAnUnknownPolicyNumber() throws Exception {
+        WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+        InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20, workerInfo);
+
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        InsuranceClaimFlow.InsuranceClaimInitiator flow = new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, "unknownPolicyNr");
+        CordaFuture<SignedTransaction> future = b.startFlow(flow);
+        network.runNetwork();
+        future.get();
+    }
 }
@@ -0,0 +1,133 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.Command;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.contracts.InsuranceContract;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceBatchFlow;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtils.DEFAULT_PAGE_NUM;
+import static org.junit.Assert.*;
+
+public class IssueInsuranceBatchFlowTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+    )));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    private List<InsuranceInfo> insuranceInfos(int count) {
+        List<InsuranceInfo> insuranceInfos = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            insuranceInfos.add(new InsuranceInfo(20000, 20, new WorkerInfo("policyNr" + index, "Alfredo", "123456", "CSW")));
+        }
+        return insuranceInfos;
+    }
+
+    @Test
+    public void flowIssuesEveryPolicyInSizeBoundedTransactions() throws Exception {
+        List<InsuranceInfo> insuranceInfos = insuranceInfos(7);
+
+        CordaFuture<List<SignedTransaction>> future = a.startFlow(new IssueInsuranceBatchFlow.IssueInsuranceBatchInitiator(
+                insuranceInfos, b.getInfo().getLegalIdentities().get(0), 3));
+        network.runNetwork();
+        List<SignedTransaction> signedTransactions = future.get();
+
+        assertEquals(3, signedTransactions.size());
+        assertEquals(3, signedTransactions.get(0).getTx().getOutputStates().size());
+        assertEquals(3, signedTransactions.get(1).getTx().getOutputStates().size());
+        assertEquals(1, signedTransactions.get(2).getTx().getOutputStates().size());
+
+        int index = 0;
+        for (SignedTransaction signedTransaction : signedTransactions) {
+            assertEquals(0, signedTransaction.getTx().getInputs().size());
+            for (InsuranceState output : signedTransaction.getTx().outputsOfType(InsuranceState.class)) {
+                assertEquals(insuranceInfos.get(index++).getWorkerInfo().getPolicyNumber(), output.getWorkerDetail().getPolicyNumber());
+                assertEquals(b.getInfo().getLegalIdentities().get(0), output.getInsuree());
+                assertEquals(output.getWorkerDetail().getPolicyNumber(), output.getLinearId().getExternalId());
+            }
+        }
+    }
+
+    @Test
+    public void transactionsConstructedByFlowHaveOneIssueBatchCommandWithTheIssuerAndTheOwnerAsSigners() throws Exception {
+        CordaFuture<List<SignedTransaction>> future = a.startFlow(new IssueInsuranceBatchFlow.IssueInsuranceBatchInitiator(
+                insuranceInfos(4), b.getInfo().getLegalIdentities().get(0), 2));
+        network.runNetwork();
+
+        for (SignedTransaction signedTransaction : future.get()) {
+            assertEquals(1, signedTransaction.getTx().getCommands().size());
+            Command command = signedTransaction.getTx().getCommands().get(0);
+
+            assert(command.getValue() instanceof InsuranceContract.Commands.IssueInsuranceBatch);
+            assertEquals(2, command.getSigners().size());
+            assertTrue(command.getSigners().contains(a.getInfo().getLegalIdentities().get(0).getOwningKey()));
+            assertTrue(command.getSigners().contains(b.getInfo().getLegalIdentities().get(0).getOwningKey()));
+        }
+    }
+
+    @Test
+    public void issuedPoliciesAreKnownToBothParties() throws Exception {
+        CordaFuture<List<SignedTransaction>> future = a.startFlow(new IssueInsuranceBatchFlow.IssueInsuranceBatchInitiator(
+                insuranceInfos(5), b.getInfo().getLegalIdentities().get(0), 2));
+        network.runNetwork();
+        future.get();
+
+        for (StartedMockNode node : ImmutableList.of(a, b)) {
+            node.transaction(() -> {
+                Vault.Page<InsuranceState> page = node.getServices().getVaultService().queryBy(InsuranceState.class,
+                        new QueryCriteria.VaultQueryCriteria(), new PageSpecification(DEFAULT_PAGE_NUM, 10));
+                assertEquals(5, page.getStates().size());
+                return null;
+            });
+        }
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void flowFailsForARepeatedPolicyNumber() throws Exception {
+        List<InsuranceInfo> insuranceInfos = insuranceInfos(2);
+        insuranceInfos.add(insuranceInfos.get(0));
+
+        CordaFuture<List<SignedTransaction>> future = a.startFlow(new IssueInsuranceBatchFlow.IssueInsuranceBatchInitiator(
+                insuranceInfos, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        future.get();
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void flowFailsForABatchSizeAboveTheContractBound() throws Exception {
+        CordaFuture<List<SignedTransaction>> future = a.startFlow(new IssueInsuranceBatchFlow.IssueInsuranceBatchInitiator(
+                insuranceInfos(2), b.getInfo().getLegalIdentities().get(0), InsuranceContract.MAX_ISSUE_BATCH_SIZE + 1));
+        network.runNetwork();
+        future.get();
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import net.corda.core.concurrent.CordaFuture;
 import net.corda.core.contracts.Command;
 import net.corda.core.contracts.TransactionState;
+import net.corda.core.node.services.vault.QueryCriteria;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.examples.workinsurance.contracts.InsuranceContract;
 import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
@@ -18,6 +19,9 @@ import net.corda.testing.node.TestCordapp;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+
+import java.util.Collections;
+
 import static org.junit.Assert.*;
 
 public class IssueInsuranceFlowTests {
@@ -138,4 +142,25 @@ public class IssueInsuranceFlowTests {
         assertEquals(1, signedTransaction.getTx().getAttachments().size());
         assertNull(signedTransaction.getTx().getTimeWindow());
     }
+
+    @Test
+    public void flowGivesTheIssuedPolicyALinearIdKnownToBothParties() throws Exception {
+        WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+        InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20, workerInfo);
+        IssueInsuranceFlow.IssueInsuranceInitiator flow = new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0));
+        CordaFuture<SignedTransaction> future = a.startFlow(flow);
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        InsuranceState output = signedTransaction.getTx().outputsOfType(InsuranceState.class).get(0);
+        assertEquals(workerInfo.getPolicyNumber(), output.getLinearId().getExternalId());
+
+        QueryCriteria policyIdCriteria = new QueryCriteria.LinearStateQueryCriteria(null, Collections.singletonList(output.getLinearId()));
+        for (StartedMockNode node : ImmutableList.of(a, b)) {
+            node.transaction(() -> {
+                assertEquals(1, node.getServices().getVaultService().queryBy(InsuranceState.class, policyIdCriteria).getStates().size());
+                return null;
+            });
+        }
+    }
 }
@@ -0,0 +1,212 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import kotlin.jvm.functions.Function1;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.AbstractStateReplacementFlow;
+import net.corda.core.flows.NotaryChangeFlow;
+import net.corda.core.identity.CordaX500Name;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceBatchFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.implementations.RebalanceNotariesFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.NotaryRebalanceReport;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.flows.services.NotarySelectionService;
+import net.corda.examples.workinsurance.schema.PersistentClaimV2;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkNotarySpec;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class NotarySelectionServiceTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+                .withConfig(ImmutableMap.of(NotarySelectionService.STRATEGY_KEY, "CONSISTENT_HASH"))
+    )).withNotarySpecs(ImmutableList.of(
+        new MockNetworkNotarySpec(CordaX500Name.parse("O=Notary A,L=London,C=GB")),
+        new MockNetworkNotarySpec(CordaX500Name.parse("O=Notary B,L=London,C=GB")),
+        new MockNetworkNotarySpec(CordaX500Name.parse("O=Notary C,L=London,C=GB"))
+    )));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    private final Date accidentDate = new Date(2019,10,12);
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    private NotarySelectionService notarySelection() {
+        return a.getServices().cordaService(NotarySelectionService.class);
+    }
+
+    private InsuranceInfo insuranceInfo(String policyNumber) {
+        return new InsuranceInfo(20000, 20, new WorkerInfo(policyNumber, "Alfredo", "123456", "CSW"));
+    }
+
+    private StateAndRef<InsuranceState> issuePolicy(String policyNumber) throws Exception {
+        CordaFuture<SignedTransaction> future = a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(
+                insuranceInfo(policyNumber), b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+        return future.get().getTx().outRef(0);
+    }
+
+    @Test
+    public void policiesAreSpreadOverTheNotariesByPolicyNumber() throws Exception {
+        assertEquals(NotarySelectionService.Strategy.CONSISTENT_HASH, notarySelection().getStrategy());
+
+        Set<Party> notaries = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            String policyNumber = "policyNr" + i;
+            Party notary = issuePolicy(policyNumber).getState().getNotary();
+            assertEquals(notarySelection().notaryFor(policyNumber), notary);
+            notaries.add(notary);
+        }
+        assertTrue(notaries.size() > 1);
+    }
+
+    @Test
+    public void aPolicyNumberAlwaysMapsToTheSameNotaryOnEveryNode() {
+        for (int i = 0; i < 100; i++) {
+            String policyNumber = "policyNr" + i;
+            Party notary = notarySelection().notaryFor(policyNumber);
+            assertEquals(notary, notarySelection().notaryFor(policyNumber));
+            assertEquals(notary, b.getServices().cordaService(NotarySelectionService.class).notaryFor(policyNumber));
+        }
+    }
+
+    @Test
+    public void theClaimsOfAPolicyAreNotarisedByItsNotary() throws Exception {
+        Party notary = issuePolicy("policyNr").getState().getNotary();
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(new ClaimInfo("N1",
+                "Minor accident", 200, "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital"), "policyNr"));
+        network.runNetwork();
+
+        assertEquals(notary, future.get().getNotary());
+    }
+
+    @Test
+    public void aBatchIssuesOneTransactionPerNotary() throws Exception {
+        List<InsuranceInfo> insuranceInfos = new ArrayList<>();
+        Set<Party> notaries = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            insuranceInfos.add(insuranceInfo("policyNr" + i));
+            notaries.add(notarySelection().notaryFor("policyNr" + i));
+        }
+
+        CordaFuture<List<SignedTransaction>> future = a.startFlow(new IssueInsuranceBatchFlow.IssueInsuranceBatchInitiator(
+                insuranceInfos, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        List<SignedTransaction> transactions = future.get();
+        assertEquals(notaries.size(), transactions.size());
+        for (SignedTransaction transaction : transactions) {
+            for (InsuranceState policy : transaction.getTx().outputsOfType(InsuranceState.class)) {
+                assertEquals(notarySelection().notaryFor(policy.getWorkerDetail().getPolicyNumber()), transaction.getNotary());
+            }
+        }
+    }
+
+    @Test
+    public void rebalancingMovesTheMisplacedPoliciesToTheirNotary() throws Exception {
+        StateAndRef<InsuranceState> policy = issuePolicy("policyNr");
+        Party notary = policy.getState().getNotary();
+        Party otherNotary = network.getNotaryNodes().stream().map(node -> node.getInfo().getLegalIdentities().get(0))
+                .filter(candidate -> !candidate.equals(notary)).findFirst().get();
+
+        CordaFuture<StateAndRef<InsuranceState>> misplace = a.startFlow(new NotaryChangeFlow<>(policy, otherNotary,
+                AbstractStateReplacementFlow.Instigator.Companion.tracker()));
+        network.runNetwork();
+        assertEquals(otherNotary, misplace.get().getState().getNotary());
+
+        CordaFuture<NotaryRebalanceReport> dryRun = a.startFlow(new RebalanceNotariesFlow(100, true));
+        network.runNetwork();
+        assertEquals(1, dryRun.get().getMisplaced());
+        assertEquals(0, dryRun.get().getMoved());
+
+        CordaFuture<NotaryRebalanceReport> rebalance = a.startFlow(new RebalanceNotariesFlow(100, false));
+        network.runNetwork();
+        NotaryRebalanceReport report = rebalance.get();
+        assertEquals(1, report.getPolicies());
+        assertEquals(1, report.getMoved());
+        assertEquals(0, report.getFailed());
+
+        for (StartedMockNode node : ImmutableList.of(a, b)) {
+            Party current = node.transaction(() -> node.getServices().getVaultService().queryBy(InsuranceState.class)
+                    .getStates().get(0).getState().getNotary());
+            assertEquals(notary, current);
+        }
+    }
+
+    @Test
+    public void rebalancingMovesAPolicyHoldingClaims() throws Exception {
+        StateAndRef<InsuranceState> issued = issuePolicy("policyNr");
+        Party notary = issued.getState().getNotary();
+        Party otherNotary = network.getNotaryNodes().stream().map(node -> node.getInfo().getLegalIdentities().get(0))
+                .filter(candidate -> !candidate.equals(notary)).findFirst().get();
+
+        CordaFuture<SignedTransaction> claim = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(new ClaimInfo("N1",
+                "Minor accident", 200, "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital"), "policyNr"));
+        network.runNetwork();
+        StateAndRef<InsuranceState> policy = claim.get().getTx().outRef(0);
+
+        // Both notary changes record the same state data again, with the claim it appended.
+        CordaFuture<StateAndRef<InsuranceState>> misplace = a.startFlow(new NotaryChangeFlow<>(policy, otherNotary,
+                AbstractStateReplacementFlow.Instigator.Companion.tracker()));
+        network.runNetwork();
+        assertEquals(otherNotary, misplace.get().getState().getNotary());
+
+        CordaFuture<NotaryRebalanceReport> rebalance = a.startFlow(new RebalanceNotariesFlow(100, false));
+        network.runNetwork();
+        NotaryRebalanceReport report = rebalance.get();
+        assertEquals(1, report.getMoved());
+        assertEquals(0, report.getFailed());
+
+        String policyId = issued.getState().getData().getLinearId().getId().toString();
+        for (StartedMockNode node : ImmutableList.of(a, b)) {
+            StateAndRef<InsuranceState> current = node.transaction(() -> node.getServices().getVaultService()
+                    .queryBy(InsuranceState.class).getStates().get(0));
+            assertEquals(notary, current.getState().getNotary());
+            assertEquals(1, current.getState().getData().getClaims().size());
+            assertEquals("N1", current.getState().getData().getClaims().get(0).getClaimNumber());
+
+            List<PersistentClaimV2> claims = node.transaction(() -> node.getServices().withEntityManager(
+                    (Function1<EntityManager, List<PersistentClaimV2>>) entityManager -> entityManager
+                            .createQuery("SELECT claim FROM PersistentClaimV2 claim", PersistentClaimV2.class).getResultList()));
+            // The notary changes upsert the row of the claim rather than adding one.
+            assertEquals(1, claims.size());
+            assertEquals(1, claims.stream().map(persistentClaim -> persistentClaim.getPolicyId() + "|" + persistentClaim.getEntryIndex())
+                    .distinct().count());
+            PersistentClaimV2 persistentClaim = claims.get(0);
+            assertEquals(policyId, persistentClaim.getPolicyId());
+            assertEquals(Integer.valueOf(0), persistentClaim.getEntryIndex());
+            assertEquals("N1", persistentClaim.getClaimNumber());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.flows.implementations.InsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.implementations.PolicyIndexCheckFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.PolicyIndexReport;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.flows.services.PolicyIndexService;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class PolicyIndexServiceTests {
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+            TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+    )));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    private final Date accidentDate = new Date(2019,10,12);
+    private final ClaimInfo claimInfo = new ClaimInfo("N1", "Minor accident", 200,
+            "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+
+    private final WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+    private final InsuranceInfo insuranceInfo = new InsuranceInfo(20000, 20, workerInfo);
+
+    @Before
+    public void setup() {
+        network.runNetwork();
+    }
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    @Test
+    public void indexHoldsTheLatestVersionOfThePolicy() throws Exception {
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        CordaFuture<SignedTransaction> future = b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, workerInfo.getPolicyNumber()));
+        network.runNetwork();
+        SignedTransaction signedTransaction = future.get();
+
+        for(StartedMockNode node : ImmutableList.of(a, b)) {
+            StateAndRef<InsuranceState> indexed = node.getServices().cordaService(PolicyIndexService.class)
+                    .lookup(workerInfo.getPolicyNumber(), b.getInfo().getLegalIdentities().get(0));
+            assertNotNull(indexed);
+            assertEquals(signedTransaction.getId(), indexed.getRef().getTxhash());
+        }
+    }
+
+    @Test
+    public void indexIsConsistentWithTheVaultAfterClaims() throws Exception {
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(insuranceInfo, b.getInfo().getLegalIdentities().get(0)));
+        network.runNetwork();
+
+        b.startFlow(new InsuranceClaimFlow.InsuranceClaimInitiator(claimInfo, workerInfo.getPolicyNumber()));
+        network.runNetwork();
+
+        CordaFuture<PolicyIndexReport> future = b.startFlow(new PolicyIndexCheckFlow());
+        network.runNetwork();
+        PolicyIndexReport report = future.get();
+
+        assertTrue(report.isConsistent());
+        assertEquals(1, report.getSize());
+        assertEquals(1, report.getHits());
+    }
+}
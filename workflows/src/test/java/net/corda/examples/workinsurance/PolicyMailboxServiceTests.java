@@ -0,0 +1,192 @@
+package net.corda.examples.workinsurance;
+
+import com.google.common.collect.ImmutableList;
+import net.corda.core.concurrent.CordaFuture;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.examples.workinsurance.enums.AccidentType;
+import net.corda.examples.workinsurance.enums.ClaimStatus;
+import net.corda.examples.workinsurance.flows.implementations.IssueInsuranceFlow;
+import net.corda.examples.workinsurance.flows.implementations.MailboxAdjudicationClaimFlow;
+import net.corda.examples.workinsurance.flows.implementations.MailboxInsuranceClaimFlow;
+import net.corda.examples.workinsurance.flows.models.ClaimDecisionInfo;
+import net.corda.examples.workinsurance.flows.models.ClaimInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceDetailInfo;
+import net.corda.examples.workinsurance.flows.models.InsuranceInfo;
+import net.corda.examples.workinsurance.flows.models.WorkerInfo;
+import net.corda.examples.workinsurance.flows.services.PolicyMailboxService;
+import net.corda.examples.workinsurance.states.Claim;
+import net.corda.examples.workinsurance.states.InsuranceState;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetworkParameters;
+import net.corda.testing.node.StartedMockNode;
+import net.corda.testing.node.TestCordapp;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class PolicyMailboxServiceTests {
+    // The nodes run their own threads, so the group commits started by the mailboxes run without pumping the network.
+    private final MockNetwork network = new MockNetwork(new MockNetworkParameters(ImmutableList.of(
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.contracts"),
+        TestCordapp.findCordapp("net.corda.examples.workinsurance.flows")
+    )).withThreadPerNode(true));
+    private final StartedMockNode a = network.createNode();
+    private final StartedMockNode b = network.createNode();
+
+    private final Date accidentDate = new Date(2019,10,12);
+    private final WorkerInfo workerInfo = new WorkerInfo("policyNr", "Alfredo", "123456", "CSW" );
+    private final InsuranceDetailInfo insuranceDetailInfo = new InsuranceDetailInfo("InsuranceCompanyNr", "InsuranceCompanyPolicyNr", "Field");
+
+    @After
+    public void tearDown() {
+        network.stopNodes();
+    }
+
+    private Party insuree() {
+        return b.getInfo().getLegalIdentities().get(0);
+    }
+
+    private void issuePolicy() throws Exception {
+        a.startFlow(new IssueInsuranceFlow.IssueInsuranceInitiator(new InsuranceInfo(20000, 20, workerInfo), insuree())).get();
+    }
+
+    private ClaimInfo claimInfo(String claimNumber) {
+        return new ClaimInfo(claimNumber, "Minor accident", 200,
+                "internalPolicyNr", accidentDate, accidentDate, AccidentType.WorkAccident, "DayHospital");
+    }
+
+    private List<CordaFuture<SignedTransaction>> fileClaims(int count) {
+        List<CordaFuture<SignedTransaction>> futures = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            futures.add(b.startFlow(new MailboxInsuranceClaimFlow(claimInfo("N" + i), workerInfo.getPolicyNumber())));
+        }
+        return futures;
+    }
+
+    // The latest status of every claim number of the current version of the policy, as seen by the given node.
+    private Map<String, ClaimStatus> claimStatuses(StartedMockNode node) {
+        return node.transaction(() -> {
+            InsuranceState policy = node.getServices().getVaultService().queryBy(InsuranceState.class).getStates().get(0).getState().getData();
+            Map<String, ClaimStatus> statuses = new HashMap<>();
+            for (Claim claim : policy.getClaims()) {
+                statuses.put(claim.getClaimNumber(), claim.getClaimStatus());
+            }
+            return statuses;
+        });
+    }
+
+    @Test
+    public void concurrentClaimsOnTheSamePolicyAreAllFiled() throws Exception {
+        issuePolicy();
+
+        List<CordaFuture<SignedTransaction>> futures = fileClaims(10);
+        for (CordaFuture<SignedTransaction> future : futures) {
+            InsuranceState output = future.get().getTx().outputsOfType(InsuranceState.class).get(0);
+            assertTrue(output.getClaims().size() > output.getPreviousClaimCount());
+        }
+
+        Map<String, ClaimStatus> statuses = claimStatuses(b);
+        assertEquals(10, statuses.size());
+        assertTrue(statuses.values().stream().allMatch(ClaimStatus.Proposal::equals));
+        assertEquals(statuses, claimStatuses(a));
+
+        PolicyMailboxService mailboxes = b.getServices().cordaService(PolicyMailboxService.class);
+        assertEquals(10, mailboxes.getRequests());
+        assertTrue(mailboxes.getTransactions() <= mailboxes.getRequests());
+    }
+
+    @Test
+    public void claimsCommittedTogetherShareTheirTransaction() throws Exception {
+        issuePolicy();
+
+        List<CordaFuture<SignedTransaction>> futures = fileClaims(10);
+        Map<SignedTransaction, Integer> claimsPerTransaction = new HashMap<>();
+        for (CordaFuture<SignedTransaction> future : futures) {
+            claimsPerTransaction.merge(future.get(), 1, Integer::sum);
+        }
+
+        for (Map.Entry<SignedTransaction, Integer> transaction : claimsPerTransaction.entrySet()) {
+            InsuranceState output = transaction.getKey().getTx().outputsOfType(InsuranceState.class).get(0);
+            assertEquals((int) transaction.getValue(), output.getClaims().size() - output.getPreviousClaimCount());
+        }
+        assertEquals(claimsPerTransaction.size(), b.getServices().cordaService(PolicyMailboxService.class).getTransactions());
+    }
+
+    @Test
+    public void concurrentDecisionsOnTheSamePolicyAreAllMade() throws Exception {
+        issuePolicy();
+        for (CordaFuture<SignedTransaction> future : fileClaims(6)) {
+            future.get();
+        }
+
+        List<CordaFuture<SignedTransaction>> futures = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            ClaimDecisionInfo decision = i % 2 == 0
+                    ? new ClaimDecisionInfo("N" + i, ClaimStatus.Rejected, null)
+                    : new ClaimDecisionInfo("N" + i, ClaimStatus.Accepted, insuranceDetailInfo);
+            futures.add(a.startFlow(new MailboxAdjudicationClaimFlow(decision, workerInfo.getPolicyNumber(), insuree())));
+        }
+        for (CordaFuture<SignedTransaction> future : futures) {
+            future.get();
+        }
+
+        Map<String, ClaimStatus> statuses = claimStatuses(a);
+        for (int i = 1; i <= 6; i++) {
+            assertEquals(i % 2 == 0 ? ClaimStatus.Rejected : ClaimStatus.Accepted, statuses.get("N" + i));
+        }
+    }
+
+    @Test
+    public void aFailingDecisionDoesNotFailTheOthersOfItsGroup() throws Exception {
+        issuePolicy();
+        for (CordaFuture<SignedTransaction> future : fileClaims(4)) {
+            future.get();
+        }
+
+        List<CordaFuture<SignedTransaction>> futures = new ArrayList<>();
+        for (String claimNumber : ImmutableList.of("N1", "N2", "Unknown", "N3", "N4")) {
+            futures.add(a.startFlow(new MailboxAdjudicationClaimFlow(new ClaimDecisionInfo(claimNumber, ClaimStatus.Rejected, null),
+                    workerInfo.getPolicyNumber(), insuree())));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            if (i == 2) {
+                try {
+                    futures.get(i).get();
+                    fail("The decision on an unknown claim must fail");
+                } catch (ExecutionException e) {
+                    // The unknown claim is not in Proposal state.
+                }
+            } else {
+                futures.get(i).get();
+            }
+        }
+        Map<String, ClaimStatus> statuses = claimStatuses(a);
+        for (String claimNumber : ImmutableList.of("N1", "N2", "N3", "N4")) {
+            assertEquals(ClaimStatus.Rejected, statuses.get(claimNumber));
+        }
+    }
+
+    @Test
+    public void aReplayedRequestGetsTheResultOfTheFirstSubmission() throws Exception {
+        issuePolicy();
+
+        PolicyMailboxService mailboxes = b.getServices().cordaService(PolicyMailboxService.class);
+        CompletableFuture<SignedTransaction> first = mailboxes.submitClaim("claim-N1", workerInfo.getPolicyNumber(), claimInfo("N1"));
+        CompletableFuture<SignedTransaction> replayed = mailboxes.submitClaim("claim-N1", workerInfo.getPolicyNumber(), claimInfo("N1"));
+        assertSame(first, replayed);
+        SignedTransaction transaction = first.get();
+
+        // Replays after the request completed are answered from its result as well.
+        assertSame(transaction, mailboxes.submitClaim("claim-N1", workerInfo.getPolicyNumber(), claimInfo("N1")).get());
+        assertEquals(1, mailboxes.getRequests());
+        assertEquals(1, mailboxes.getTransactions());
+        assertEquals(1, claimStatuses(b).size());
+    }
+}